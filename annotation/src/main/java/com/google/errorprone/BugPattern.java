@@ -152,6 +152,27 @@ public @interface BugPattern {
     }
   }
 
+  /**
+   * How expensive this checker is to run.  Builds that need fast feedback can skip the more
+   * expensive checkers with the {@code -XepMaxCost} flag.
+   */
+  Cost cost() default Cost.MODERATE;
+
+  public enum Cost {
+    /**
+     * Inspects single nodes and their immediate children, e.g. literals or statement shapes.
+     */
+    CHEAP,
+    /**
+     * Resolves symbols and compares types.  The default.
+     */
+    MODERATE,
+    /**
+     * Analyzes whole method or class bodies, e.g. with dataflow or lock analysis.
+     */
+    EXPENSIVE
+  }
+
   /**
    * Whether this checker should be suppressible, and if so, by what means.
    */
@@ -200,6 +221,7 @@ public @interface BugPattern {
     public String summary;
     public String altNames;
     public MaturityLevel maturity;
+    public Cost cost;
     public SeverityLevel severity;
     public Suppressibility suppressibility;
     public String customSuppressionAnnotation;
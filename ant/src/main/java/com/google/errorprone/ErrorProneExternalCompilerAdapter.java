@@ -16,11 +16,26 @@
 
 package com.google.errorprone;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.errorprone.internal.ClassDataSharing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.compilers.DefaultCompilerAdapter;
 import org.apache.tools.ant.types.Commandline;
@@ -32,11 +47,25 @@ import org.apache.tools.ant.util.LoaderUtils;
 
 /**
  * Ant component to launch an external javac with error-prone enabled.
+ *
+ * <p>If {@code batch} is set, one worker JVM running {@link ErrorProneBatchCompiler} is started
+ * per distinct JVM configuration and reused by every javac task in the build, instead of forking
+ * a new JVM for each task.
+ *
+ * <p>If {@code classDataSharing} is set, the external JVM is started from the class-data sharing
+ * archive for the error-prone jar, see {@link ClassDataSharing}. This uses commercial features
+ * of the Oracle JDK 8.
  */
 public class ErrorProneExternalCompilerAdapter extends DefaultCompilerAdapter {
+  /** Batch workers, keyed by the command line used to start them. */
+  private static final Map<List<String>, BatchWorker> workers =
+      new HashMap<List<String>, BatchWorker>();
+
   private Path classpath;
   private String memoryStackSize;
   private List<Argument> jvmArgs = new ArrayList<Argument>();
+  private boolean batch = false;
+  private boolean classDataSharing = false;
 
   public void setClasspath(Path classpath) {
     this.classpath = classpath;
@@ -64,41 +93,22 @@ public class ErrorProneExternalCompilerAdapter extends DefaultCompilerAdapter {
     return arg;
   }
 
+  public void setBatch(boolean batch) {
+    this.batch = batch;
+  }
+
+  public void setClassDataSharing(boolean classDataSharing) {
+    this.classDataSharing = classDataSharing;
+  }
+
   @Override
   public boolean execute() throws BuildException {
     if (getJavac().isForkedJavac()) {
       attributes.log("Using external error-prone compiler", Project.MSG_VERBOSE);
-      Commandline cmd = new Commandline();
-      cmd.setExecutable(JavaEnvUtils.getJdkExecutable("java"));
-      if (memoryStackSize != null) {
-        cmd.createArgument().setValue("-Xss" + memoryStackSize);
-      }
-      String memoryParameterPrefix = "-X";
-      if (memoryInitialSize != null) {
-        cmd.createArgument().setValue(memoryParameterPrefix + "ms" + this.memoryInitialSize);
-        // Prevent setupModernJavacCommandlineSwitches() from doing it also
-        memoryInitialSize = null;
-      }
-      if (memoryMaximumSize != null) {
-        cmd.createArgument().setValue(memoryParameterPrefix + "mx" + this.memoryMaximumSize);
-        // Prevent setupModernJavacCommandlineSwitches() from doing it also
-        memoryMaximumSize = null;
-      }
-      for (Argument arg : jvmArgs) {
-        for (String part : arg.getParts()) {
-          cmd.createArgument().setValue(part);
-        }
-      }
-
-      cmd.createArgument().setValue("-classpath");
-      if (classpath == null) {
-        classpath = new Path(getProject());
+      Commandline cmd = createJvmCommandline();
+      if (batch) {
+        return executeInBatchWorker(cmd);
       }
-      // Usually redundant, but check two resources in case Ant stuff is in a different jar
-      addResourceSource(classpath, "com/google/errorprone/ErrorProneExternalCompilerAdapter.class");
-      addResourceSource(classpath, "com/google/errorprone/ErrorProneCompiler.class");
-      addResourceSource(classpath, "com/sun/tools/javac/Main.class");
-      cmd.createArgument().setPath(classpath);
       cmd.createArgument().setValue(ErrorProneCompiler.class.getName());
       setupModernJavacCommandlineSwitches(cmd);
       logAndAddFilesToCompile(cmd);
@@ -109,6 +119,168 @@ public class ErrorProneExternalCompilerAdapter extends DefaultCompilerAdapter {
     }
   }
 
+  /**
+   * Creates the command line that starts the external JVM, up to but excluding the main class.
+   */
+  private Commandline createJvmCommandline() {
+    Commandline cmd = new Commandline();
+    cmd.setExecutable(JavaEnvUtils.getJdkExecutable("java"));
+    if (memoryStackSize != null) {
+      cmd.createArgument().setValue("-Xss" + memoryStackSize);
+    }
+    String memoryParameterPrefix = "-X";
+    if (memoryInitialSize != null) {
+      cmd.createArgument().setValue(memoryParameterPrefix + "ms" + this.memoryInitialSize);
+      // Prevent setupModernJavacCommandlineSwitches() from doing it also
+      memoryInitialSize = null;
+    }
+    if (memoryMaximumSize != null) {
+      cmd.createArgument().setValue(memoryParameterPrefix + "mx" + this.memoryMaximumSize);
+      // Prevent setupModernJavacCommandlineSwitches() from doing it also
+      memoryMaximumSize = null;
+    }
+    if (classDataSharing) {
+      for (String flag : ClassDataSharing.jvmFlags(ErrorProneCompiler.class)) {
+        cmd.createArgument().setValue(flag);
+      }
+    }
+    for (Argument arg : jvmArgs) {
+      for (String part : arg.getParts()) {
+        cmd.createArgument().setValue(part);
+      }
+    }
+
+    cmd.createArgument().setValue("-classpath");
+    if (classpath == null) {
+      classpath = new Path(getProject());
+    }
+    // Usually redundant, but check two resources in case Ant stuff is in a different jar
+    addResourceSource(classpath, "com/google/errorprone/ErrorProneExternalCompilerAdapter.class");
+    addResourceSource(classpath, "com/google/errorprone/ErrorProneCompiler.class");
+    addResourceSource(classpath, "com/sun/tools/javac/Main.class");
+    cmd.createArgument().setValue(classDataSharing
+        ? ClassDataSharing.classPath(ErrorProneCompiler.class, classpath.toString())
+        : classpath.toString());
+    return cmd;
+  }
+
+  /**
+   * Writes the javac arguments to a file and compiles them in the shared batch worker for this
+   * JVM configuration, starting the worker if necessary.
+   */
+  private boolean executeInBatchWorker(Commandline jvmCmd) {
+    jvmCmd.createArgument().setValue(ErrorProneBatchCompiler.class.getName());
+    List<String> workerCommand = Arrays.asList(jvmCmd.getCommandline());
+
+    Commandline javacCmd = new Commandline();
+    setupModernJavacCommandlineSwitches(javacCmd);
+    logAndAddFilesToCompile(javacCmd);
+
+    File argumentFile = null;
+    try {
+      argumentFile = File.createTempFile("errorprone", ".args");
+      Files.write(argumentFile.toPath(), Arrays.asList(javacCmd.getArguments()), UTF_8);
+      BatchWorker worker = getWorker(workerCommand);
+      int exitCode;
+      String diagnostics;
+      synchronized (worker) {
+        try {
+          worker.requests.writeUTF(argumentFile.getAbsolutePath());
+          worker.requests.flush();
+          exitCode = worker.responses.readInt();
+          byte[] output = new byte[worker.responses.readInt()];
+          worker.responses.readFully(output);
+          diagnostics = new String(output, UTF_8);
+        } catch (IOException e) {
+          discardWorker(workerCommand, worker);
+          throw e;
+        }
+      }
+      if (!diagnostics.isEmpty()) {
+        attributes.log(diagnostics, Project.MSG_WARN);
+      }
+      return exitCode == 0;
+    } catch (IOException e) {
+      throw new BuildException("Error running error-prone batch worker", e, location);
+    } finally {
+      if (argumentFile != null) {
+        argumentFile.delete();
+      }
+    }
+  }
+
+  private BatchWorker getWorker(List<String> command) throws IOException {
+    synchronized (workers) {
+      BatchWorker worker = workers.get(command);
+      if (worker == null) {
+        attributes.log("Starting error-prone batch worker: " + command, Project.MSG_VERBOSE);
+        worker = new BatchWorker(new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start());
+        workers.put(command, worker);
+        getProject().addBuildListener(new WorkerShutdown(command, worker));
+      }
+      return worker;
+    }
+  }
+
+  private static void discardWorker(List<String> command, BatchWorker worker) {
+    synchronized (workers) {
+      if (workers.get(command) == worker) {
+        workers.remove(command);
+      }
+    }
+    worker.close();
+  }
+
+  private static class BatchWorker {
+    final Process process;
+    final DataOutputStream requests;
+    final DataInputStream responses;
+
+    BatchWorker(Process process) {
+      this.process = process;
+      this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+      this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    void close() {
+      try {
+        // Closing stdin asks the worker to exit once it has finished its current request.
+        requests.close();
+        process.waitFor();
+      } catch (IOException e) {
+        process.destroy();
+      } catch (InterruptedException e) {
+        process.destroy();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Stops a batch worker when the build that started it finishes. */
+  private static class WorkerShutdown implements BuildListener {
+    private final List<String> command;
+    private final BatchWorker worker;
+
+    WorkerShutdown(List<String> command, BatchWorker worker) {
+      this.command = command;
+      this.worker = worker;
+    }
+
+    @Override
+    public void buildFinished(BuildEvent event) {
+      discardWorker(command, worker);
+    }
+
+    @Override public void buildStarted(BuildEvent event) {}
+    @Override public void targetStarted(BuildEvent event) {}
+    @Override public void targetFinished(BuildEvent event) {}
+    @Override public void taskStarted(BuildEvent event) {}
+    @Override public void taskFinished(BuildEvent event) {}
+    @Override public void messageLogged(BuildEvent event) {}
+  }
+
   private void addResourceSource(Path classpath, String resource) {
     final File f = LoaderUtils.getResourceSource(ErrorProneExternalCompilerAdapter.class.getClassLoader(), resource);
     if (f != null) {
@@ -0,0 +1,87 @@
+#!/bin/bash
+
+# Generates an Application Class-Data Sharing archive for the error-prone jar.
+#
+# A training run compiles the JDK-only negative test cases with error-prone and records every
+# class it loads; the class list is then dumped into <jar basename>.jsa next to the jar, where
+# ClassDataSharing and the appcds/error-prone launcher look for it.
+#
+# error-prone runs on JDK 8, where archiving application classes is a commercial feature of the
+# Oracle JDK (8u40 and later), so the launchers only use the archive when asked to.  An archive
+# can only be mapped by the JVM that dumped it, and only if the class path starts with the class
+# path it was dumped with.  The archive is dumped with the jar alone as its class path, so that
+# the launchers need not change a class path beyond putting the jar first; classes from the javac
+# jar, which is only needed for the training run, are not archived.  The JVM and the class path
+# are recorded in <jar basename>.appcds for the launchers.
+#
+# Usage: generate-archive.sh <error_prone_core jar> [javac jar]
+
+set -e
+
+if [ -z "$1" ] || [ ! -f "$1" ]; then
+  echo "usage: $0 <error_prone_core jar> [javac jar]" >&2
+  exit 1
+fi
+
+absolute() {
+  echo "$( cd "$( dirname "$1" )" && pwd )/$( basename "$1" )"
+}
+
+JAR=$( absolute "$1" )
+CP=$JAR
+if [ -n "$2" ]; then
+  if [ ! -f "$2" ]; then
+    echo "error: javac jar not found: $2" >&2
+    exit 1
+  fi
+  CP=$CP:$( absolute "$2" )
+fi
+
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+APPCDS_FLAGS=(-XX:+UnlockCommercialFeatures -XX:+UseAppCDS)
+
+BASE=${JAR%.jar}
+CLASSLIST=$BASE.classlist
+ARCHIVE=$BASE.jsa
+SETTINGS=$BASE.appcds
+rm -f "$CLASSLIST" "$ARCHIVE" "$SETTINGS"
+WORK=$( mktemp -d )
+trap 'rm -rf "$WORK"' EXIT
+
+if ! "$JAVA" -version 2>&1 | grep -q 'version "1\.8\.' \
+    || ! "$JAVA" "${APPCDS_FLAGS[@]}" -version > /dev/null 2>&1; then
+  echo "error: $JAVA cannot archive error-prone; the appcds profile needs Oracle JDK 8u40" \
+      "or later" >&2
+  exit 1
+fi
+ARCHIVE_JAVA_HOME=$( "$JAVA" -XshowSettings:properties -version 2>&1 \
+    | sed -n 's/^ *java\.home = //p' )
+
+# Training corpus: test inputs that need nothing but the JDK, and so compile cleanly.
+CORPUS=()
+while IFS= read -r -d '' FILE; do
+  if ! grep -q -E '^import (com\.google\.|org\.|javax\.inject|junit)' "$FILE"; then
+    CORPUS+=("$FILE")
+  fi
+done < <( find src/test/resources/com/google/errorprone/bugpatterns \
+    -name '*NegativeCases*.java' -print0 )
+if [ "${#CORPUS[@]}" -eq 0 ]; then
+  echo "error: no training sources found; run from the core directory" >&2
+  exit 1
+fi
+
+echo "Recording class list: $CLASSLIST"
+if ! "$JAVA" "${APPCDS_FLAGS[@]}" -Xshare:off "-XX:DumpLoadedClassList=$CLASSLIST" -cp "$CP" \
+    com.google.errorprone.ErrorProneCompiler -proc:none -d "$WORK" "${CORPUS[@]}"; then
+  echo "error: the training compilation failed" >&2
+  exit 1
+fi
+
+echo "Dumping archive: $ARCHIVE"
+"$JAVA" "${APPCDS_FLAGS[@]}" -Xshare:dump "-XX:SharedClassListFile=$CLASSLIST" \
+    "-XX:SharedArchiveFile=$ARCHIVE" -cp "$JAR"
+
+{
+  echo "java.home=$ARCHIVE_JAVA_HOME"
+  echo "class.path=$JAR"
+} > "$SETTINGS"
@@ -0,0 +1,648 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.errorprone.BugPattern.SeverityLevel;
+
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.tree.EndPosTable;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+import com.sun.tools.javac.util.Names;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * An on-disk cache of the findings of analyzing a class, keyed by a hash of everything those
+ * findings depend on; see {@link #key}.
+ *
+ * <p>The cache is two files. {@code findings.log} is an append-only log of records, each holding
+ * a key and the findings stored for it. {@code findings.idx} is an open-addressing hash table from
+ * keys to the offsets of their records in the log. The table is memory-mapped, so a lookup reads
+ * a slot or two of the table and then a single record. The table can always be rebuilt from the
+ * log, and it is whenever it does not cover exactly the records in the log, e.g. after a crash.
+ *
+ * <p>Records are never removed from the log as they are stored, and most of them are never looked
+ * up again once their source file changes. When the log is opened and has grown past its maximum
+ * size, it is compacted: the most recently stored records that the index still refers to are kept
+ * until they take up half the maximum size, and the rest are dropped.
+ *
+ * <p>Only one compilation can use a cache at a time. The others find it locked and run without
+ * it.
+ */
+final class AnalysisCache implements Closeable {
+
+  /** A finding as rendered by {@link JavacErrorDescriptionListener}. */
+  static final class Finding {
+    final SeverityLevel severity;
+    final int startPosition;
+    final int preferredPosition;
+    final int endPosition;
+    final String message;
+
+    Finding(SeverityLevel severity, int startPosition, int preferredPosition, int endPosition,
+        String message) {
+      this.severity = severity;
+      this.startPosition = startPosition;
+      this.preferredPosition = preferredPosition;
+      this.endPosition = endPosition;
+      this.message = message;
+    }
+
+    static Finding of(SeverityLevel severity, DiagnosticPosition position,
+        EndPosTable endPositions, String message) {
+      return new Finding(severity, position.getStartPosition(), position.getPreferredPosition(),
+          position.getEndPosition(endPositions), message);
+    }
+
+    /** Returns the position to report this finding at, without the tree it was found in. */
+    DiagnosticPosition position() {
+      return new DiagnosticPosition() {
+        @Override
+        public JCTree getTree() {
+          return null;
+        }
+
+        @Override
+        public int getStartPosition() {
+          return startPosition;
+        }
+
+        @Override
+        public int getPreferredPosition() {
+          return preferredPosition;
+        }
+
+        @Override
+        public int getEndPosition(EndPosTable endPosTable) {
+          return endPosition;
+        }
+      };
+    }
+  }
+
+  private static final int MAGIC = 0x45504143;  // "EPAC"
+  private static final int FORMAT_VERSION = 1;
+
+  // The log starts with the magic number and version, followed by the records. Each record is a
+  // key, the length of the encoded findings, and the encoded findings.
+  private static final int LOG_HEADER_SIZE = 8;
+  private static final int KEY_SIZE = 16;
+  private static final int RECORD_HEADER_SIZE = KEY_SIZE + 4;
+
+  // The index starts with the magic number, version, capacity, number of entries and the length
+  // of the log it covers, followed by the slots. Each slot is a key and the offset of its record,
+  // or zero if the slot is empty.
+  private static final int CAPACITY_OFFSET = 8;
+  private static final int SIZE_OFFSET = 12;
+  private static final int LOG_LENGTH_OFFSET = 16;
+  private static final int INDEX_HEADER_SIZE = 24;
+  private static final int SLOT_SIZE = KEY_SIZE + 8;
+  private static final int INITIAL_CAPACITY = 1 << 12;
+  static final long DEFAULT_MAX_LOG_SIZE = 256L << 20;
+
+  private final FileChannel log;
+  private final FileLock lock;
+  private final FileChannel indexFile;
+  private MappedByteBuffer index;
+  private int capacity;
+  private int size;
+
+  private AnalysisCache(FileChannel log, FileLock lock, FileChannel indexFile) {
+    this.log = log;
+    this.lock = lock;
+    this.indexFile = indexFile;
+  }
+
+  /**
+   * Opens the cache in {@code dir}, creating it if necessary.
+   *
+   * @throws IOException if the cache cannot be read, or is in use by another compilation
+   */
+  static AnalysisCache open(Path dir) throws IOException {
+    return open(dir, DEFAULT_MAX_LOG_SIZE);
+  }
+
+  /** Like {@link #open(Path)}, but compacts the log if it is longer than {@code maxLogSize}. */
+  static AnalysisCache open(Path dir, long maxLogSize) throws IOException {
+    Files.createDirectories(dir);
+    FileChannel log = FileChannel.open(dir.resolve("findings.log"), READ, WRITE, CREATE);
+    try {
+      FileLock lock;
+      try {
+        lock = log.tryLock();
+      } catch (OverlappingFileLockException e) {
+        lock = null;
+      }
+      if (lock == null) {
+        throw new IOException("The analysis cache in " + dir + " is in use");
+      }
+      FileChannel indexFile = FileChannel.open(dir.resolve("findings.idx"), READ, WRITE, CREATE);
+      try {
+        AnalysisCache cache = new AnalysisCache(log, lock, indexFile);
+        cache.load();
+        if (log.size() > maxLogSize) {
+          cache.compact(maxLogSize / 2);
+        }
+        return cache;
+      } catch (IOException | RuntimeException e) {
+        indexFile.close();
+        throw e;
+      }
+    } catch (IOException | RuntimeException e) {
+      // Closing the log also releases the lock.
+      log.close();
+      throw e;
+    }
+  }
+
+  private void load() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+    if (log.size() < LOG_HEADER_SIZE || !readFully(header, 0) || header.getInt(0) != MAGIC
+        || header.getInt(4) != FORMAT_VERSION) {
+      log.truncate(0);
+      header.clear();
+      header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+      writeFully(header, 0);
+    }
+
+    ByteBuffer indexHeader = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+    if (indexFile.size() >= INDEX_HEADER_SIZE
+        && readFully(indexHeader, 0, indexFile)
+        && indexHeader.getInt(0) == MAGIC
+        && indexHeader.getInt(4) == FORMAT_VERSION
+        && indexHeader.getLong(LOG_LENGTH_OFFSET) == log.size()) {
+      int storedCapacity = indexHeader.getInt(CAPACITY_OFFSET);
+      if (Integer.bitCount(storedCapacity) == 1
+          && indexFile.size() == indexSize(storedCapacity)) {
+        capacity = storedCapacity;
+        size = indexHeader.getInt(SIZE_OFFSET);
+        index = indexFile.map(MapMode.READ_WRITE, 0, indexSize(capacity));
+        return;
+      }
+    }
+    rebuildIndex();
+  }
+
+  /** Rebuilds the index from the log, dropping a partially written record at its end. */
+  private void rebuildIndex() throws IOException {
+    indexFile.truncate(0);
+    mapEmptyIndex(INITIAL_CAPACITY);
+    long offset = LOG_HEADER_SIZE;
+    ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    while (offset < log.size()) {
+      recordHeader.clear();
+      if (!readFully(recordHeader, offset)
+          || recordHeader.getInt(KEY_SIZE) < 0
+          || offset + RECORD_HEADER_SIZE + recordHeader.getInt(KEY_SIZE) > log.size()) {
+        log.truncate(offset);
+        break;
+      }
+      long next = offset + RECORD_HEADER_SIZE + recordHeader.getInt(KEY_SIZE);
+      ensureCapacity();
+      insert(recordHeader.getLong(0), recordHeader.getLong(8), offset);
+      offset = next;
+    }
+    writeIndexHeader();
+  }
+
+  /**
+   * Rewrites the log with the most recently stored of the records that the index refers to, as
+   * many as fit in {@code budget} bytes, and rebuilds the index. The records only move towards the
+   * start of the log, so they are rewritten in place. The log's version is cleared meanwhile, so
+   * that a compilation that crashes halfway leaves an empty cache rather than a corrupt one.
+   */
+  private void compact(long budget) throws IOException {
+    List<Long> offsets = new ArrayList<>(size);
+    for (int slot = 0; slot < capacity; slot++) {
+      long offset = index.getLong(slotPosition(slot) + KEY_SIZE);
+      if (offset != 0) {
+        offsets.add(offset);
+      }
+    }
+    Collections.sort(offsets, Collections.reverseOrder());
+    List<Long> kept = new ArrayList<>();
+    long keptSize = LOG_HEADER_SIZE;
+    ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    for (long offset : offsets) {
+      recordHeader.clear();
+      if (!readFully(recordHeader, offset)) {
+        throw new IOException("Corrupt analysis cache index");
+      }
+      long recordSize = RECORD_HEADER_SIZE + recordHeader.getInt(KEY_SIZE);
+      if (keptSize + recordSize > budget) {
+        break;
+      }
+      keptSize += recordSize;
+      kept.add(offset);
+    }
+    Collections.reverse(kept);
+
+    writeVersion(0);
+    long position = LOG_HEADER_SIZE;
+    for (long offset : kept) {
+      recordHeader.clear();
+      readFully(recordHeader, offset);
+      ByteBuffer record =
+          ByteBuffer.allocate(RECORD_HEADER_SIZE + recordHeader.getInt(KEY_SIZE));
+      readFully(record, offset);
+      record.flip();
+      writeFully(record, position);
+      position += record.limit();
+    }
+    log.truncate(position);
+    writeVersion(FORMAT_VERSION);
+    rebuildIndex();
+  }
+
+  /** Writes the log's version, and makes sure it and the records before it are on disk. */
+  private void writeVersion(int version) throws IOException {
+    log.force(false);
+    ByteBuffer buffer = ByteBuffer.allocate(4);
+    buffer.putInt(version).flip();
+    writeFully(buffer, 4);
+    log.force(false);
+  }
+
+  private void mapEmptyIndex(int newCapacity) throws IOException {
+    capacity = newCapacity;
+    size = 0;
+    index = indexFile.map(MapMode.READ_WRITE, 0, indexSize(capacity));
+    for (int i = INDEX_HEADER_SIZE; i < index.capacity(); i += 8) {
+      index.putLong(i, 0);
+    }
+    index.putInt(0, MAGIC);
+    index.putInt(4, FORMAT_VERSION);
+  }
+
+  private void writeIndexHeader() throws IOException {
+    index.putInt(CAPACITY_OFFSET, capacity);
+    index.putInt(SIZE_OFFSET, size);
+    index.putLong(LOG_LENGTH_OFFSET, log.size());
+  }
+
+  /** Doubles the index if adding an entry would make it more than half full. */
+  private void ensureCapacity() throws IOException {
+    if ((size + 1) * 2 <= capacity) {
+      return;
+    }
+    long[] entries = new long[size * 3];
+    int count = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      int position = slotPosition(slot);
+      long offset = index.getLong(position + KEY_SIZE);
+      if (offset != 0) {
+        entries[count++] = index.getLong(position);
+        entries[count++] = index.getLong(position + 8);
+        entries[count++] = offset;
+      }
+    }
+    mapEmptyIndex(capacity * 2);
+    for (int i = 0; i < count; i += 3) {
+      insert(entries[i], entries[i + 1], entries[i + 2]);
+    }
+  }
+
+  private void insert(long key0, long key1, long offset) {
+    int position = slotPosition(find(key0, key1));
+    if (index.getLong(position + KEY_SIZE) == 0) {
+      size++;
+    }
+    index.putLong(position, key0);
+    index.putLong(position + 8, key1);
+    index.putLong(position + KEY_SIZE, offset);
+  }
+
+  /** Returns the slot holding the key, or the empty slot where it would be inserted. */
+  private int find(long key0, long key1) {
+    int mask = capacity - 1;
+    for (int slot = (int) key0 & mask; ; slot = (slot + 1) & mask) {
+      int position = slotPosition(slot);
+      if (index.getLong(position + KEY_SIZE) == 0
+          || (index.getLong(position) == key0 && index.getLong(position + 8) == key1)) {
+        return slot;
+      }
+    }
+  }
+
+  /** Returns the findings stored for {@code key}, if any. */
+  Optional<ImmutableList<Finding>> lookup(HashCode key) throws IOException {
+    ByteBuffer keyBytes = ByteBuffer.wrap(key.asBytes());
+    long key0 = keyBytes.getLong(0);
+    long key1 = keyBytes.getLong(8);
+    long offset = index.getLong(slotPosition(find(key0, key1)) + KEY_SIZE);
+    if (offset == 0) {
+      return Optional.absent();
+    }
+    ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    if (!readFully(recordHeader, offset)
+        || recordHeader.getLong(0) != key0 || recordHeader.getLong(8) != key1
+        || recordHeader.getInt(KEY_SIZE) < 0) {
+      return Optional.absent();
+    }
+    ByteBuffer findings = ByteBuffer.allocate(recordHeader.getInt(KEY_SIZE));
+    if (!readFully(findings, offset + RECORD_HEADER_SIZE)) {
+      return Optional.absent();
+    }
+    return Optional.of(decode(findings.array()));
+  }
+
+  /** Stores the findings for {@code key}, replacing any that were stored before. */
+  void store(HashCode key, List<Finding> findings) throws IOException {
+    byte[] encoded = encode(findings);
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + encoded.length);
+    record.put(key.asBytes()).putInt(encoded.length).put(encoded).flip();
+    long offset = log.size();
+    writeFully(record, offset);
+    ensureCapacity();
+    insert(record.getLong(0), record.getLong(8), offset);
+    writeIndexHeader();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      lock.release();
+    } finally {
+      indexFile.close();
+      log.close();
+    }
+  }
+
+  /** Encodes findings, as they are stored in the cache and by {@link RemoteAnalysisCache}. */
+  static byte[] encode(List<Finding> findings) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(findings.size());
+    for (Finding finding : findings) {
+      out.writeByte(finding.severity.ordinal());
+      out.writeInt(finding.startPosition);
+      out.writeInt(finding.preferredPosition);
+      out.writeInt(finding.endPosition);
+      byte[] message = finding.message.getBytes(UTF_8);
+      out.writeInt(message.length);
+      out.write(message);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  static ImmutableList<Finding> decode(byte[] encoded) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+    int count = in.readInt();
+    ImmutableList.Builder<Finding> findings = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      int severity = in.readByte();
+      if (severity < 0 || severity >= SeverityLevel.values().length) {
+        throw new IOException("Corrupt analysis cache record");
+      }
+      int startPosition = in.readInt();
+      int preferredPosition = in.readInt();
+      int endPosition = in.readInt();
+      byte[] message = new byte[in.readInt()];
+      in.readFully(message);
+      findings.add(new Finding(SeverityLevel.values()[severity], startPosition,
+          preferredPosition, endPosition, new String(message, UTF_8)));
+    }
+    return findings.build();
+  }
+
+  /**
+   * Computes the key for the findings of analyzing part of a compilation unit. The key also
+   * covers the version of error-prone, see {@link ErrorProneVersion#fingerprint}.
+   *
+   * @param configuration the configuration of the analysis, including the code of checkers that
+   *     are not part of error-prone, see {@link com.google.errorprone.scanner.Scanner#fingerprint}
+   * @param source the contents of the compilation unit's source file
+   * @param unit identifies the part of the compilation unit that was analyzed
+   * @param dependencies the {@link ApiHasher#apiHash}es of the classes referred to by that
+   *     part of the compilation unit
+   */
+  static HashCode key(String configuration, CharSequence source, int unit,
+      Iterable<HashCode> dependencies) {
+    Hasher hasher = Hashing.murmur3_128().newHasher()
+        .putInt(FORMAT_VERSION)
+        .putString(ErrorProneVersion.fingerprint(), UTF_8)
+        .putString(configuration, UTF_8)
+        .putString(source, UTF_8)
+        .putInt(unit);
+    for (HashCode dependency : dependencies) {
+      hasher.putBytes(dependency.asBytes());
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Hashes the non-private API of classes, for the {@code dependencies} of a {@link #key}. One is
+   * used per compilation, and remembers the hashes it computed.
+   */
+  static final class ApiHasher {
+    private final Map<ClassSymbol, HashCode> apiHashes = new HashMap<>();
+    private final Symtab symtab;
+    private final Names names;
+    private final Types types;
+    private final AnnotationFacts facts;
+
+    ApiHasher(Context context) {
+      this.symtab = Symtab.instance(context);
+      this.names = Names.instance(context);
+      this.types = Types.instance(context);
+      this.facts = AnnotationFacts.instance(context);
+    }
+
+    /**
+     * Hashes the non-private API of a class, including its nested classes and the API of its
+     * supertypes, since a class inherits their members.
+     *
+     * <p>A class from a compilation that wrote a facts file, see {@link AnnotationFacts}, is
+     * hashed by its class file instead of its symbol, so that computing a key does not complete
+     * the symbols that the facts spare the checks from completing.
+     */
+    HashCode apiHash(ClassSymbol sym) {
+      HashCode apiHash = apiHashes.get(sym);
+      if (apiHash == null) {
+        // Stands in for the class while it is hashed, should its supertypes be cyclic.
+        apiHashes.put(sym, HashCode.fromInt(0));
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putString(sym.flatName().toString(), UTF_8);
+        if (!putClassFile(hasher, sym)) {
+          putApi(hasher, sym);
+        }
+        apiHash = hasher.hash();
+        apiHashes.put(sym, apiHash);
+      }
+      return apiHash;
+    }
+
+    /**
+     * Hashes the class file of {@code sym} and the API of the classes it names as supertypes and
+     * member classes, if facts cover the class and its class file can be read.
+     */
+    private boolean putClassFile(Hasher hasher, ClassSymbol sym) {
+      if (sym.classfile == null || sym.classfile.getKind() != JavaFileObject.Kind.CLASS
+          || !facts.lookup(sym, types).isPresent()) {
+        return false;
+      }
+      byte[] classFile;
+      ClassFileHeader header;
+      try (InputStream in = sym.classfile.openInputStream()) {
+        classFile = ByteStreams.toByteArray(in);
+        header = ClassFileHeader.read(classFile);
+      } catch (IOException e) {
+        return false;
+      }
+      hasher.putBytes(classFile);
+      for (String name : Iterables.concat(header.supertypes, header.memberClasses)) {
+        hasher.putString(name, UTF_8);
+        ClassSymbol linked = symtab.classes.get(names.fromString(name));
+        if (linked != null) {
+          hasher.putBytes(apiHash(linked).asBytes());
+        } else {
+          // Not known to javac, which is part of the API too.
+          hasher.putString("<missing>", UTF_8);
+        }
+      }
+      return true;
+    }
+
+    private void putApi(Hasher hasher, ClassSymbol sym) {
+      try {
+        putDeclaration(hasher, sym);
+        putSupertype(hasher, sym.getSuperclass());
+        for (Type type : sym.getInterfaces()) {
+          putSupertype(hasher, type);
+        }
+        for (Symbol member : sym.members().getElements()) {
+          if ((member.flags() & Flags.PRIVATE) != 0) {
+            continue;
+          }
+          if (member instanceof ClassSymbol) {
+            hasher.putString(member.flatName().toString(), UTF_8);
+            putApi(hasher, (ClassSymbol) member);
+          } else {
+            hasher.putString(member.name.toString(), UTF_8);
+            putDeclaration(hasher, member);
+            hasher.putString(String.valueOf(member.type), UTF_8);
+            if (member instanceof MethodSymbol) {
+              for (VarSymbol parameter : ((MethodSymbol) member).params()) {
+                putAnnotations(hasher, parameter);
+              }
+            } else if (member instanceof VarSymbol) {
+              // Constants are inlined, and checks read their values.
+              hasher.putString(String.valueOf(((VarSymbol) member).getConstValue()), UTF_8);
+            }
+          }
+        }
+      } catch (CompletionFailure e) {
+        // The class is not on the classpath, which is part of its API too.
+        hasher.putString("<missing>", UTF_8);
+      }
+    }
+
+    private void putSupertype(Hasher hasher, Type type) {
+      hasher.putString(String.valueOf(type), UTF_8);
+      if (type != null && type.tsym instanceof ClassSymbol) {
+        hasher.putBytes(apiHash((ClassSymbol) type.tsym).asBytes());
+      }
+    }
+
+    private static void putDeclaration(Hasher hasher, Symbol sym) {
+      hasher.putString(sym.getKind().name(), UTF_8);
+      hasher.putString(sym.getModifiers().toString(), UTF_8);
+      putAnnotations(hasher, sym);
+    }
+
+    private static void putAnnotations(Hasher hasher, Symbol sym) {
+      hasher.putInt(sym.getAnnotationMirrors().size());
+      for (Attribute.Compound annotation : sym.getAnnotationMirrors()) {
+        hasher.putString(annotation.toString(), UTF_8);
+      }
+    }
+  }
+
+  private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+    return readFully(buffer, position, log);
+  }
+
+  private static boolean readFully(ByteBuffer buffer, long position, FileChannel channel)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      log.write(buffer, position + buffer.position());
+    }
+  }
+
+  private static long indexSize(int capacity) {
+    return INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE;
+  }
+
+  private static int slotPosition(int slot) {
+    return INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+  }
+}
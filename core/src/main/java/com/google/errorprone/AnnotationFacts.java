@@ -0,0 +1,430 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.Type.ArrayType;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facts about the annotations on the classes of other compilations, read from the compact
+ * "facts" files that those compilations wrote with {@code -XepFactsOutput}.
+ *
+ * <p>Checks such as CheckReturnValue, ForOverride, GuardedBy, CompileTimeConstant and
+ * NoAllocation look up annotations on symbols from dependency jars, which forces javac to complete
+ * those symbols, and fails if their class files are not on the classpath.  When a facts file
+ * covers a class, the annotations on it and on its members and parameters are answered from the
+ * file instead.  Only the {@link #TRACKED_ANNOTATIONS} are recorded; none of them is
+ * {@link java.lang.annotation.Inherited}, so only the annotations directly present on a symbol
+ * matter.
+ *
+ * <p>A facts file is a header, a table of fixed-size entries sorted by the hash of their
+ * symbol's key, and the keys themselves, so it is memory-mapped and searched in place:
+ * <ul>
+ * <li>The header is a magic number, the format version and the number of entries.</li>
+ * <li>Each entry is the 64-bit hash of the key, a bit set of the symbol's annotations, indexed
+ * like {@link #TRACKED_ANNOTATIONS}, and the offset of the entry's data in the file.</li>
+ * <li>The data of an entry is the key and, if the symbol is {@code @GuardedBy}, the guard,
+ * each as a length-prefixed UTF-8 string.</li>
+ * </ul>
+ * Every class of the compilation has an entry, even if it has no annotations, and so does the
+ * package of every {@code package-info.java}.  Other packages have no entry, since their
+ * annotations may be declared by another compilation.  Members and parameters only have entries
+ * if they are annotated.
+ */
+public final class AnnotationFacts {
+
+  /** The annotations whose presence is recorded in facts files. */
+  public static final ImmutableList<String> TRACKED_ANNOTATIONS = ImmutableList.of(
+      "javax.annotation.CheckReturnValue",
+      "com.google.errorprone.annotations.CanIgnoreReturnValue",
+      "com.google.errorprone.annotations.ForOverride",
+      "com.google.common.annotations.ForOverride",
+      "com.google.errorprone.annotations.NoAllocation",
+      "com.google.errorprone.annotations.CompileTimeConstant",
+      "com.google.common.annotations.CompileTimeConstant",
+      "net.jcip.annotations.GuardedBy",
+      "javax.annotation.concurrent.GuardedBy");
+
+  private static final int GUARDED_BY_FLAGS =
+      flag("net.jcip.annotations.GuardedBy") | flag("javax.annotation.concurrent.GuardedBy");
+
+  private static final int MAGIC = 0x45504641;
+  // Changes whenever the format or the tracked annotations change.
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 12;
+  private static final int ENTRY_SIZE = 16;
+
+  private static final Context.Key<AnnotationFacts> KEY = new Context.Key<>();
+
+  private static final AnnotationFacts EMPTY =
+      new AnnotationFacts(ImmutableList.<ByteBuffer>of());
+
+  /** The facts known to the compilation of {@code context}, which are none by default. */
+  public static AnnotationFacts instance(Context context) {
+    AnnotationFacts facts = context.get(KEY);
+    return facts != null ? facts : EMPTY;
+  }
+
+  /** Makes {@code facts} known to the compilation of {@code context}. */
+  public static void register(Context context, AnnotationFacts facts) {
+    if (context.get(KEY) == null) {
+      context.put(KEY, facts);
+    }
+  }
+
+  /** Returns facts that cover no classes at all. */
+  public static AnnotationFacts empty() {
+    return EMPTY;
+  }
+
+  /** Memory-maps the given facts files. */
+  public static AnnotationFacts open(List<Path> files) throws IOException {
+    if (files.isEmpty()) {
+      return EMPTY;
+    }
+    ImmutableList.Builder<ByteBuffer> buffers = ImmutableList.builder();
+    for (Path file : files) {
+      ByteBuffer buffer;
+      try (FileChannel channel = FileChannel.open(file, READ)) {
+        buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      }
+      if (buffer.limit() < HEADER_SIZE
+          || buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != FORMAT_VERSION
+          || buffer.getInt(8) < 0
+          || buffer.limit() < HEADER_SIZE + (long) buffer.getInt(8) * ENTRY_SIZE) {
+        throw new IOException(file + " is not a facts file of this version of error-prone");
+      }
+      buffers.add(buffer);
+    }
+    return new AnnotationFacts(buffers.build());
+  }
+
+  /** The facts about a single symbol. */
+  public static final class SymbolFacts {
+    private static final SymbolFacts NONE = new SymbolFacts(0, null);
+
+    private final int flags;
+    private final String guard;
+
+    private SymbolFacts(int flags, String guard) {
+      this.flags = flags;
+      this.guard = guard;
+    }
+
+    /**
+     * Returns true if the symbol is annotated with {@code annotationType}, which must be one of
+     * the {@link #TRACKED_ANNOTATIONS}.
+     */
+    public boolean isAnnotated(String annotationType) {
+      return (flags & flag(annotationType)) != 0;
+    }
+
+    /** Returns the value of the symbol's {@code @GuardedBy} annotation, or null if it has none. */
+    public String guardedBy() {
+      return guard;
+    }
+  }
+
+  private final ImmutableList<ByteBuffer> files;
+
+  private AnnotationFacts(ImmutableList<ByteBuffer> files) {
+    this.files = files;
+  }
+
+  /**
+   * Returns the facts about {@code sym}, or nothing if no facts file covers it, in which case
+   * the symbol itself must be inspected.
+   */
+  public Optional<SymbolFacts> lookup(Symbol sym, Types types) {
+    if (files.isEmpty()) {
+      return Optional.absent();
+    }
+    Symbol covering = sym;
+    if (sym instanceof MethodSymbol || (sym instanceof VarSymbol && sym.owner != null)) {
+      covering = sym.owner instanceof MethodSymbol ? sym.owner.owner : sym.owner;
+    }
+    String coveringKey = key(covering, types);
+    SymbolFacts coveringFacts = coveringKey != null ? find(bytes(coveringKey)) : null;
+    if (coveringFacts == null) {
+      return Optional.absent();
+    }
+    if (covering == sym) {
+      return Optional.of(coveringFacts);
+    }
+    String key = key(sym, types);
+    if (key == null) {
+      return Optional.absent();
+    }
+    SymbolFacts facts = find(bytes(key));
+    return Optional.of(facts != null ? facts : SymbolFacts.NONE);
+  }
+
+  /** Returns the facts of the entry for {@code key} in any of the files, or null if none. */
+  private SymbolFacts find(byte[] key) {
+    long hash = hash(key);
+    for (ByteBuffer file : files) {
+      int count = file.getInt(8);
+      // Find the first entry with the hash.
+      int low = 0;
+      int high = count;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (file.getLong(HEADER_SIZE + mid * ENTRY_SIZE) < hash) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      for (int i = low; i < count && file.getLong(HEADER_SIZE + i * ENTRY_SIZE) == hash; i++) {
+        int entry = HEADER_SIZE + i * ENTRY_SIZE;
+        int flags = file.getInt(entry + 8);
+        int data = file.getInt(entry + 12);
+        if (Arrays.equals(readBytes(file, data), key)) {
+          String guard = null;
+          if ((flags & GUARDED_BY_FLAGS) != 0) {
+            guard = new String(readBytes(file, data + 4 + key.length), UTF_8);
+          }
+          return new SymbolFacts(flags, guard);
+        }
+      }
+    }
+    return null;
+  }
+
+  private static byte[] readBytes(ByteBuffer file, int offset) {
+    byte[] bytes = new byte[file.getInt(offset)];
+    ByteBuffer slice = file.duplicate();
+    slice.position(offset + 4);
+    slice.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Returns the key of {@code sym} in facts files, or null if it is not a package, class,
+   * method, field or method parameter.
+   */
+  static String key(Symbol sym, Types types) {
+    if (sym instanceof PackageSymbol) {
+      return "package " + ((PackageSymbol) sym).fullname;
+    }
+    if (sym instanceof ClassSymbol) {
+      return ((ClassSymbol) sym).flatname.toString();
+    }
+    if (sym instanceof MethodSymbol && sym.owner instanceof ClassSymbol) {
+      StringBuilder key = new StringBuilder(key(sym.owner, types)).append('#').append(sym.name);
+      String separator = "(";
+      for (Type parameter : sym.type.getParameterTypes()) {
+        key.append(separator).append(erasedName(parameter, types));
+        separator = ",";
+      }
+      return key.append(separator.equals("(") ? "()" : ")").toString();
+    }
+    if (sym instanceof VarSymbol && sym.owner instanceof ClassSymbol) {
+      return key(sym.owner, types) + "#" + sym.name;
+    }
+    if (sym instanceof VarSymbol && sym.owner instanceof MethodSymbol) {
+      int index = ((MethodSymbol) sym.owner).getParameters().indexOf(sym);
+      String method = key(sym.owner, types);
+      return index >= 0 && method != null ? method + "#" + index : null;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the name of the erasure of {@code type}, which is the same whether the type was read
+   * from source or from a class file.
+   */
+  private static String erasedName(Type type, Types types) {
+    Type erased = types.erasure(type);
+    if (erased instanceof ArrayType) {
+      return erasedName(((ArrayType) erased).elemtype, types) + "[]";
+    }
+    return erased.tsym.flatName().toString();
+  }
+
+  private static int flag(String annotationType) {
+    int index = TRACKED_ANNOTATIONS.indexOf(annotationType);
+    return index >= 0 ? 1 << index : 0;
+  }
+
+  private static byte[] bytes(String key) {
+    return key.getBytes(UTF_8);
+  }
+
+  private static long hash(byte[] key) {
+    return Hashing.murmur3_128().hashBytes(key).asLong();
+  }
+
+  /** Records the facts about the classes of a compilation, and writes them to a facts file. */
+  public static final class Writer {
+    private final Types types;
+    // The facts for each key, in the order they were recorded.
+    private final Map<String, SymbolFacts> facts = new LinkedHashMap<>();
+
+    public Writer(Types types) {
+      this.types = types;
+    }
+
+    /** Records the package declared by a {@code package-info.java}. */
+    public void recordPackage(PackageSymbol sym) {
+      if (sym != null) {
+        record(sym, true);
+      }
+    }
+
+    /** Records a class declaration, its members and the classes nested in it. */
+    public void recordClass(JCClassDecl tree) {
+      if (tree.sym == null) {
+        return;
+      }
+      record(tree.sym, true);
+      for (JCTree def : tree.defs) {
+        if (def instanceof JCClassDecl) {
+          recordClass((JCClassDecl) def);
+        } else if (def instanceof JCMethodDecl && ((JCMethodDecl) def).sym != null) {
+          MethodSymbol method = ((JCMethodDecl) def).sym;
+          record(method, false);
+          for (VarSymbol parameter : method.getParameters()) {
+            record(parameter, false);
+          }
+        } else if (def instanceof JCVariableDecl && ((JCVariableDecl) def).sym != null) {
+          record(((JCVariableDecl) def).sym, false);
+        }
+      }
+    }
+
+    private void record(Symbol sym, boolean always) {
+      String key = key(sym, types);
+      if (key == null) {
+        return;
+      }
+      int flags = 0;
+      String guard = null;
+      for (Attribute.Compound annotation : sym.getAnnotationMirrors()) {
+        int flag = flag(annotation.type.tsym.getQualifiedName().toString());
+        flags |= flag;
+        if ((flag & GUARDED_BY_FLAGS) != 0) {
+          for (Pair<MethodSymbol, Attribute> value : annotation.values) {
+            if (value.fst.name.contentEquals("value") && value.snd.getValue() instanceof String) {
+              guard = (String) value.snd.getValue();
+            }
+          }
+        }
+      }
+      if ((flags & GUARDED_BY_FLAGS) != 0 && guard == null) {
+        // Without its guard, the annotation can't be checked from the facts.
+        flags &= ~GUARDED_BY_FLAGS;
+      }
+      if (flags != 0 || always) {
+        SymbolFacts existing = facts.get(key);
+        if (existing == null || flags != 0) {
+          facts.put(key, new SymbolFacts(flags, guard));
+        }
+      }
+    }
+
+    /** Writes the facts recorded so far to {@code file}, replacing it atomically. */
+    public void write(Path file) throws IOException {
+      List<Map.Entry<String, SymbolFacts>> entries = new ArrayList<>(facts.entrySet());
+      final Map<String, Long> hashes = new LinkedHashMap<>();
+      for (Map.Entry<String, SymbolFacts> entry : entries) {
+        hashes.put(entry.getKey(), hash(bytes(entry.getKey())));
+      }
+      Collections.sort(entries, new Comparator<Map.Entry<String, SymbolFacts>>() {
+        @Override
+        public int compare(Map.Entry<String, SymbolFacts> a, Map.Entry<String, SymbolFacts> b) {
+          return Long.compare(hashes.get(a.getKey()), hashes.get(b.getKey()));
+        }
+      });
+
+      Path parent = file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      try {
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+          out.writeInt(MAGIC);
+          out.writeInt(FORMAT_VERSION);
+          out.writeInt(entries.size());
+          int data = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+          for (Map.Entry<String, SymbolFacts> entry : entries) {
+            out.writeLong(hashes.get(entry.getKey()));
+            out.writeInt(entry.getValue().flags);
+            out.writeInt(data);
+            data += 4 + bytes(entry.getKey()).length;
+            if (entry.getValue().guard != null) {
+              data += 4 + bytes(entry.getValue().guard).length;
+            }
+          }
+          for (Map.Entry<String, SymbolFacts> entry : entries) {
+            writeBytes(out, bytes(entry.getKey()));
+            if (entry.getValue().guard != null) {
+              writeBytes(out, bytes(entry.getValue().guard));
+            }
+          }
+        }
+        Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+import com.sun.tools.javac.file.JavacFileManager;
+import com.sun.tools.javac.util.Context;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * A {@link JavacFileManager} that a {@link CompilerCache} lends to one compilation after another,
+ * keeping the jar files it has opened and indexed.
+ */
+final class CachingFileManager extends JavacFileManager {
+
+  // The paths whose jar files stay open between compilations.
+  private static final ImmutableList<StandardLocation> INPUT_LOCATIONS = ImmutableList.of(
+      StandardLocation.PLATFORM_CLASS_PATH,
+      StandardLocation.CLASS_PATH,
+      StandardLocation.ANNOTATION_PROCESSOR_PATH);
+
+  private final ClassFileCache platformClasses;
+  // The versions of the jar files on the paths of the last compilation.
+  private ImmutableMap<File, Version> inputs = ImmutableMap.of();
+
+  /** Creates a file manager for the compilation with {@code context}, and registers it there. */
+  CachingFileManager(Context context, ClassFileCache platformClasses) {
+    super(context, true, null);
+    this.platformClasses = platformClasses;
+  }
+
+  /** Prepares the file manager for the next compilation, with {@code context}. */
+  void reuse(Context context) {
+    for (Map.Entry<File, Version> input : inputs.entrySet()) {
+      if (!Version.of(input.getKey()).equals(input.getValue())) {
+        // Reopen every jar file, rather than use the stale index of the one that changed.
+        closeQuietly(this);
+        break;
+      }
+    }
+    // The search paths are rebuilt from each compilation's own options; only the archives opened
+    // on them are reused.
+    locations = createLocations();
+    setContext(context);
+    context.put(JavaFileManager.class, this);
+  }
+
+  /** Records the versions of the jar files the compilation that just ended used. */
+  void recordInputs() {
+    Map<File, Version> versions = new HashMap<>();
+    for (StandardLocation location : INPUT_LOCATIONS) {
+      Iterable<? extends File> path = getLocation(location);
+      if (path == null) {
+        continue;
+      }
+      for (File file : path) {
+        if (file.isFile()) {
+          versions.put(file, Version.of(file));
+        }
+      }
+    }
+    inputs = ImmutableMap.copyOf(versions);
+  }
+
+  private static void closeQuietly(JavaFileManager fileManager) {
+    try {
+      fileManager.close();
+    } catch (IOException e) {
+      // The jar files are reopened when they are next needed.
+    }
+  }
+
+  @Override
+  public Iterable<JavaFileObject> list(Location location, String packageName,
+      Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+    Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+    if (platformClasses == null || location != StandardLocation.PLATFORM_CLASS_PATH) {
+      return files;
+    }
+    List<JavaFileObject> cached = new ArrayList<>();
+    for (JavaFileObject file : files) {
+      cached.add(file.getKind() == JavaFileObject.Kind.CLASS
+          ? new CachedClassFile(file, platformClasses) : file);
+    }
+    return cached;
+  }
+
+  @Override
+  public String inferBinaryName(Location location, JavaFileObject file) {
+    return super.inferBinaryName(location, unwrap(file));
+  }
+
+  @Override
+  public boolean isSameFile(FileObject a, FileObject b) {
+    return super.isSameFile(unwrap(a), unwrap(b));
+  }
+
+  private static <T extends FileObject> T unwrap(T file) {
+    if (file instanceof CachedClassFile) {
+      @SuppressWarnings("unchecked")  // A CachedClassFile is a JavaFileObject.
+      T delegate = (T) ((CachedClassFile) file).delegate();
+      return delegate;
+    }
+    return file;
+  }
+
+  /** The last-modified time and length of a file, which change when it is rewritten. */
+  private static final class Version {
+    final long lastModified;
+    final long length;
+
+    Version(long lastModified, long length) {
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+
+    static Version of(File file) {
+      return new Version(file.lastModified(), file.length());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Version
+          && ((Version) other).lastModified == lastModified
+          && ((Version) other).length == length;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (lastModified ^ (lastModified >>> 32)) * 31 + (int) length;
+    }
+  }
+
+  /**
+   * The contents of the class files read from the platform class path, shared by all the file
+   * managers of a {@link CompilerCache}.
+   */
+  static final class ClassFileCache {
+    // Enough for the platform classes that even large compilations read.
+    private static final long MAX_BYTES = 64L << 20;
+
+    private final ConcurrentMap<URI, CachedBytes> classFiles = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+
+    byte[] read(JavaFileObject file) throws IOException {
+      URI uri = file.toUri();
+      long lastModified = file.getLastModified();
+      CachedBytes cached = classFiles.get(uri);
+      if (cached != null && cached.lastModified == lastModified) {
+        return cached.bytes;
+      }
+      byte[] bytes;
+      try (InputStream in = file.openInputStream()) {
+        bytes = ByteStreams.toByteArray(in);
+      }
+      if (size.addAndGet(bytes.length) <= MAX_BYTES) {
+        CachedBytes replaced = classFiles.put(uri, new CachedBytes(lastModified, bytes));
+        if (replaced != null) {
+          size.addAndGet(-replaced.bytes.length);
+        }
+      } else {
+        size.addAndGet(-bytes.length);
+      }
+      return bytes;
+    }
+  }
+
+  private static final class CachedBytes {
+    final long lastModified;
+    final byte[] bytes;
+
+    CachedBytes(long lastModified, byte[] bytes) {
+      this.lastModified = lastModified;
+      this.bytes = bytes;
+    }
+  }
+
+  /** A platform class file whose contents are read through the {@link ClassFileCache}. */
+  private static final class CachedClassFile extends ForwardingJavaFileObject<JavaFileObject> {
+    private final ClassFileCache cache;
+
+    CachedClassFile(JavaFileObject file, ClassFileCache cache) {
+      super(file);
+      this.cache = cache;
+    }
+
+    JavaFileObject delegate() {
+      return fileObject;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+      return new ByteArrayInputStream(cache.read(fileObject));
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The lines of each source file that were changed, e.g. by a code review, given by
+ * {@code -XepChangedLines:<file>}.  Only findings on changed lines are reported, and the
+ * declarations that do not overlap any changed line are not analyzed at all.
+ *
+ * <p>Each line of the file is {@code <path>:<first>[-<last>]}, giving an inclusive range of
+ * 1-based line numbers.  A path may be given on many lines.  The path may be relative, in which
+ * case it matches every source file whose path ends with it.  Blank lines and lines starting with
+ * {@code #} are ignored.
+ */
+public final class ChangedLines {
+
+  private final ImmutableMap<String, ImmutableRangeSet<Integer>> linesByPath;
+
+  private ChangedLines(ImmutableMap<String, ImmutableRangeSet<Integer>> linesByPath) {
+    this.linesByPath = linesByPath;
+  }
+
+  /** Reads the changed lines from a file. */
+  public static ChangedLines read(String file) throws InvalidCommandLineOptionException {
+    try {
+      return parse(Files.readAllLines(Paths.get(file), UTF_8));
+    } catch (IOException e) {
+      throw new InvalidCommandLineOptionException(
+          "cannot read changed lines from " + file + ": " + e.getMessage());
+    }
+  }
+
+  public static ChangedLines parse(List<String> lines) throws InvalidCommandLineOptionException {
+    Map<String, RangeSet<Integer>> linesByPath = new HashMap<>();
+    for (String line : lines) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      // The path may itself contain ':', e.g. on Windows.
+      int colon = line.lastIndexOf(':');
+      String path = colon > 0 ? normalize(line.substring(0, colon)) : "";
+      Range<Integer> range = colon > 0 ? parseRange(line.substring(colon + 1)) : null;
+      if (path.isEmpty() || range == null) {
+        throw new InvalidCommandLineOptionException("invalid changed lines entry: " + line);
+      }
+      RangeSet<Integer> pathLines = linesByPath.get(path);
+      if (pathLines == null) {
+        pathLines = TreeRangeSet.create();
+        linesByPath.put(path, pathLines);
+      }
+      pathLines.add(range);
+    }
+    ImmutableMap.Builder<String, ImmutableRangeSet<Integer>> result = ImmutableMap.builder();
+    for (Map.Entry<String, RangeSet<Integer>> entry : linesByPath.entrySet()) {
+      result.put(entry.getKey(), ImmutableRangeSet.copyOf(entry.getValue()));
+    }
+    return new ChangedLines(result.build());
+  }
+
+  private static Range<Integer> parseRange(String range) {
+    String[] bounds = range.split("-", 2);
+    try {
+      int first = Integer.parseInt(bounds[0].trim());
+      int last = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : first;
+      return first >= 1 && first <= last ? Range.closed(first, last) : null;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String normalize(String path) {
+    path = path.trim().replace('\\', '/');
+    while (path.startsWith("./")) {
+      path = path.substring(2);
+    }
+    return path;
+  }
+
+  /**
+   * Returns the changed lines of the source file at {@code path}, which are empty if the file
+   * did not change.
+   */
+  public ImmutableRangeSet<Integer> forPath(String path) {
+    path = normalize(path);
+    ImmutableRangeSet<Integer> lines = linesByPath.get(path);
+    // Try each suffix of the path that starts a path segment.
+    for (int i = path.indexOf('/'); lines == null && i >= 0; i = path.indexOf('/', i + 1)) {
+      lines = linesByPath.get(path.substring(i + 1));
+    }
+    return lines != null ? lines : ImmutableRangeSet.<Integer>of();
+  }
+
+  /**
+   * Returns whether the lines {@code first} to {@code last}, inclusive, overlap any of the
+   * {@code changedLines}.
+   */
+  public static boolean overlaps(RangeSet<Integer> changedLines, long first, long last) {
+    return !changedLines.subRangeSet(Range.closed((int) first, (int) Math.max(first, last)))
+        .isEmpty();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * The names of the classes that a class file links to its API: its direct supertypes and its
+ * non-private member classes. They are read from the class file itself, so that they can be
+ * found without completing the class's symbol.
+ *
+ * <p>Names are flat names, e.g. {@code java.util.Map$Entry}.
+ */
+final class ClassFileHeader {
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int ACC_PRIVATE = 0x0002;
+
+  final ImmutableList<String> supertypes;
+  final ImmutableList<String> memberClasses;
+
+  private ClassFileHeader(ImmutableList<String> supertypes, ImmutableList<String> memberClasses) {
+    this.supertypes = supertypes;
+    this.memberClasses = memberClasses;
+  }
+
+  /** Reads the header of {@code classFile}, the contents of a class file. */
+  static ClassFileHeader read(byte[] classFile) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("not a class file");
+    }
+    // The minor and major version.
+    ByteStreams.skipFully(in, 4);
+
+    int count = in.readUnsignedShort();
+    String[] utf8 = new String[count];
+    int[] classNames = new int[count];
+    for (int i = 1; i < count; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1:  // Utf8, whose encoding is the one DataInput reads.
+          utf8[i] = in.readUTF();
+          break;
+        case 7:  // Class
+          classNames[i] = in.readUnsignedShort();
+          break;
+        case 8:  // String
+        case 16:  // MethodType
+        case 19:  // Module
+        case 20:  // Package
+          ByteStreams.skipFully(in, 2);
+          break;
+        case 15:  // MethodHandle
+          ByteStreams.skipFully(in, 3);
+          break;
+        case 3:  // Integer
+        case 4:  // Float
+        case 9:  // Fieldref
+        case 10:  // Methodref
+        case 11:  // InterfaceMethodref
+        case 12:  // NameAndType
+        case 17:  // Dynamic
+        case 18:  // InvokeDynamic
+          ByteStreams.skipFully(in, 4);
+          break;
+        case 5:  // Long
+        case 6:  // Double
+          // Takes up two entries.
+          ByteStreams.skipFully(in, 8);
+          i++;
+          break;
+        default:
+          throw new IOException("unknown constant pool tag " + tag);
+      }
+    }
+
+    // The access flags.
+    ByteStreams.skipFully(in, 2);
+    int thisClass = in.readUnsignedShort();
+    ImmutableList.Builder<String> supertypes = ImmutableList.builder();
+    int superClass = in.readUnsignedShort();
+    if (superClass != 0) {
+      supertypes.add(className(superClass, utf8, classNames));
+    }
+    for (int i = in.readUnsignedShort(); i > 0; i--) {
+      supertypes.add(className(in.readUnsignedShort(), utf8, classNames));
+    }
+
+    // The fields and then the methods.
+    for (int kind = 0; kind < 2; kind++) {
+      for (int i = in.readUnsignedShort(); i > 0; i--) {
+        // The access flags, name and descriptor.
+        ByteStreams.skipFully(in, 6);
+        skipAttributes(in);
+      }
+    }
+
+    ImmutableList.Builder<String> memberClasses = ImmutableList.builder();
+    for (int i = in.readUnsignedShort(); i > 0; i--) {
+      int nameIndex = in.readUnsignedShort();
+      String name = nameIndex < count ? utf8[nameIndex] : null;
+      int length = in.readInt();
+      if (!"InnerClasses".equals(name)) {
+        ByteStreams.skipFully(in, length);
+        continue;
+      }
+      for (int j = in.readUnsignedShort(); j > 0; j--) {
+        int inner = in.readUnsignedShort();
+        int outer = in.readUnsignedShort();
+        // The simple name.
+        ByteStreams.skipFully(in, 2);
+        int flags = in.readUnsignedShort();
+        if (outer == thisClass && (flags & ACC_PRIVATE) == 0) {
+          memberClasses.add(className(inner, utf8, classNames));
+        }
+      }
+    }
+    return new ClassFileHeader(supertypes.build(), memberClasses.build());
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    for (int i = in.readUnsignedShort(); i > 0; i--) {
+      // The name.
+      ByteStreams.skipFully(in, 2);
+      ByteStreams.skipFully(in, in.readInt() & 0xFFFFFFFFL);
+    }
+  }
+
+  private static String className(int index, String[] utf8, int[] classNames)
+      throws IOException {
+    if (index <= 0 || index >= classNames.length || utf8[classNames[index]] == null) {
+      throw new IOException("bad class reference " + index);
+    }
+    return utf8[classNames[index]].replace('/', '.');
+  }
+}
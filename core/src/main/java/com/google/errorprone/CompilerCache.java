@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.collect.ImmutableList;
+
+import com.sun.tools.javac.file.CacheFSInfo;
+import com.sun.tools.javac.file.FSInfo;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Context.Factory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.tools.JavaFileManager;
+
+/**
+ * State that is expensive to rebuild and that {@link ErrorProneCompiler#run(String[])} can reuse
+ * across compilations in the same JVM; see {@link ErrorProneCompiler.Builder#reuse}.  Tools that
+ * compile one module after another, such as build drivers and IDE integrations, should share a
+ * single instance.  It is safe to use from several threads at once.
+ *
+ * <p>Every compilation still gets a fresh {@link Context}, so compilations never see each other's
+ * symbols, but they share:
+ * <ul>
+ * <li>file managers, and with them the jar files they have opened and indexed.  A compilation
+ * borrows an idle file manager, or creates one if none is idle, and returns it when it is done.
+ * A file manager whose class path jars have changed since it last used them reopens them.</li>
+ * <li>the class paths listed in the manifests of jar files.</li>
+ * <li>optionally, the class files of the platform classes, such as {@code java.lang.Object},
+ * that compilations have read; see {@link #createWithPlatformClasses}.</li>
+ * </ul>
+ */
+public final class CompilerCache {
+
+  /** Creates a cache of file managers and jar file indexes. */
+  public static CompilerCache create() {
+    return new CompilerCache(null);
+  }
+
+  /**
+   * Creates a cache that also keeps the class files of the platform classes that compilations
+   * read, so that later compilations complete those classes without reading the JDK's jar
+   * files.  Javac's symbols belong to a single compilation and cannot be shared, so this is the
+   * closest a compilation can get to starting with {@code java.lang} already loaded.
+   */
+  public static CompilerCache createWithPlatformClasses() {
+    return new CompilerCache(new CachingFileManager.ClassFileCache());
+  }
+
+  private final CachingFileManager.ClassFileCache platformClasses;
+  private final ConcurrentLinkedDeque<CachingFileManager> idleFileManagers =
+      new ConcurrentLinkedDeque<>();
+  private final ConcurrentMap<File, JarClassPath> jarClassPaths = new ConcurrentHashMap<>();
+  // Computes the class paths of jar files the way javac does.
+  private final FSInfo fsInfo = new FSInfo() {};
+
+  private CompilerCache(CachingFileManager.ClassFileCache platformClasses) {
+    this.platformClasses = platformClasses;
+  }
+
+  /** The file manager a compilation borrowed, if it got as far as asking for one. */
+  static final class Lease {
+    private CachingFileManager fileManager;
+  }
+
+  /**
+   * Registers the cached state in the {@link Context} of a compilation, which must be run with
+   * {@code -XDnonBatchMode} so that javac does not register file system information of its own.
+   * The compilation must be followed by {@link #release}.
+   */
+  Lease register(Context context) {
+    final Lease lease = new Lease();
+    context.put(FSInfo.class, new CacheFSInfo() {
+      @Override
+      public List<File> getJarClassPath(File file) throws IOException {
+        return jarClassPath(file);
+      }
+    });
+    context.put(JavaFileManager.class, new Factory<JavaFileManager>() {
+      @Override
+      public JavaFileManager make(Context c) {
+        CachingFileManager fileManager = idleFileManagers.pollFirst();
+        if (fileManager == null) {
+          fileManager = new CachingFileManager(c, platformClasses);
+        } else {
+          fileManager.reuse(c);
+        }
+        lease.fileManager = fileManager;
+        return fileManager;
+      }
+    });
+    return lease;
+  }
+
+  /** Returns the state a compilation borrowed to the cache. */
+  void release(Lease lease) {
+    if (lease.fileManager != null) {
+      lease.fileManager.recordInputs();
+      // The most recently used file manager is likeliest to have the jars the next one needs.
+      idleFileManagers.addFirst(lease.fileManager);
+      lease.fileManager = null;
+    }
+  }
+
+  private List<File> jarClassPath(File file) throws IOException {
+    long lastModified = file.lastModified();
+    long length = file.length();
+    JarClassPath cached = jarClassPaths.get(file);
+    if (cached == null || cached.lastModified != lastModified || cached.length != length) {
+      cached = new JarClassPath(lastModified, length, fsInfo.getJarClassPath(file));
+      jarClassPaths.put(file, cached);
+    }
+    return cached.classPath;
+  }
+
+  /** The class path in the manifest of a jar file, and the version of the file it was read from. */
+  private static final class JarClassPath {
+    final long lastModified;
+    final long length;
+    final ImmutableList<File> classPath;
+
+    JarClassPath(long lastModified, long length, List<File> classPath) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.classPath = ImmutableList.copyOf(classPath);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.errorprone.matchers.Description;
+
+import com.sun.source.tree.CompilationUnitTree;
+
+/**
+ * Detaches the descriptions found in a compilation unit from its tree, and reports them to a
+ * {@link DetachedDescriptionListener}.
+ */
+public class DetachingDescriptionListener implements DescriptionListener {
+  private final CompilationUnitTree compilationUnit;
+  private final DetachedDescriptionListener listener;
+
+  public DetachingDescriptionListener(
+      CompilationUnitTree compilationUnit, DetachedDescriptionListener listener) {
+    this.compilationUnit = checkNotNull(compilationUnit);
+    this.listener = checkNotNull(listener);
+  }
+
+  @Override
+  public void onDescribed(Description description) {
+    listener.onDescribed(description.detach(compilationUnit));
+  }
+}
@@ -20,26 +20,56 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.RangeSet;
+import com.google.common.hash.HashCode;
+import com.google.errorprone.AnalysisCache.Finding;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.dataflow.DataFlow;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.scanner.PathScanners;
+import com.google.errorprone.scanner.ReferencedTypes;
 import com.google.errorprone.scanner.Scanner;
 
 import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TaskEvent;
 import com.sun.source.util.TaskEvent.Kind;
 import com.sun.source.util.TaskListener;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.api.MultiTaskListener;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.tree.EndPosTable;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCClassDecl;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeInfo;
 import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
 import com.sun.tools.javac.util.Log;
+import com.sun.tools.javac.util.Names;
+import com.sun.tools.javac.util.Position;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaFileObject;
 
 /**
  * Used to run an error-prone analysis as a phase in the javac compiler.
@@ -47,8 +77,28 @@ import java.util.Set;
 public class ErrorProneAnalyzer implements TaskListener {
 
   public static ErrorProneAnalyzer create(Scanner scanner) {
+    return create(scanner, ErrorProneOptions.empty());
+  }
+
+  public static ErrorProneAnalyzer create(Scanner scanner, ErrorProneOptions options) {
     checkNotNull(scanner);
-    return new ErrorProneAnalyzer(scanner);
+    return create(PathScanners.of(scanner), options);
+  }
+
+  public static ErrorProneAnalyzer create(PathScanners scanners, ErrorProneOptions options) {
+    return create(scanners, options, Optional.<DetachedDescriptionListener>absent());
+  }
+
+  /**
+   * Like {@link #create(PathScanners, ErrorProneOptions)}, but also reports each finding, detached
+   * from its compilation unit, to {@code detachedListener}.
+   */
+  public static ErrorProneAnalyzer create(PathScanners scanners, ErrorProneOptions options,
+      Optional<DetachedDescriptionListener> detachedListener) {
+    checkNotNull(scanners);
+    checkNotNull(options);
+    checkNotNull(detachedListener);
+    return new ErrorProneAnalyzer(scanners, options, detachedListener);
   }
 
   /**
@@ -60,6 +110,10 @@ public class ErrorProneAnalyzer implements TaskListener {
     this.context = context;
     this.log = Log.instance(context);
     this.compiler = JavaCompiler.instance(context);
+    AnnotationFacts.register(context, annotationFacts);
+    if (factsOutput.isPresent()) {
+      factsWriter = new AnnotationFacts.Writer(Types.instance(context));
+    }
     return this;
   }
 
@@ -69,17 +123,156 @@ public class ErrorProneAnalyzer implements TaskListener {
     return this;
   }
 
-  private final Scanner errorProneScanner;
-  // The set of trees that have already been scanned.
-  private final Set<Tree> seen = new HashSet<>();
+  // How long a remote cache lookup may take before any class has been analyzed.
+  private static final long DEFAULT_SCAN_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+  private final PathScanners scanners;
+  // The state of the compilation units that are being analyzed. A unit is dropped once its last
+  // class has been analyzed, so that the analyzer doesn't keep its tree reachable.
+  private final Map<CompilationUnitTree, UnitState> units = new IdentityHashMap<>();
+  // The number of error-severity findings after which to stop, or zero to never stop.
+  private final int failFastErrors;
+  private int errorsReported = 0;
+  // The directory of the cache of findings, which is opened when it is first needed.
+  private Optional<String> cacheDir;
+  private AnalysisCache cache;
+  // The cache of findings shared with other compilations, if any.
+  private RemoteAnalysisCache remoteCache;
+  // The time spent analyzing the classes whose findings were not cached, to estimate what a
+  // cache hit saves.
+  private long scanNanos = 0;
+  private int scans = 0;
+  private final Map<Scanner, String> scannerFingerprints = new HashMap<>();
+  // Hashes the API of the classes referred to by the classes analyzed, and remembers them.
+  private AnalysisCache.ApiHasher apiHasher;
+  // The lines to analyze, if only changed lines are analyzed.
+  private final Optional<ChangedLines> changedLines;
+  // The facts about the classes of other compilations, and where to write those of this one.
+  private final AnnotationFacts annotationFacts;
+  private final Optional<String> factsOutput;
+  private AnnotationFacts.Writer factsWriter;
+  // Where to report the findings, detached from their compilation units, besides javac's log.
+  private final Optional<DetachedDescriptionListener> detachedListener;
 
   private Context context;
   private Log log;
   private JavaCompiler compiler;
   private boolean initialized = false;
 
-  private ErrorProneAnalyzer(Scanner scanner) {
-    this.errorProneScanner = scanner;
+  private ErrorProneAnalyzer(PathScanners scanners, ErrorProneOptions options,
+      Optional<DetachedDescriptionListener> detachedListener) {
+    this.scanners = scanners;
+    this.failFastErrors = options.failFastErrors();
+    this.cacheDir = options.cacheDir();
+    if (options.remoteCache().isPresent()) {
+      this.remoteCache = new RemoteAnalysisCache(options.remoteCache().get());
+    }
+    this.changedLines = options.changedLines();
+    this.annotationFacts = options.annotationFacts();
+    this.factsOutput = options.factsOutput();
+    this.detachedListener = detachedListener;
+  }
+
+  /**
+   * Returns true if {@code -XepFailFast} is on and enough errors have been reported that the
+   * remaining classes will not be analyzed.
+   */
+  public boolean failedFast() {
+    return failFastErrors > 0 && errorsReported >= failFastErrors;
+  }
+
+  /** Thrown out of the scanner to abandon the current class once {@link #failedFast}. */
+  private static class FailFastException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    FailFastException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /** Counts the error-severity findings reported to {@code delegate}. */
+  private class FailFastDescriptionListener implements DescriptionListener {
+    private final DescriptionListener delegate;
+
+    FailFastDescriptionListener(DescriptionListener delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void onDescribed(Description description) {
+      delegate.onDescribed(description);
+      if (countReported(description.severity)) {
+        throw new FailFastException();
+      }
+    }
+  }
+
+  /** Reports each finding to two listeners. */
+  private static class TeeDescriptionListener implements DescriptionListener {
+    private final DescriptionListener first;
+    private final DescriptionListener second;
+
+    TeeDescriptionListener(DescriptionListener first, DescriptionListener second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public void onDescribed(Description description) {
+      first.onDescribed(description);
+      second.onDescribed(description);
+    }
+  }
+
+  /** Drops the findings that are not on the lines being analyzed. */
+  private static class ChangedLinesDescriptionListener implements DescriptionListener {
+    private final DescriptionListener delegate;
+    private final RangeSet<Integer> lines;
+    private final LineMap lineMap;
+
+    ChangedLinesDescriptionListener(
+        DescriptionListener delegate, RangeSet<Integer> lines, LineMap lineMap) {
+      this.delegate = delegate;
+      this.lines = lines;
+      this.lineMap = lineMap;
+    }
+
+    @Override
+    public void onDescribed(Description description) {
+      int position = ((DiagnosticPosition) description.node).getPreferredPosition();
+      if (position == Position.NOPOS || lines.contains((int) lineMap.getLineNumber(position))) {
+        delegate.onDescribed(description);
+      }
+    }
+  }
+
+  /** Counts a reported finding, and returns true if analysis should now stop. */
+  private boolean countReported(SeverityLevel severity) {
+    if (severity == SeverityLevel.ERROR) {
+      errorsReported++;
+    }
+    return failedFast();
+  }
+
+  /** The state of the analysis of a compilation unit. */
+  private static class UnitState {
+    // The scanner for the unit, or nothing if it is excluded from analysis.
+    Optional<Scanner> scanner;
+    // The number of top-level classes that have not been analyzed yet.
+    int remainingClasses;
+    // Whether the unit itself, without its classes, has been scanned.
+    boolean headerScanned = false;
+    // The classes that have been scanned.
+    final Set<Tree> scannedClasses =
+        Collections.newSetFromMap(new IdentityHashMap<Tree, Boolean>());
+
+    UnitState(CompilationUnitTree compilation) {
+      for (Tree declTree : compilation.getTypeDecls()) {
+        if (declTree instanceof JCClassDecl) {
+          remainingClasses++;
+        }
+      }
+    }
   }
 
   private static class DeclFreeCompilationUnitWrapper extends JCCompilationUnit {
@@ -120,6 +313,14 @@ public class ErrorProneAnalyzer implements TaskListener {
       TreePath path = currentClassTree != null
           ? TreePath.getPath(taskEvent.getCompilationUnit(), currentClassTree)
           : new TreePath(taskEvent.getCompilationUnit());
+      if (factsWriter != null) {
+        // Facts are recorded for every class, whether or not it is analyzed.
+        if (currentClassTree != null) {
+          factsWriter.recordClass(currentClassTree);
+        } else {
+          factsWriter.recordPackage(((JCCompilationUnit) taskEvent.getCompilationUnit()).packge);
+        }
+      }
       reportReadyForAnalysis(taskEvent, path, compiler.errorCount() > 0);
     }
   }
@@ -131,13 +332,45 @@ public class ErrorProneAnalyzer implements TaskListener {
    * @param hasErrors true if errors have been reported during the compilation
    */
   public void reportReadyForAnalysis(TaskEvent taskEvent, TreePath path, boolean hasErrors) {
+    CompilationUnitTree compilation = path.getCompilationUnit();
+    UnitState unit = units.get(compilation);
+    if (unit == null) {
+      unit = new UnitState(compilation);
+      units.put(compilation, unit);
+    }
     try {
-      if (seen.add(path.getCompilationUnit())) {
+      analyze(unit, taskEvent, path, hasErrors);
+    } finally {
+      if (--unit.remainingClasses <= 0) {
+        // Drop everything that refers to the unit's tree, including the dataflow caches.
+        units.remove(compilation);
+        DataFlow.releaseCaches(compilation);
+      }
+    }
+  }
+
+  private void analyze(UnitState unit, TaskEvent taskEvent, TreePath path, boolean hasErrors) {
+    if (failedFast()) {
+      return;
+    }
+    Optional<Scanner> scanner = scannerFor(unit, path.getCompilationUnit());
+    if (!scanner.isPresent()) {
+      // The source file is excluded from analysis.
+      return;
+    }
+    RangeSet<Integer> lines = changedLinesFor(path.getCompilationUnit());
+    if (lines != null && lines.isEmpty()) {
+      // Only changed lines are analyzed, and the source file did not change.
+      return;
+    }
+    try {
+      if (!unit.headerScanned) {
+        unit.headerScanned = true;
         // Visit the compilation unit separately from the enclosed class declarations, and
         // prevent scanners from accessing the (incomplete) class declarations.
         TreePath rootPath = new TreePath(new DeclFreeCompilationUnitWrapper(
             (JCCompilationUnit) path.getCompilationUnit()));
-        errorProneScanner.scan(rootPath, createVisitorState(path.getCompilationUnit()));
+        scan(scanner.get(), rootPath, path.getCompilationUnit());
       }
 
       if (path.getLeaf().getKind() == Tree.Kind.COMPILATION_UNIT) {
@@ -145,12 +378,14 @@ public class ErrorProneAnalyzer implements TaskListener {
         return;
       }
 
-      if (!seen.add(path.getLeaf())) {
+      if (!unit.scannedClasses.add(path.getLeaf())) {
         throw new IllegalStateException("Duplicate FLOW event for: " + taskEvent.getTypeElement());
       }
 
-      errorProneScanner.scan(path, createVisitorState(path.getCompilationUnit()));
+      scan(scanner.get(), path, path.getCompilationUnit());
 
+    } catch (FailFastException e) {
+      // Enough errors have been reported; skip the rest of this class and all later ones.
     } catch (CompletionFailure e) {
       // A CompletionFailure can be triggered when error-prone tries to complete a symbol
       // that isn't on the compilation classpath. This can occur when a check performs an
@@ -169,14 +404,227 @@ public class ErrorProneAnalyzer implements TaskListener {
     }
   }
 
+  private Optional<Scanner> scannerFor(UnitState unit, CompilationUnitTree compilation) {
+    if (unit.scanner == null) {
+      unit.scanner = scanners.forPath(pathOf(compilation));
+    }
+    return unit.scanner;
+  }
+
+  /**
+   * Returns the lines of the compilation unit to analyze, or null if all of them are analyzed.
+   */
+  private RangeSet<Integer> changedLinesFor(CompilationUnitTree compilation) {
+    return changedLines.isPresent() ? changedLines.get().forPath(pathOf(compilation)) : null;
+  }
+
+  private static String pathOf(CompilationUnitTree compilation) {
+    JavaFileObject sourceFile = compilation.getSourceFile();
+    String path = sourceFile.toUri().getPath();
+    return path != null ? path : sourceFile.getName();
+  }
+
+  /**
+   * Scans {@code path}, or, if the findings for it are in the cache, reports those instead.
+   */
+  private void scan(Scanner scanner, TreePath path, CompilationUnitTree compilation) {
+    final EndPosTable endPositions = ((JCCompilationUnit) compilation).endPositions;
+    // Cached findings can't be detached, so a detached listener needs every class analyzed.
+    if ((analysisCache() == null && remoteCache == null) || detachedListener.isPresent()) {
+      DescriptionListener logReporter =
+          new JavacErrorDescriptionListener(log, endPositions, compilation.getSourceFile());
+      if (detachedListener.isPresent()) {
+        logReporter = new TeeDescriptionListener(logReporter,
+            new DetachingDescriptionListener(compilation, detachedListener.get()));
+      }
+      scanner.scan(path, createVisitorState(scanner, logReporter, compilation));
+      return;
+    }
+
+    HashCode key;
+    try {
+      key = cacheKey(scanner, path, compilation);
+    } catch (IOException e) {
+      closeCache();
+      closeRemoteCache();
+      scan(scanner, path, compilation);
+      return;
+    }
+    Optional<ImmutableList<Finding>> cached = lookup(key);
+    if (cached.isPresent()) {
+      JavacErrorDescriptionListener logReporter =
+          new JavacErrorDescriptionListener(log, endPositions, compilation.getSourceFile());
+      for (Finding finding : cached.get()) {
+        logReporter.report(finding.severity, finding.position(), finding.message);
+        if (countReported(finding.severity)) {
+          break;
+        }
+      }
+      return;
+    }
+
+    final List<Finding> findings = new ArrayList<>();
+    DescriptionListener logReporter =
+        new JavacErrorDescriptionListener(log, endPositions, compilation.getSourceFile()) {
+          @Override
+          void report(SeverityLevel severity, DiagnosticPosition position, String message) {
+            findings.add(Finding.of(severity, position, endPositions, message));
+            super.report(severity, position, message);
+          }
+        };
+    // If the scan is abandoned, e.g. by -XepFailFast, its findings are incomplete and not stored.
+    long start = System.nanoTime();
+    scanner.scan(path, createVisitorState(scanner, logReporter, compilation));
+    scanNanos += System.nanoTime() - start;
+    scans++;
+    store(key, findings, true);
+  }
+
+  /** Looks the findings for {@code key} up in the local cache, and then in the remote cache. */
+  private Optional<ImmutableList<Finding>> lookup(HashCode key) {
+    AnalysisCache findingsCache = analysisCache();
+    if (findingsCache != null) {
+      try {
+        Optional<ImmutableList<Finding>> cached = findingsCache.lookup(key);
+        if (cached.isPresent()) {
+          return cached;
+        }
+      } catch (IOException e) {
+        closeCache();
+      }
+    }
+    if (remoteCache == null) {
+      return Optional.absent();
+    }
+    // Wait no longer than analyzing the class is expected to take.
+    Optional<ImmutableList<Finding>> cached = remoteCache.lookup(
+        key, scans > 0 ? scanNanos / scans : DEFAULT_SCAN_NANOS);
+    if (cached.isPresent()) {
+      store(key, cached.get(), false);
+    }
+    return cached;
+  }
+
+  /** Stores the findings for {@code key} in the local cache, and, if asked, the remote cache. */
+  private void store(HashCode key, List<Finding> findings, boolean remote) {
+    AnalysisCache findingsCache = analysisCache();
+    try {
+      if (findingsCache != null) {
+        findingsCache.store(key, findings);
+      }
+    } catch (IOException e) {
+      closeCache();
+    }
+    try {
+      if (remote && remoteCache != null) {
+        remoteCache.store(key, findings);
+      }
+    } catch (IOException e) {
+      closeRemoteCache();
+    }
+  }
+
   /**
-   * Create a VisitorState object from a compilation unit.
+   * Hashes the source of the compilation unit, the part of it that {@code path} leads to, the
+   * API of the classes that part refers to, and the configuration of the analysis, including the
+   * lines that are analyzed.
    */
-  private VisitorState createVisitorState(CompilationUnitTree compilation) {
-    DescriptionListener logReporter = new JavacErrorDescriptionListener(
-        log,
-        ((JCCompilationUnit) compilation).endPositions,
-        compilation.getSourceFile());
-    return new VisitorState(context, logReporter, errorProneScanner.severityMap());
+  private HashCode cacheKey(Scanner scanner, TreePath path, CompilationUnitTree compilation)
+      throws IOException {
+    Tree leaf = path.getLeaf();
+    int unit = leaf instanceof DeclFreeCompilationUnitWrapper
+        ? -1 : TreeInfo.getStartPos((JCTree) leaf);
+    Symtab symtab = Symtab.instance(context);
+    Names names = Names.instance(context);
+    if (apiHasher == null) {
+      apiHasher = new AnalysisCache.ApiHasher(context);
+    }
+    List<HashCode> dependencies = new ArrayList<>();
+    for (String name : new TreeSet<>(ReferencedTypes.in(leaf, Types.instance(context)))) {
+      // Nested classes are not found by their canonical names, but they are part of the API of
+      // their top-level class, which is.
+      ClassSymbol sym = symtab.classes.get(names.fromString(name));
+      if (sym != null) {
+        dependencies.add(apiHasher.apiHash(sym));
+      }
+    }
+    String scannerFingerprint = scannerFingerprints.get(scanner);
+    if (scannerFingerprint == null) {
+      scannerFingerprint = scanner.fingerprint();
+      scannerFingerprints.put(scanner, scannerFingerprint);
+    }
+    RangeSet<Integer> lines = changedLinesFor(compilation);
+    String configuration =
+        lines != null ? scannerFingerprint + " lines " + lines : scannerFingerprint;
+    return AnalysisCache.key(configuration,
+        compilation.getSourceFile().getCharContent(true), unit, dependencies);
+  }
+
+  /** Returns the cache of findings, or null if findings are not cached. */
+  private AnalysisCache analysisCache() {
+    if (cache == null && cacheDir.isPresent()) {
+      try {
+        cache = AnalysisCache.open(Paths.get(cacheDir.get()));
+      } catch (IOException e) {
+        // E.g. another compilation is using the cache; analyze everything instead.
+        cacheDir = Optional.absent();
+      }
+    }
+    return cache;
+  }
+
+  private void closeCache() {
+    if (cache != null) {
+      try {
+        cache.close();
+      } catch (IOException e) {
+        // The cache is only an optimization.
+      }
+      cache = null;
+    }
+    cacheDir = Optional.absent();
+  }
+
+  private void closeRemoteCache() {
+    if (remoteCache != null) {
+      remoteCache.close();
+      remoteCache = null;
+    }
+  }
+
+  /**
+   * Writes the facts file, if there is one, and releases the resources held by the analyzer,
+   * such as the cache of findings. Called when the compilation, or processing round, is done.
+   */
+  public void close() {
+    closeCache();
+    closeRemoteCache();
+    if (factsWriter != null) {
+      try {
+        factsWriter.write(Paths.get(factsOutput.get()));
+      } catch (IOException e) {
+        log.error("error.prone", "cannot write facts to " + factsOutput.get() + ": " + e);
+      }
+      factsWriter = null;
+    }
+  }
+
+  /**
+   * Create a VisitorState object for a scan of {@code compilation} by {@code scanner} that
+   * reports to {@code logReporter}.
+   */
+  private VisitorState createVisitorState(
+      Scanner scanner, DescriptionListener logReporter, CompilationUnitTree compilation) {
+    if (failFastErrors > 0) {
+      logReporter = new FailFastDescriptionListener(logReporter);
+    }
+    RangeSet<Integer> lines = changedLinesFor(compilation);
+    if (lines == null) {
+      return new VisitorState(context, logReporter, scanner.severityMap());
+    }
+    // Filter before counting, so that -XepFailFast only counts the findings that are reported.
+    logReporter =
+        new ChangedLinesDescriptionListener(logReporter, lines, compilation.getLineMap());
+    return new VisitorState(context, logReporter, scanner.severityMap()).withChangedLines(lines);
   }
 }
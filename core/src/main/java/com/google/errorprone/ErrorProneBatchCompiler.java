@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.sun.tools.javac.main.Main.Result;
+import com.sun.tools.javac.util.JCDiagnostic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaFileObject;
+
+/**
+ * A long-lived worker that runs a sequence of error-prone compilations in a single JVM, so that
+ * forked builds pay for JVM start-up and class loading once instead of once per module.
+ *
+ * <p>The protocol is binary and runs over the worker's standard input and output:
+ * <ul>
+ * <li>Each request is the path of an argument file, written with
+ * {@link DataOutputStream#writeUTF}. The argument file contains one javac argument per line,
+ * so arguments cannot contain line breaks.</li>
+ * <li>Each response is the compiler's exit code as an {@code int}, followed by the length of the
+ * diagnostic output as an {@code int} and that many bytes of UTF-8 encoded text.</li>
+ * </ul>
+ * The worker exits when its standard input is closed.
+ *
+ * <p>With {@code -structured}, the worker does not print diagnostics. Each response is followed
+ * instead by the number of diagnostics as an {@code int} and by each {@link StructuredDiagnostic}
+ * in the order it was reported, and the text contains only the rest of the output, e.g. a
+ * stack trace.  Javac does not print the error and warning counts either.
+ *
+ * <p>Every request is compiled in a fresh {@link com.sun.tools.javac.util.Context}, so
+ * compilations do not observe each other's symbols, but they share a {@link CompilerCache}, so
+ * jar files are opened and indexed once.
+ */
+public class ErrorProneBatchCompiler {
+
+  static final String STRUCTURED_FLAG = "-structured";
+
+  public static void main(String[] args) throws IOException {
+    InputStream in = System.in;
+    OutputStream out = System.out;
+    // Anything a checker or annotation processor prints must not corrupt the protocol stream.
+    System.setOut(System.err);
+    serve(in, out, Arrays.asList(args).contains(STRUCTURED_FLAG));
+  }
+
+  /**
+   * Reads compile requests from {@code in} and writes their results to {@code out} until
+   * {@code in} is exhausted.
+   */
+  public static void serve(InputStream in, OutputStream out) throws IOException {
+    serve(in, out, false);
+  }
+
+  /**
+   * Reads compile requests from {@code in} and writes their results to {@code out} until
+   * {@code in} is exhausted, with the diagnostics as {@link StructuredDiagnostic}s if
+   * {@code structured} is set.
+   */
+  public static void serve(InputStream in, OutputStream out, boolean structured)
+      throws IOException {
+    DataInputStream requests = new DataInputStream(new BufferedInputStream(in));
+    DataOutputStream responses = new DataOutputStream(new BufferedOutputStream(out));
+    CompilerCache compilerCache = CompilerCache.createWithPlatformClasses();
+    while (true) {
+      String argumentFile;
+      try {
+        argumentFile = requests.readUTF();
+      } catch (EOFException e) {
+        return;
+      }
+      StringWriter output = new StringWriter();
+      final List<StructuredDiagnostic> diagnostics = new ArrayList<>();
+      DiagnosticListener<JavaFileObject> listener = null;
+      if (structured) {
+        listener = new DiagnosticListener<JavaFileObject>() {
+          @Override
+          public void report(Diagnostic<? extends JavaFileObject> diagnostic) {
+            diagnostics.add(StructuredDiagnostic.of(diagnostic));
+          }
+        };
+      }
+      int exitCode =
+          compile(argumentFile, new PrintWriter(output, true), listener, compilerCache);
+      responses.writeInt(exitCode);
+      writeText(responses, output.toString());
+      if (structured) {
+        responses.writeInt(diagnostics.size());
+        for (StructuredDiagnostic diagnostic : diagnostics) {
+          diagnostic.writeTo(responses);
+        }
+      }
+      responses.flush();
+    }
+  }
+
+  private static int compile(String argumentFile, PrintWriter output,
+      DiagnosticListener<JavaFileObject> listener, CompilerCache compilerCache) {
+    List<String> args;
+    try {
+      args = Files.readAllLines(Paths.get(argumentFile), UTF_8);
+    } catch (IOException e) {
+      output.println("error: cannot read argument file " + argumentFile + ": " + e.getMessage());
+      output.flush();
+      return Result.CMDERR.exitCode;
+    }
+    ErrorProneCompiler.Builder builder = new ErrorProneCompiler.Builder()
+        .redirectOutputTo(output)
+        .reuse(compilerCache);
+    if (listener != null) {
+      builder.listenToDiagnostics(listener);
+    }
+    return builder.build().run(args.toArray(new String[args.size()])).exitCode;
+  }
+
+  /** Writes {@code text} as its length in UTF-8 bytes, followed by those bytes. */
+  static void writeText(DataOutputStream out, String text) throws IOException {
+    byte[] bytes = text.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /** Reads text written by {@link #writeText}. */
+  static String readText(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * A diagnostic reported by a worker with {@code -structured}. It is written as its kind and
+   * the name of its source file, or the empty string, with {@link DataOutputStream#writeUTF},
+   * then its line as a {@code long}, then its text as the length of the UTF-8 encoded text as an
+   * {@code int} followed by those bytes.
+   */
+  public static final class StructuredDiagnostic {
+    private final Kind kind;
+    private final String file;
+    private final long line;
+    private final String text;
+
+    public StructuredDiagnostic(Kind kind, String file, long line, String text) {
+      this.kind = kind;
+      this.file = file;
+      this.line = line;
+      this.text = text;
+    }
+
+    static StructuredDiagnostic of(Diagnostic<? extends JavaFileObject> diagnostic) {
+      JavaFileObject source = diagnostic.getSource();
+      // Javac's diagnostics format themselves as javac would print them.
+      return new StructuredDiagnostic(diagnostic.getKind(),
+          source != null ? source.getName() : "", diagnostic.getLineNumber(),
+          diagnostic instanceof JCDiagnostic
+              ? diagnostic.toString() : diagnostic.getMessage(Locale.getDefault()));
+    }
+
+    /** The kind of diagnostic, e.g. an error or a warning. */
+    public Kind kind() {
+      return kind;
+    }
+
+    /** The name of the source file, or the empty string if it is not about a source file. */
+    public String file() {
+      return file;
+    }
+
+    /** The line number, or {@link Diagnostic#NOPOS} if it is not about a line. */
+    public long line() {
+      return line;
+    }
+
+    /** The diagnostic as javac prints it, including the source line, without a final newline. */
+    public String text() {
+      return text;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeUTF(kind.name());
+      out.writeUTF(file);
+      out.writeLong(line);
+      writeText(out, text);
+    }
+
+    static StructuredDiagnostic readFrom(DataInputStream in) throws IOException {
+      Kind kind = Kind.valueOf(in.readUTF());
+      String file = in.readUTF();
+      long line = in.readLong();
+      return new StructuredDiagnostic(kind, file, line, readText(in));
+    }
+  }
+
+  private ErrorProneBatchCompiler() {}
+}
@@ -19,9 +19,11 @@ package com.google.errorprone;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.StandardSystemProperty.JAVA_SPECIFICATION_VERSION;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ObjectArrays;
 import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
-import com.google.errorprone.scanner.Scanner;
+import com.google.errorprone.scanner.PathScanners;
 import com.google.errorprone.scanner.ScannerSupplier;
 
 import com.sun.source.util.TaskEvent;
@@ -57,6 +59,10 @@ public class ErrorProneCompiler {
    * Entry point for compiling Java code with error-prone enabled.
    * All default checks are run, and the compile fails if they find a bug.
    *
+   * <p>Start-up is faster when the JVM is launched from the class-data sharing archive built by
+   * the {@code appcds} profile, which the {@code appcds/error-prone} launcher does if
+   * {@code ERRORPRONE_APPCDS=true} is set; see {@code ClassDataSharing}.
+   *
    * @param args the same args which could be passed to javac on the command line
    */
   public static void main(String[] args) {
@@ -105,16 +111,25 @@ public class ErrorProneCompiler {
   private final PrintWriter errOutput;
   private final String compilerName;
   private final ScannerSupplier scannerSupplier;
+  private final boolean defaultChecks;
+  private final CompilerCache compilerCache;
+  private final DetachedDescriptionListener detachedListener;
 
   private ErrorProneCompiler(
       String compilerName,
       PrintWriter errOutput,
       DiagnosticListener<? super JavaFileObject> diagnosticListener,
-      ScannerSupplier scannerSupplier) {
+      ScannerSupplier scannerSupplier,
+      boolean defaultChecks,
+      CompilerCache compilerCache,
+      DetachedDescriptionListener detachedListener) {
     this.errOutput = errOutput;
     this.compilerName = compilerName;
     this.diagnosticListener = diagnosticListener;
     this.scannerSupplier = checkNotNull(scannerSupplier);
+    this.defaultChecks = defaultChecks;
+    this.compilerCache = compilerCache;
+    this.detachedListener = detachedListener;
   }
 
   public static class Builder {
@@ -122,13 +137,19 @@ public class ErrorProneCompiler {
     private PrintWriter errOutput = new PrintWriter(System.err, true);
     private String compilerName = "javac (with error-prone)";
     private ScannerSupplier scannerSupplier = BuiltInCheckerSuppliers.matureChecks();
+    private boolean defaultChecks = true;
+    private CompilerCache compilerCache = null;
+    private DetachedDescriptionListener detachedListener = null;
 
     public ErrorProneCompiler build() {
       return new ErrorProneCompiler(
           compilerName,
           errOutput,
           diagnosticListener,
-          scannerSupplier);
+          scannerSupplier,
+          defaultChecks,
+          compilerCache,
+          detachedListener);
     }
 
     public Builder named(String compilerName) {
@@ -148,14 +169,44 @@ public class ErrorProneCompiler {
 
     public Builder report(ScannerSupplier scannerSupplier) {
       this.scannerSupplier = scannerSupplier;
+      this.defaultChecks = false;
+      return this;
+    }
+
+    /**
+     * Reuses the file managers and jar file indexes in {@code compilerCache} in
+     * {@link #run(String[])}, so that compiling one module after another in the same JVM is
+     * faster after the first.
+     */
+    public Builder reuse(CompilerCache compilerCache) {
+      this.compilerCache = compilerCache;
+      return this;
+    }
+
+    /**
+     * Also reports each finding to {@code listener}, detached from its compilation unit, so that
+     * the listener can keep the findings without keeping the units' trees reachable. Findings are
+     * not cached while a listener is set, since cached findings can't be detached.
+     */
+    public Builder listenDetached(DetachedDescriptionListener listener) {
+      this.detachedListener = listener;
       return this;
     }
   }
 
   public Result run(String[] args) {
     Context context = new Context();
-    JavacFileManager.preRegister(context);
-    return run(args, context);
+    if (compilerCache == null) {
+      JavacFileManager.preRegister(context);
+      return run(args, context);
+    }
+    CompilerCache.Lease lease = compilerCache.register(context);
+    try {
+      // The cache provides the file system information that javac would otherwise register.
+      return run(ObjectArrays.concat("-XDnonBatchMode", args), context);
+    } finally {
+      compilerCache.release(lease);
+    }
   }
 
   /**
@@ -187,30 +238,46 @@ public class ErrorProneCompiler {
         .build();
   }
 
+  private ErrorProneOptions processOptions(String[] argv)
+      throws InvalidCommandLineOptionException {
+    return ErrorProneOptions.processArgs(defaultToLatestSupportedLanguageLevel(argv));
+  }
+
   private String[] prepareCompilation(String[] argv, Context context)
       throws InvalidCommandLineOptionException {
+    return prepareCompilation(processOptions(argv), context);
+  }
 
-    List<String> newArgs = defaultToLatestSupportedLanguageLevel(argv);
-    ErrorProneOptions epOptions = ErrorProneOptions.processArgs(newArgs);
+  private String[] prepareCompilation(ErrorProneOptions epOptions, Context context)
+      throws InvalidCommandLineOptionException {
 
-    argv = epOptions.getRemainingArgs();
+    String[] argv = epOptions.getRemainingArgs();
 
     if (diagnosticListener != null) {
       context.put(DiagnosticListener.class, diagnosticListener);
     }
 
-    Scanner scanner = scannerSupplier.applyOverrides(epOptions).get();
+    PathScanners scanners = PathScanners.create(scannerSupplier, epOptions);
 
     setupMessageBundle(context);
     enableEndPositions(context);
-    ErrorProneJavacJavaCompiler.preRegister(context, scanner);
+    ErrorProneJavacJavaCompiler.preRegister(
+        context, scanners, epOptions, Optional.fromNullable(detachedListener));
 
     return argv;
   }
 
   private Result run(String[] argv, Context context) {
     try {
-      argv = prepareCompilation(argv, context);
+      ErrorProneOptions epOptions = processOptions(argv);
+      // Workers beyond one per core only compete with each other for it.
+      int shards = Math.min(epOptions.shards(), Runtime.getRuntime().availableProcessors());
+      // The workers run the built-in checks, and their diagnostics are only copies of javac's,
+      // so they can't go to a listener.
+      if (shards > 1 && defaultChecks && diagnosticListener == null && detachedListener == null) {
+        return ErrorProneShardedCompiler.compile(argv, shards, errOutput);
+      }
+      argv = prepareCompilation(epOptions, context);
     } catch (InvalidCommandLineOptionException e) {
       errOutput.println(e.getMessage());
       errOutput.flush();
@@ -17,7 +17,7 @@
 package com.google.errorprone;
 
 import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
-import com.google.errorprone.scanner.Scanner;
+import com.google.errorprone.scanner.PathScanners;
 import com.google.errorprone.scanner.ScannerSupplier;
 
 import com.sun.tools.javac.api.JavacTaskImpl;
@@ -78,10 +78,10 @@ public class ErrorProneJavaCompiler implements JavaCompiler {
       Iterable<String> classes,
       Iterable<? extends JavaFileObject> compilationUnits) {
     ErrorProneOptions errorProneOptions;
-    Scanner scanner;
+    PathScanners scanners;
     try {
       errorProneOptions = ErrorProneOptions.processArgs(options);
-      scanner = scannerSupplier.applyOverrides(errorProneOptions).get();
+      scanners = PathScanners.create(scannerSupplier, errorProneOptions);
     } catch (InvalidCommandLineOptionException e) {
       throw new RuntimeException(e);
     }
@@ -89,7 +89,7 @@ public class ErrorProneJavaCompiler implements JavaCompiler {
     CompilationTask task = javacTool.getTask(
         out, fileManager, diagnosticListener, remainingOptions, classes, compilationUnits);
     Context context = ((JavacTaskImpl) task).getContext();
-    ErrorProneJavacJavaCompiler.preRegister(context, scanner);
+    ErrorProneJavacJavaCompiler.preRegister(context, scanners, errorProneOptions);
     return task;
   }
 
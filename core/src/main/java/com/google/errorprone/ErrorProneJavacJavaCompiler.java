@@ -20,6 +20,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
+import com.google.errorprone.bugpatterns.FormatStringCache;
+import com.google.errorprone.scanner.PathScanners;
 import com.google.errorprone.scanner.Scanner;
 
 import com.sun.source.util.TaskEvent;
@@ -28,15 +30,22 @@ import com.sun.tools.javac.comp.AttrContext;
 import com.sun.tools.javac.comp.CompileStates.CompileState;
 import com.sun.tools.javac.comp.Env;
 import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Context.Factory;
 import com.sun.tools.javac.util.JavacMessages;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.Log.WriterKind;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Queue;
 
+import javax.tools.JavaFileObject;
+
 /**
  *
  * @author alexeagle@google.com (Alex Eagle)
@@ -44,6 +53,9 @@ import java.util.Queue;
 public class ErrorProneJavacJavaCompiler extends JavaCompiler {
 
   private final ErrorProneAnalyzer errorProneAnalyzer;
+  private final ErrorProneOptions options;
+  private final FormatStringCache formatStringCache;
+  private boolean closed = false;
 
   /**
    * Registers our message bundle.
@@ -52,15 +64,25 @@ public class ErrorProneJavacJavaCompiler extends JavaCompiler {
     JavacMessages.instance(context).add("com.google.errorprone.errors");
   }
 
-  private ErrorProneJavacJavaCompiler(Context context, Scanner scanner) {
+  private ErrorProneJavacJavaCompiler(Context context, PathScanners scanners,
+      ErrorProneOptions options, Optional<DetachedDescriptionListener> detachedListener) {
     super(context);
-    checkNotNull(scanner);
+    checkNotNull(scanners);
+    this.options = checkNotNull(options);
+    this.formatStringCache = FormatStringCache.instance(context);
 
     // Setup message bundle.
     setupMessageBundle(context);
 
     // Create ErrorProneAnalyzer.
-    errorProneAnalyzer = ErrorProneAnalyzer.create(scanner).init(context);
+    errorProneAnalyzer =
+        ErrorProneAnalyzer.create(scanners, options, detachedListener).init(context);
+
+    if (options.analysisOnly()) {
+      // Attribute, flow-analyze and scan each class, but skip desugaring, lowering and code
+      // generation, so that no class files are written.
+      shouldStopPolicyIfNoError = CompileState.FLOW;
+    }
   }
 
   /**
@@ -71,18 +93,102 @@ public class ErrorProneJavacJavaCompiler extends JavaCompiler {
    * be requested for later stages of the compilation (annotation processing),
    * within the same Context.
    */
-  public static void preRegister(Context context, final Scanner scanner) {
+  public static void preRegister(Context context, Scanner scanner) {
+    preRegister(context, PathScanners.of(scanner), ErrorProneOptions.empty());
+  }
+
+  /**
+   * Like {@link #preRegister(Context, Scanner)}, but chooses the scanner for each source file
+   * from {@code scanners}, and also applies the analysis options, such as
+   * {@code -XepFailFast}.  The options are captured here rather than stored in the Context
+   * because javac only carries factories over to the Contexts of later processing rounds.
+   */
+  public static void preRegister(
+      Context context, PathScanners scanners, ErrorProneOptions options) {
+    preRegister(context, scanners, options, Optional.<DetachedDescriptionListener>absent());
+  }
+
+  /**
+   * Like {@link #preRegister(Context, PathScanners, ErrorProneOptions)}, but also reports each
+   * finding, detached from its compilation unit, to {@code detachedListener}.
+   */
+  public static void preRegister(Context context, final PathScanners scanners,
+      final ErrorProneOptions options,
+      final Optional<DetachedDescriptionListener> detachedListener) {
     context.put(compilerKey, new Factory<JavaCompiler>() {
       @Override
       public JavaCompiler make(Context ctx) {
-        // Ensure that future processing rounds continue to use the same Scanner.
-        return new ErrorProneJavacJavaCompiler(ctx, scanner);
+        // Ensure that future processing rounds continue to use the same Scanners.
+        return new ErrorProneJavacJavaCompiler(ctx, scanners, options, detachedListener);
       }
     });
   }
 
+  @Override
+  public List<JCCompilationUnit> enterTrees(List<JCCompilationUnit> roots) {
+    List<JCCompilationUnit> result = super.enterTrees(roots);
+    if (options.failFastErrors() > 0) {
+      sortTodoByRecency();
+    }
+    return result;
+  }
+
+  /**
+   * Reorders the classes waiting to be attributed so that the most recently modified files are
+   * compiled, and therefore analyzed, first.  With {@code -XepFailFast} that makes it likely that
+   * the errors reported are in the code that is being worked on.
+   */
+  private void sortTodoByRecency() {
+    ArrayList<Env<AttrContext>> envs = new ArrayList<>(todo.size());
+    while (!todo.isEmpty()) {
+      envs.add(todo.remove());
+    }
+    // Each file is stat'ed once, not on every comparison.
+    final Map<JavaFileObject, Long> lastModified = new HashMap<>();
+    for (Env<AttrContext> env : envs) {
+      JavaFileObject file = env.toplevel.sourcefile;
+      if (!lastModified.containsKey(file)) {
+        lastModified.put(file, file.getLastModified());
+      }
+    }
+    // The sort is stable, so classes from the same file stay in order.
+    Collections.sort(envs, new Comparator<Env<AttrContext>>() {
+      @Override
+      public int compare(Env<AttrContext> a, Env<AttrContext> b) {
+        return Long.compare(
+            lastModified.get(b.toplevel.sourcefile), lastModified.get(a.toplevel.sourcefile));
+      }
+    });
+    for (Env<AttrContext> env : envs) {
+      todo.append(env);
+    }
+  }
+
+  /**
+   * Returns whether the class of {@code env} is only needed for its declarations. With
+   * {@code -XepAnalysisOnly} and {@code -implicit:none}, a class read from the source path rather
+   * than given on the command line is neither compiled nor analyzed, so it is not attributed or
+   * flow-analyzed either, unless javac attributes it on demand, e.g. as a supertype.
+   */
+  private boolean isDeclarationOnly(Env<AttrContext> env) {
+    return options.analysisOnly()
+        && implicitSourcePolicy == ImplicitSourcePolicy.NONE
+        && !inputFiles.contains(env.toplevel.sourcefile);
+  }
+
+  @Override
+  public Env<AttrContext> attribute(Env<AttrContext> env) {
+    if (isDeclarationOnly(env)) {
+      return env;
+    }
+    return super.attribute(env);
+  }
+
   @Override
   protected void flow(Env<AttrContext> env, Queue<Env<AttrContext>> results) {
+    if (isDeclarationOnly(env)) {
+      return;
+    }
     if (compileStates.isDone(env, CompileState.FLOW)) {
       super.flow(env, results);
       return;
@@ -91,24 +197,28 @@ public class ErrorProneJavacJavaCompiler extends JavaCompiler {
     try {
       postFlow(env);
     } catch (Throwable e) {
-      String version = loadVersionFromPom().or("unknown version");
+      String version = ErrorProneVersion.loadVersionFromPom().or("unknown version");
       log.error("error.prone.crash", Throwables.getStackTraceAsString(e), version);
     }
+    if (errorProneAnalyzer.failedFast()) {
+      // Don't attribute or generate anything else now that the compilation has failed.
+      shouldStopPolicyIfError = CompileState.INIT;
+    }
   }
 
-  private Optional<String> loadVersionFromPom() {
-    InputStream stream = getClass().getResourceAsStream(
-        "/META-INF/maven/com.google.errorprone/error_prone_core/pom.properties");
-    if (stream == null) {
-      return Optional.absent();
-    }
-    Properties mavenProperties = new Properties();
-    try {
-      mavenProperties.load(stream);
-    } catch (IOException expected) {
-      return Optional.absent();
+  @Override
+  public void close(boolean disposeNames) {
+    errorProneAnalyzer.close();
+    // Javac may close the compiler more than once, and clears the context of each annotation
+    // processing round, so the cache was looked up before.
+    if (verbose && !closed) {
+      Optional<String> statistics = formatStringCache.statistics();
+      if (statistics.isPresent()) {
+        log.printRawLines(WriterKind.NOTICE, "[" + statistics.get() + "]");
+      }
     }
-    return Optional.of(mavenProperties.getProperty("version"));
+    closed = true;
+    super.close(disposeNames);
   }
 
   /**
@@ -16,13 +16,25 @@
 
 package com.google.errorprone;
 
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.BugPattern.Cost;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Processes command-line options specific to error-prone.
@@ -49,18 +61,108 @@ import java.util.Map;
  * -Xep:StringEquality:OFF -Xep:StringEquality  [turns on StringEquality check]
  * }</pre>
  *
+ * <p>{@code -XepMaxCost:<cost>} turns off all checks whose {@link BugPattern#cost} is higher than
+ * {@code cost}, one of {"CHEAP", "MODERATE", "EXPENSIVE"}, unless they are turned on by name.
+ * Checks that do not declare a cost are {@code MODERATE}, which is most of them, so
+ * {@code -XepMaxCost:CHEAP} keeps only the handful of checks tagged as cheap, such as
+ * LongLiteralLowerCaseSuffix and EqualsNaN.  {@code -XepMaxCost:MODERATE} drops only the checks
+ * that analyze whole bodies, such as GuardedByChecker and StringEquality, which runs a nullness
+ * dataflow analysis.
+ *
+ * <p>{@code -XepSample:<checkName>:<percent>%} runs a check on only that share of the
+ * compilation units, chosen by a hash of their paths.  The sample is fixed, so that builds are
+ * reproducible, unless it is rotated with {@code -XepSampleSeed:<seed>}, which defaults to 0.
+ * {@code -XepSampleSeed:daily} uses the number of days since the epoch, so that successive days'
+ * builds cover the whole codebase.  Findings of sampled checks are marked as sampled.
+ *
+ * <p>{@code -XepFailFast[:<count>]} stops analysis, and asks javac to stop compiling, once
+ * {@code count} (by default one) error-severity findings have been reported.  Recently modified
+ * files are analyzed first, so that the most likely culprits are reported.
+ *
+ * <p>{@code -XepCacheDir:<dir>} stores the findings for each class in {@code dir}, and reuses
+ * them while the class's source file, the types it refers to and the enabled checks are
+ * unchanged, and error-prone itself is the same version.
+ *
+ * <p>{@code -XepRemoteCache:<url>} also shares the findings with other compilations, e.g. on other
+ * machines, through an HTTP cache at {@code url}; see {@link RemoteAnalysisCache} for the
+ * protocol and {@link RemoteCacheServer} for a server.  Findings found there are copied into the
+ * {@code -XepCacheDir} cache, if there is one.
+ *
+ * <p>{@code -XepAnalysisOnly} stops compiling each class once it has been analyzed, so that no
+ * code is generated and no class files are written.
+ *
+ * <p>{@code -XepExcludedPaths:<pattern>} skips the analysis of source files whose paths match
+ * {@code pattern}, e.g. generated code, and
+ * {@code -XepPathSeverity:<checkName>:<severity>:<pattern>} overrides the severity of a check
+ * in those files.  A pattern is either {@code glob:<glob>}, which must match the whole path, or
+ * {@code regex:<regex>} or just {@code <regex>}, which must match part of it.  Paths always use
+ * {@code /} as the separator.  For example, {@code -XepPathSeverity:DeadException:OFF:/test/}
+ * turns DeadException off in files under {@code test} directories.
+ *
+ * <p>{@code -XepIncludedPath:<path>} analyzes only the source files at the given paths, and may
+ * be repeated; paths are compared exactly, using {@code /} as the separator.  Other source
+ * files, e.g. those read from the source path, are still compiled but not analyzed.
+ *
+ * <p>{@code -XepChangedLines:<file>} analyzes only the lines listed in {@code file}, e.g. the
+ * lines touched by a code review; see {@link ChangedLines} for its format.  Source files that are
+ * not listed are not analyzed, declarations that do not overlap a changed line are skipped, and
+ * only findings on changed lines are reported.
+ *
+ * <p>{@code -XepFactsOutput:<file>} writes the annotations that some checks look up, such as
+ * {@code @CheckReturnValue} and {@code @GuardedBy}, on the classes being compiled to a compact
+ * facts file.  Compilations that depend on those classes pass the file to
+ * {@code -XepFactsPath:<file>[:<file>...]}, separated by the platform's path separator, and look
+ * the annotations up in it instead of completing the classes; see {@link AnnotationFacts}.
+ *
+ * <p>{@code -XepShards:<count>} makes {@link ErrorProneCompiler} a coordinator that splits the
+ * source files into {@code count} shards of similar size, analyzes each one in a separate JVM
+ * with {@code -XepAnalysisOnly}, and merges their diagnostics; see
+ * {@link ErrorProneShardedCompiler}.  No class files are written.  There are at most as many
+ * shards as available processors.  With a single processor, or in a compiler built with its own
+ * checks or a diagnostic listener, the flag is ignored and the files are compiled in-process.
+ *
  * @author eaftan@google.com (Eddie Aftandilian)
  */
 public class ErrorProneOptions {
 
   private static final String IGNORE_UNKNOWN_CHECKS_FLAG = "-XepIgnoreUnknownCheckNames";
   private static final String FLAG_PREFIX = "-Xep:";
+  private static final String MAX_COST_PREFIX = "-XepMaxCost:";
+  private static final String SAMPLE_PREFIX = "-XepSample:";
+  private static final String SAMPLE_SEED_PREFIX = "-XepSampleSeed:";
+  private static final String FAIL_FAST_FLAG = "-XepFailFast";
+  private static final String CACHE_DIR_PREFIX = "-XepCacheDir:";
+  private static final String REMOTE_CACHE_PREFIX = "-XepRemoteCache:";
+  private static final String ANALYSIS_ONLY_FLAG = "-XepAnalysisOnly";
+  private static final String EXCLUDED_PATHS_PREFIX = "-XepExcludedPaths:";
+  private static final String INCLUDED_PATH_PREFIX = "-XepIncludedPath:";
+  private static final String PATH_SEVERITY_PREFIX = "-XepPathSeverity:";
+  private static final String CHANGED_LINES_PREFIX = "-XepChangedLines:";
+  private static final String FACTS_OUTPUT_PREFIX = "-XepFactsOutput:";
+  private static final String FACTS_PATH_PREFIX = "-XepFactsPath:";
+  static final String SHARDS_PREFIX = "-XepShards:";
 
   /**
    * see {@link javax.tools.OptionChecker#isSupportedOption(String)}
    */
   public static int isSupportedOption(String option) {
-    return option.startsWith(FLAG_PREFIX) ? 0 : -1;
+    return option.startsWith(FLAG_PREFIX)
+        || option.startsWith(MAX_COST_PREFIX)
+        || option.startsWith(SAMPLE_PREFIX)
+        || option.startsWith(SAMPLE_SEED_PREFIX)
+        || option.equals(FAIL_FAST_FLAG)
+        || option.startsWith(FAIL_FAST_FLAG + ":")
+        || option.startsWith(CACHE_DIR_PREFIX)
+        || option.startsWith(REMOTE_CACHE_PREFIX)
+        || option.equals(ANALYSIS_ONLY_FLAG)
+        || option.startsWith(EXCLUDED_PATHS_PREFIX)
+        || option.startsWith(INCLUDED_PATH_PREFIX)
+        || option.startsWith(PATH_SEVERITY_PREFIX)
+        || option.startsWith(CHANGED_LINES_PREFIX)
+        || option.startsWith(FACTS_OUTPUT_PREFIX)
+        || option.startsWith(FACTS_PATH_PREFIX)
+        || option.startsWith(SHARDS_PREFIX)
+        ? 0 : -1;
   }
 
   /**
@@ -77,12 +179,56 @@ public class ErrorProneOptions {
   private final ImmutableList<String> remainingArgs;
   private final ImmutableMap<String, Severity> severityMap;
   private final boolean ignoreUnknownChecks;
+  private final Cost maxCost;
+  private final ImmutableMap<String, Integer> samplePercentages;
+  private final int sampleSeed;
+  private final int failFastErrors;
+  private final Optional<String> cacheDir;
+  private final Optional<String> remoteCache;
+  private final boolean analysisOnly;
+  private final ImmutableList<String> excludedPaths;
+  private final ImmutableSet<String> includedPaths;
+  private final ImmutableMap<String, ImmutableMap<String, Severity>> pathSeverityMaps;
+  private final Optional<ChangedLines> changedLines;
+  private final Optional<String> factsOutput;
+  private final AnnotationFacts annotationFacts;
+  private final int shards;
 
   private ErrorProneOptions(ImmutableMap<String, Severity> severityMap,
-      ImmutableList<String> remainingArgs, boolean ignoreUnknownChecks) {
+      ImmutableList<String> remainingArgs, boolean ignoreUnknownChecks, Cost maxCost,
+      ImmutableMap<String, Integer> samplePercentages, int sampleSeed, int failFastErrors,
+      Optional<String> cacheDir, Optional<String> remoteCache, boolean analysisOnly,
+      ImmutableList<String> excludedPaths, ImmutableSet<String> includedPaths,
+      ImmutableMap<String, ImmutableMap<String, Severity>> pathSeverityMaps,
+      Optional<ChangedLines> changedLines, Optional<String> factsOutput,
+      AnnotationFacts annotationFacts, int shards) {
     this.severityMap = severityMap;
     this.remainingArgs = remainingArgs;
     this.ignoreUnknownChecks = ignoreUnknownChecks;
+    this.maxCost = maxCost;
+    this.samplePercentages = samplePercentages;
+    this.sampleSeed = sampleSeed;
+    this.failFastErrors = failFastErrors;
+    this.cacheDir = cacheDir;
+    this.remoteCache = remoteCache;
+    this.analysisOnly = analysisOnly;
+    this.excludedPaths = excludedPaths;
+    this.includedPaths = includedPaths;
+    this.pathSeverityMaps = pathSeverityMaps;
+    this.changedLines = changedLines;
+    this.factsOutput = factsOutput;
+    this.annotationFacts = annotationFacts;
+    this.shards = shards;
+  }
+
+  /** Returns the options for a compilation without any error-prone flags. */
+  public static ErrorProneOptions empty() {
+    return new ErrorProneOptions(ImmutableMap.<String, Severity>of(), ImmutableList.<String>of(),
+        false, Cost.EXPENSIVE, ImmutableMap.<String, Integer>of(), 0, 0,
+        Optional.<String>absent(), Optional.<String>absent(), false, ImmutableList.<String>of(),
+        ImmutableSet.<String>of(), ImmutableMap.<String, ImmutableMap<String, Severity>>of(),
+        Optional.<ChangedLines>absent(), Optional.<String>absent(), AnnotationFacts.empty(),
+        1);
   }
 
   public String[] getRemainingArgs() {
@@ -97,6 +243,91 @@ public class ErrorProneOptions {
     return ignoreUnknownChecks;
   }
 
+  /**
+   * The most expensive checks to run, unless they are turned on by name.  Defaults to
+   * {@link Cost#EXPENSIVE}, i.e. all checks.
+   */
+  public Cost maxCost() {
+    return maxCost;
+  }
+
+  /**
+   * The checks that run on only a sample of the compilation units, mapped to the percentage of
+   * compilation units they run on.
+   */
+  public ImmutableMap<String, Integer> getSamplePercentages() {
+    return samplePercentages;
+  }
+
+  /** The seed that selects which compilation units sampled checks run on. */
+  public int sampleSeed() {
+    return sampleSeed;
+  }
+
+  /**
+   * The number of error-severity findings after which analysis and compilation stop, or zero if
+   * they never stop early.
+   */
+  public int failFastErrors() {
+    return failFastErrors;
+  }
+
+  /** The directory of the cache of findings, if findings are cached. */
+  public Optional<String> cacheDir() {
+    return cacheDir;
+  }
+
+  /** The URL of the shared cache of findings, if findings are shared. */
+  public Optional<String> remoteCache() {
+    return remoteCache;
+  }
+
+  /** Whether compilation stops after analysis, without generating any code. */
+  public boolean analysisOnly() {
+    return analysisOnly;
+  }
+
+  /** The patterns of the paths of source files that are not analyzed. */
+  public ImmutableList<String> getExcludedPaths() {
+    return excludedPaths;
+  }
+
+  /**
+   * The paths of the only source files that are analyzed, or nothing if all of them are
+   * analyzed.
+   */
+  public ImmutableSet<String> getIncludedPaths() {
+    return includedPaths;
+  }
+
+  /**
+   * Maps patterns of the paths of source files, in the order they were first given, to the
+   * severity overrides for the files that match them.
+   */
+  public ImmutableMap<String, ImmutableMap<String, Severity>> getPathSeverityMaps() {
+    return pathSeverityMaps;
+  }
+
+  /** The changed lines of the source files, if only changed lines are analyzed. */
+  public Optional<ChangedLines> changedLines() {
+    return changedLines;
+  }
+
+  /** The file to write the annotation facts of the compiled classes to, if any. */
+  public Optional<String> factsOutput() {
+    return factsOutput;
+  }
+
+  /** The annotation facts about the classes of other compilations. */
+  public AnnotationFacts annotationFacts() {
+    return annotationFacts;
+  }
+
+  /** The number of worker JVMs to analyze the source files in, or one to analyze them here. */
+  public int shards() {
+    return shards;
+  }
+
   /**
    * Given a list of command-line arguments, produce the corresponding {@link ErrorProneOptions}
    * instance.
@@ -119,9 +350,117 @@ public class ErrorProneOptions {
      * use command lines from different versions of error-prone interchangably.
      */
     boolean ignoreUnknownChecks = false;
+    Cost maxCost = Cost.EXPENSIVE;
+    Map<String, Integer> samplePercentages = new HashMap<>();
+    int sampleSeed = 0;
+    int failFastErrors = 0;
+    Optional<String> cacheDir = Optional.absent();
+    Optional<String> remoteCache = Optional.absent();
+    boolean analysisOnly = false;
+    ImmutableList.Builder<String> excludedPaths = ImmutableList.builder();
+    ImmutableSet.Builder<String> includedPaths = ImmutableSet.builder();
+    Map<String, Map<String, Severity>> pathSeverityMaps = new LinkedHashMap<>();
+    Optional<ChangedLines> changedLines = Optional.absent();
+    Optional<String> factsOutput = Optional.absent();
+    List<Path> factsPath = new ArrayList<>();
+    int shards = 1;
     for (String arg : args) {
       if (arg.equals(IGNORE_UNKNOWN_CHECKS_FLAG)) {
         ignoreUnknownChecks = true;
+      } else if (arg.startsWith(MAX_COST_PREFIX)) {
+        try {
+          maxCost = Cost.valueOf(arg.substring(MAX_COST_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+      } else if (arg.startsWith(SAMPLE_PREFIX)) {
+        String[] parts = arg.substring(SAMPLE_PREFIX.length()).split(":");
+        if (parts.length != 2 || parts[0].isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        int percentage = parseInt(CharMatcher.is('%').trimTrailingFrom(parts[1]), arg);
+        if (percentage < 1 || percentage > 100) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        samplePercentages.put(parts[0], percentage);
+      } else if (arg.equals(SAMPLE_SEED_PREFIX + "daily")) {
+        sampleSeed = (int) TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+      } else if (arg.startsWith(SAMPLE_SEED_PREFIX)) {
+        sampleSeed = parseInt(arg.substring(SAMPLE_SEED_PREFIX.length()), arg);
+      } else if (arg.equals(FAIL_FAST_FLAG)) {
+        failFastErrors = 1;
+      } else if (arg.startsWith(FAIL_FAST_FLAG + ":")) {
+        failFastErrors = parseInt(arg.substring(FAIL_FAST_FLAG.length() + 1), arg);
+        if (failFastErrors < 1) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+      } else if (arg.startsWith(EXCLUDED_PATHS_PREFIX)) {
+        String pattern = arg.substring(EXCLUDED_PATHS_PREFIX.length());
+        if (pattern.isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        excludedPaths.add(pattern);
+      } else if (arg.startsWith(INCLUDED_PATH_PREFIX)) {
+        String path = arg.substring(INCLUDED_PATH_PREFIX.length());
+        if (path.isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        includedPaths.add(path);
+      } else if (arg.startsWith(PATH_SEVERITY_PREFIX)) {
+        // The pattern comes last, so that it may contain ':'.
+        String[] parts = arg.substring(PATH_SEVERITY_PREFIX.length()).split(":", 3);
+        if (parts.length != 3 || parts[0].isEmpty() || parts[2].isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        Severity severity;
+        try {
+          severity = Severity.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        Map<String, Severity> severities = pathSeverityMaps.get(parts[2]);
+        if (severities == null) {
+          severities = new HashMap<>();
+          pathSeverityMaps.put(parts[2], severities);
+        }
+        severities.put(parts[0], severity);
+      } else if (arg.equals(ANALYSIS_ONLY_FLAG)) {
+        analysisOnly = true;
+      } else if (arg.startsWith(CACHE_DIR_PREFIX)) {
+        String dir = arg.substring(CACHE_DIR_PREFIX.length());
+        if (dir.isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        cacheDir = Optional.of(dir);
+      } else if (arg.startsWith(REMOTE_CACHE_PREFIX)) {
+        String url = arg.substring(REMOTE_CACHE_PREFIX.length());
+        if (!url.startsWith("http://") && !url.startsWith("https://")) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        remoteCache = Optional.of(url);
+      } else if (arg.startsWith(CHANGED_LINES_PREFIX)) {
+        String file = arg.substring(CHANGED_LINES_PREFIX.length());
+        if (file.isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        changedLines = Optional.of(ChangedLines.read(file));
+      } else if (arg.startsWith(FACTS_OUTPUT_PREFIX)) {
+        String file = arg.substring(FACTS_OUTPUT_PREFIX.length());
+        if (file.isEmpty()) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+        factsOutput = Optional.of(file);
+      } else if (arg.startsWith(SHARDS_PREFIX)) {
+        shards = parseInt(arg.substring(SHARDS_PREFIX.length()), arg);
+        if (shards < 1) {
+          throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+        }
+      } else if (arg.startsWith(FACTS_PATH_PREFIX)) {
+        for (String file : arg.substring(FACTS_PATH_PREFIX.length()).split(File.pathSeparator)) {
+          if (!file.isEmpty()) {
+            factsPath.add(Paths.get(file));
+          }
+        }
       } else if (arg.startsWith(FLAG_PREFIX)) {
         // Strip prefix
         String remaining = arg.substring(FLAG_PREFIX.length());
@@ -147,8 +486,35 @@ public class ErrorProneOptions {
       }
     }
 
+    AnnotationFacts annotationFacts;
+    try {
+      annotationFacts = AnnotationFacts.open(factsPath);
+    } catch (IOException e) {
+      throw new InvalidCommandLineOptionException("cannot read facts: " + e.getMessage());
+    }
+
     return new ErrorProneOptions(
-        ImmutableMap.copyOf(severityMap), outputArgs.build(), ignoreUnknownChecks);
+        ImmutableMap.copyOf(severityMap), outputArgs.build(), ignoreUnknownChecks, maxCost,
+        ImmutableMap.copyOf(samplePercentages), sampleSeed, failFastErrors, cacheDir,
+        remoteCache, analysisOnly, excludedPaths.build(), includedPaths.build(),
+        copyOf(pathSeverityMaps), changedLines, factsOutput, annotationFacts, shards);
+  }
+
+  private static ImmutableMap<String, ImmutableMap<String, Severity>> copyOf(
+      Map<String, Map<String, Severity>> pathSeverityMaps) {
+    ImmutableMap.Builder<String, ImmutableMap<String, Severity>> result = ImmutableMap.builder();
+    for (Map.Entry<String, Map<String, Severity>> entry : pathSeverityMaps.entrySet()) {
+      result.put(entry.getKey(), ImmutableMap.copyOf(entry.getValue()));
+    }
+    return result.build();
+  }
+
+  private static int parseInt(String value, String arg) throws InvalidCommandLineOptionException {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+    }
   }
 
   /**
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.ErrorProneBatchCompiler.StructuredDiagnostic;
+import com.google.errorprone.internal.ClassDataSharing;
+
+import com.sun.tools.javac.main.CommandLine;
+import com.sun.tools.javac.main.Main;
+import com.sun.tools.javac.main.Main.Result;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.ProcessBuilder.Redirect;
+import java.lang.management.ManagementFactory;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Coordinates an analysis that is sharded across several worker JVMs, for modules so large that
+ * a single javac, which is single-threaded, takes too long to attribute them.  Used by
+ * {@link ErrorProneCompiler} for {@code -XepShards}.
+ *
+ * <p>The source files are split into shards of about the same total size.  Each shard is
+ * compiled by an {@link ErrorProneBatchCompiler} worker with {@code -XepAnalysisOnly}, with the
+ * other source files available on the source path but excluded from analysis, so every file is
+ * analyzed exactly once.  The workers report their diagnostics as
+ * {@link StructuredDiagnostic}s, which are merged in order of file and line, so the output does
+ * not depend on the sharding, and the exit code is the worst of the workers'.  The rest of the
+ * workers' output, e.g. a stack trace, is printed before the diagnostics.
+ *
+ * <p>The workers are run with {@code -implicit:none}, so they attribute the other shards' files
+ * only where javac needs their bodies, e.g. for a supertype, and with {@code -proc:none}: if
+ * there are annotation processors, they are run once, here, with {@code -proc:only}, and the
+ * sources they generate are sharded with the others.  Otherwise every worker would run them,
+ * and no worker would see the sources generated for the other shards.
+ *
+ * <p>Each worker pays for its own JVM start-up and reads the declarations of the other shards'
+ * files, so sharding only pays off for large modules on machines with a core per shard.  The
+ * workers run the built-in mature checks, with the same {@code -Xep} flags.
+ */
+final class ErrorProneShardedCompiler {
+
+  // The javac options whose value is the next argument.
+  private static final ImmutableSet<String> OPTIONS_WITH_VALUES = ImmutableSet.of(
+      "-d", "-s", "-h", "-cp", "-classpath", "-sourcepath", "-bootclasspath", "-extdirs",
+      "-endorseddirs", "-processorpath", "-processor", "-encoding", "-source", "-target",
+      "-Xmaxerrs", "-Xmaxwarns", "-Xstdout");
+
+  private static final String PROCESSOR_SERVICE =
+      "META-INF/services/javax.annotation.processing.Processor";
+
+  private static final Pattern PACKAGE = Pattern.compile("(?m)^\\s*package\\s+([\\w.]+)\\s*;");
+
+  /**
+   * Compiles the source files in {@code args} in {@code shards} worker JVMs, and writes their
+   * merged diagnostics to {@code out}.
+   */
+  static Result compile(String[] args, int shards, PrintWriter out) {
+    try {
+      args = CommandLine.parse(args);
+    } catch (IOException e) {
+      out.println("error: cannot read argument file: " + e.getMessage());
+      out.flush();
+      return Result.CMDERR;
+    }
+    for (String arg : args) {
+      // The workers' argument files have one argument per line.
+      if (arg.indexOf('\n') >= 0 || arg.indexOf('\r') >= 0) {
+        out.println("error: arguments cannot contain line breaks with "
+            + ErrorProneOptions.SHARDS_PREFIX + ": " + arg);
+        out.flush();
+        return Result.CMDERR;
+      }
+    }
+    List<String> options = new ArrayList<>();
+    List<Path> sources = new ArrayList<>();
+    boolean hasSourcePath = false;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (OPTIONS_WITH_VALUES.contains(arg) && i + 1 < args.length) {
+        hasSourcePath |= arg.equals("-sourcepath");
+        options.add(arg);
+        options.add(args[++i]);
+      } else if (!arg.startsWith("-") && arg.endsWith(".java")) {
+        sources.add(Paths.get(arg).toAbsolutePath().normalize());
+      } else if (!arg.startsWith(ErrorProneOptions.SHARDS_PREFIX)) {
+        options.add(arg);
+      }
+    }
+    if (!hasSourcePath) {
+      options.add("-sourcepath");
+      options.add(Joiner.on(File.pathSeparator).join(sourceRoots(sources)));
+    }
+
+    Path generated = null;
+    List<Worker> workers = new ArrayList<>();
+    try {
+      if (runsProcessors(options)) {
+        generated = Files.createTempDirectory("error-prone-generated");
+        Result processed = runProcessors(options, sources, generated, out);
+        if (processed != Result.OK) {
+          return processed;
+        }
+        sources.addAll(javaFiles(generated));
+        int sourcePath = options.lastIndexOf("-sourcepath") + 1;
+        options.set(sourcePath, options.get(sourcePath) + File.pathSeparator + generated);
+        options.add("-proc:none");
+      }
+      options.add("-XepAnalysisOnly");
+      // The other shards' files are only read for their declarations.
+      options.add("-implicit:none");
+
+      for (List<Path> shard : assignShards(sources, sizes(sources), shards)) {
+        workers.add(new Worker(options, shard));
+      }
+      List<List<StructuredDiagnostic>> diagnostics = new ArrayList<>();
+      int exitCode = Result.OK.exitCode;
+      for (Worker worker : workers) {
+        worker.await();
+        diagnostics.add(worker.diagnostics());
+        exitCode = Math.max(exitCode, worker.exitCode());
+      }
+      for (Worker worker : workers) {
+        out.print(worker.output());
+      }
+      out.print(mergeDiagnostics(diagnostics));
+      out.flush();
+      return result(exitCode);
+    } catch (IOException e) {
+      out.println("error: error-prone worker failed: " + e.getMessage());
+      out.flush();
+      return Result.ABNORMAL;
+    } finally {
+      for (Worker worker : workers) {
+        worker.close();
+      }
+      if (generated != null) {
+        deleteRecursively(generated);
+      }
+    }
+  }
+
+  /**
+   * Returns whether javac would run annotation processors with {@code options}: whether any are
+   * named with {@code -processor}, or registered as a service on the processor path, which
+   * defaults to the class path.
+   */
+  static boolean runsProcessors(List<String> options) {
+    if (options.contains("-proc:none")) {
+      return false;
+    }
+    if (options.contains("-processor")) {
+      return true;
+    }
+    String path = valueOf(options, "-processorpath");
+    if (path == null) {
+      path = valueOf(options, "-classpath");
+    }
+    if (path == null) {
+      path = valueOf(options, "-cp");
+    }
+    if (path == null) {
+      path = System.getenv("CLASSPATH") != null ? System.getenv("CLASSPATH") : ".";
+    }
+    for (String entry : path.split(Pattern.quote(File.pathSeparator))) {
+      File file = new File(entry.isEmpty() ? "." : entry);
+      if (file.isDirectory()) {
+        if (new File(file, PROCESSOR_SERVICE).isFile()) {
+          return true;
+        }
+      } else if (file.isFile()) {
+        try (JarFile jar = new JarFile(file)) {
+          if (jar.getEntry(PROCESSOR_SERVICE) != null) {
+            return true;
+          }
+        } catch (IOException e) {
+          // Javac will report the unreadable entry, if it matters.
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Returns the value of the last occurrence of {@code option}, or null. */
+  private static String valueOf(List<String> options, String option) {
+    int index = options.lastIndexOf(option);
+    return index >= 0 && index + 1 < options.size() ? options.get(index + 1) : null;
+  }
+
+  /**
+   * Runs the annotation processors over all the sources, writing the sources they generate to
+   * {@code generated}.  Error-prone's own options are dropped, and so is {@code -s}.
+   */
+  private static Result runProcessors(
+      List<String> options, List<Path> sources, Path generated, PrintWriter out) {
+    List<String> args = new ArrayList<>();
+    for (int i = 0; i < options.size(); i++) {
+      String option = options.get(i);
+      if (OPTIONS_WITH_VALUES.contains(option) && i + 1 < options.size()) {
+        if (!option.equals("-s")) {
+          args.add(option);
+          args.add(options.get(i + 1));
+        }
+        i++;
+      } else if (!option.startsWith("-Xep")) {
+        args.add(option);
+      }
+    }
+    args.addAll(ImmutableList.of("-proc:only", "-s", generated.toString()));
+    for (Path source : sources) {
+      args.add(source.toString());
+    }
+    return new Main("javac", out).compile(args.toArray(new String[args.size()]));
+  }
+
+  private static List<Path> javaFiles(Path directory) throws IOException {
+    final List<Path> files = new ArrayList<>();
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (file.toString().endsWith(".java")) {
+          files.add(file.toAbsolutePath().normalize());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return files;
+  }
+
+  private static void deleteRecursively(Path directory) {
+    try {
+      Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+            throws IOException {
+          Files.delete(file);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+          Files.delete(dir);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      // They're only temporary files.
+    }
+  }
+
+  private static long[] sizes(List<Path> sources) {
+    long[] sizes = new long[sources.size()];
+    for (int i = 0; i < sizes.length; i++) {
+      try {
+        sizes[i] = Files.size(sources.get(i));
+      } catch (IOException e) {
+        // Javac will report the missing file.
+        sizes[i] = 0;
+      }
+    }
+    return sizes;
+  }
+
+  /**
+   * Splits the sources into at most {@code shards} non-empty shards, estimating the cost of
+   * analyzing a file by its size: the largest files are assigned first, each to the shard with
+   * the least total size so far.
+   */
+  static List<List<Path>> assignShards(List<Path> sources, final long[] sizes, int shards) {
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < sources.size(); i++) {
+      order.add(i);
+    }
+    final List<Path> paths = sources;
+    Collections.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        int bySize = Long.compare(sizes[b], sizes[a]);
+        return bySize != 0 ? bySize : paths.get(a).compareTo(paths.get(b));
+      }
+    });
+    int count = Math.max(1, Math.min(shards, sources.size()));
+    List<List<Path>> assignment = new ArrayList<>();
+    long[] totals = new long[count];
+    for (int i = 0; i < count; i++) {
+      assignment.add(new ArrayList<Path>());
+    }
+    for (int source : order) {
+      int lightest = 0;
+      for (int i = 1; i < count; i++) {
+        if (totals[i] < totals[lightest]) {
+          lightest = i;
+        }
+      }
+      assignment.get(lightest).add(sources.get(source));
+      totals[lightest] += sizes[source];
+    }
+    return assignment;
+  }
+
+  /** Derives the source path from the package declarations of the sources. */
+  private static Set<Path> sourceRoots(List<Path> sources) {
+    Set<Path> roots = new LinkedHashSet<>();
+    for (Path source : sources) {
+      Path root = source.getParent();
+      try {
+        Matcher matcher = PACKAGE.matcher(new String(Files.readAllBytes(source), UTF_8));
+        if (matcher.find()) {
+          for (String unused : matcher.group(1).split("\\.")) {
+            root = root != null ? root.getParent() : null;
+          }
+        }
+      } catch (IOException e) {
+        // Javac will report the missing file.
+      }
+      if (root != null) {
+        roots.add(root);
+      }
+    }
+    return roots;
+  }
+
+  /**
+   * Merges the diagnostics of the workers: diagnostics about a source file are sorted by file and
+   * line, followed by the others, diagnostics that several workers reported are printed once, and
+   * the errors and warnings printed are counted.
+   */
+  static String mergeDiagnostics(List<? extends List<StructuredDiagnostic>> outputs) {
+    List<StructuredDiagnostic> located = new ArrayList<>();
+    List<StructuredDiagnostic> unlocated = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (List<StructuredDiagnostic> output : outputs) {
+      for (StructuredDiagnostic diagnostic : output) {
+        if (seen.add(diagnostic.text())) {
+          (diagnostic.file().isEmpty() ? unlocated : located).add(diagnostic);
+        }
+      }
+    }
+    // The sort is stable, so each file's diagnostics on the same line stay in reported order.
+    Collections.sort(located, new Comparator<StructuredDiagnostic>() {
+      @Override
+      public int compare(StructuredDiagnostic a, StructuredDiagnostic b) {
+        int byFile = a.file().compareTo(b.file());
+        return byFile != 0 ? byFile : Long.compare(a.line(), b.line());
+      }
+    });
+    located.addAll(unlocated);
+    StringBuilder merged = new StringBuilder();
+    int errors = 0;
+    int warnings = 0;
+    for (StructuredDiagnostic diagnostic : located) {
+      merged.append(diagnostic.text()).append('\n');
+      if (diagnostic.kind() == Kind.ERROR) {
+        errors++;
+      } else if (diagnostic.kind() == Kind.WARNING
+          || diagnostic.kind() == Kind.MANDATORY_WARNING) {
+        warnings++;
+      }
+    }
+    appendCount(merged, errors, "error");
+    appendCount(merged, warnings, "warning");
+    return merged.toString();
+  }
+
+  private static void appendCount(StringBuilder merged, int count, String kind) {
+    if (count > 0) {
+      merged.append(count).append(' ').append(kind).append(count > 1 ? "s" : "").append('\n');
+    }
+  }
+
+  private static Result result(int exitCode) {
+    for (Result result : Result.values()) {
+      if (result.exitCode == exitCode) {
+        return result;
+      }
+    }
+    return Result.ABNORMAL;
+  }
+
+  /** A worker JVM that compiles one shard. */
+  private static class Worker {
+    private final Path argumentFile;
+    private final Process process;
+    private int exitCode = Result.ABNORMAL.exitCode;
+    private String output = "";
+    private final List<StructuredDiagnostic> diagnostics = new ArrayList<>();
+
+    Worker(List<String> options, List<Path> shard) throws IOException {
+      List<String> args = new ArrayList<>(options);
+      // Analyze only this shard's files, and not those read from the source path.  The analyzer
+      // matches the path of a file's URI.
+      for (Path source : shard) {
+        args.add("-XepIncludedPath:" + source.toUri().getPath());
+      }
+      for (Path source : shard) {
+        args.add(source.toString());
+      }
+      argumentFile = Files.createTempFile("error-prone-shard", ".args");
+      Files.write(argumentFile, args, UTF_8);
+
+      List<String> command = new ArrayList<>();
+      command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+      String classPath = System.getProperty("java.class.path");
+      if (ClassDataSharing.requested()) {
+        command.addAll(ClassDataSharing.jvmFlags(ErrorProneShardedCompiler.class));
+        classPath = ClassDataSharing.classPath(ErrorProneShardedCompiler.class, classPath);
+      }
+      for (String flag : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+        // E.g. to put javac in front of the JDK's own copy.
+        if (flag.startsWith("-Xbootclasspath")) {
+          command.add(flag);
+        }
+      }
+      command.addAll(ImmutableList.of(
+          "-cp", classPath,
+          ErrorProneBatchCompiler.class.getName(), ErrorProneBatchCompiler.STRUCTURED_FLAG));
+      process = new ProcessBuilder(command).redirectError(Redirect.INHERIT).start();
+      try (DataOutputStream requests =
+          new DataOutputStream(new BufferedOutputStream(process.getOutputStream()))) {
+        requests.writeUTF(argumentFile.toString());
+      }
+    }
+
+    /** Waits for the worker to finish, and reads its response. */
+    void await() throws IOException {
+      DataInputStream responses =
+          new DataInputStream(new BufferedInputStream(process.getInputStream()));
+      exitCode = responses.readInt();
+      output = ErrorProneBatchCompiler.readText(responses);
+      for (int count = responses.readInt(); count > 0; count--) {
+        diagnostics.add(StructuredDiagnostic.readFrom(responses));
+      }
+    }
+
+    /** The worker's output other than its diagnostics. */
+    String output() {
+      return output;
+    }
+
+    List<StructuredDiagnostic> diagnostics() {
+      return diagnostics;
+    }
+
+    int exitCode() {
+      return exitCode;
+    }
+
+    void close() {
+      process.destroy();
+      try {
+        Files.deleteIfExists(argumentFile);
+      } catch (IOException e) {
+        // It's only a temporary file.
+      }
+    }
+  }
+
+  private ErrorProneShardedCompiler() {}
+}
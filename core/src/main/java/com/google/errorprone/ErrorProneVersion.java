@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.base.Optional;
+import com.google.errorprone.util.CodeSources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * The version of error-prone that is running.
+ */
+final class ErrorProneVersion {
+
+  private static final String POM_PROPERTIES =
+      "/META-INF/maven/com.google.errorprone/error_prone_core/pom.properties";
+
+  /** Returns the version in the Maven metadata of the error-prone jar, if there is any. */
+  static Optional<String> loadVersionFromPom() {
+    InputStream stream = ErrorProneVersion.class.getResourceAsStream(POM_PROPERTIES);
+    if (stream == null) {
+      return Optional.absent();
+    }
+    Properties mavenProperties = new Properties();
+    try {
+      try {
+        mavenProperties.load(stream);
+      } finally {
+        stream.close();
+      }
+    } catch (IOException expected) {
+      return Optional.absent();
+    }
+    return Optional.fromNullable(mavenProperties.getProperty("version"));
+  }
+
+  private static String fingerprint;
+
+  /**
+   * Returns a string that differs between builds of error-prone whose checks may behave
+   * differently.
+   *
+   * <p>This is the version of a release. Snapshots and builds without Maven metadata keep their
+   * version from build to build, so for those it is also a hash of the jar or class directory
+   * that error-prone was loaded from.
+   */
+  static synchronized String fingerprint() {
+    if (fingerprint == null) {
+      String version = loadVersionFromPom().or("unknown version");
+      if (version.endsWith("-SNAPSHOT") || version.equals("unknown version")) {
+        version += " " + CodeSources.hash(ErrorProneVersion.class);
+      }
+      fingerprint = version;
+    }
+    return fingerprint;
+  }
+
+  private ErrorProneVersion() {}
+}
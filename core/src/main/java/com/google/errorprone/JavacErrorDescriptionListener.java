@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Function;
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
+import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.fixes.AppliedFix;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.matchers.Description;
@@ -71,9 +72,6 @@ public class JavacErrorDescriptionListener implements DescriptionListener {
 
   @Override
   public void onDescribed(Description description) {
-    // Swap the log's source and the current file's source; then be sure to swap them back later.
-    JavaFileObject originalSource = log.useSource(sourceFile);
-
     List<AppliedFix> appliedFixes = FluentIterable
         .from(description.fixes)
         .transform(fixToAppliedFix)
@@ -98,14 +96,23 @@ public class JavacErrorDescriptionListener implements DescriptionListener {
     if (!first) {     // appended at least one suggested fix to the message
       messageBuilder.append("?");
     }
-    final String message = messageBuilder.toString();
+    report(description.severity, (DiagnosticPosition) description.node,
+        messageBuilder.toString());
+  }
+
+  /**
+   * Reports a finding whose message, including any suggested fixes, has already been rendered.
+   */
+  void report(SeverityLevel severity, DiagnosticPosition position, String message) {
+    // Swap the log's source and the current file's source; then be sure to swap them back later.
+    JavaFileObject originalSource = log.useSource(sourceFile);
 
-    switch (description.severity) {
+    switch (severity) {
       case ERROR:
-        log.error((DiagnosticPosition) description.node, MESSAGE_BUNDLE_KEY, message);
+        log.error(position, MESSAGE_BUNDLE_KEY, message);
         break;
       case WARNING:
-        log.warning((DiagnosticPosition) description.node, MESSAGE_BUNDLE_KEY, message);
+        log.warning(position, MESSAGE_BUNDLE_KEY, message);
         break;
       default:
         break;
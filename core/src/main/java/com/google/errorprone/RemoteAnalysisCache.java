@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.AnalysisCache.Finding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A cache of findings shared over HTTP, e.g. by the agents of a CI system that analyze the same
+ * sources.  It is keyed like {@link AnalysisCache}: an entry is read with {@code GET <url>/<key>}
+ * and written with {@code PUT <url>/<key>}, where {@code key} is the key in hexadecimal, and its
+ * body is the findings encoded by {@link AnalysisCache#encode}.  A missing entry is a 404.
+ * {@link RemoteCacheServer} is a reference implementation of the protocol.
+ *
+ * <p>Lookups are serial: the compilation waits for each one before analyzing the class.  The key
+ * of a class depends on the types it refers to, so it can only be computed once javac has
+ * attributed the class, which it does immediately before the class is analyzed; there is no other
+ * work for the request to overlap with.  A lookup therefore waits no longer than analyzing the
+ * class would take, and a request that takes longer is abandoned and its connection closed, so
+ * that it does not hold up later lookups.  The cache pays off when its round trips are short
+ * compared to the time it takes to analyze a class.
+ *
+ * <p>Stores run on their own background threads and never wait.  Once the lookups have cost more
+ * time than their hits saved, e.g. because the server is slow or unreachable, the cache is no
+ * longer consulted, so a slow cache cannot make analysis much slower than it is without one.
+ * Findings are still stored, for compilations that are closer to the server.
+ */
+final class RemoteAnalysisCache implements Closeable {
+
+  private static final int THREADS = 4;
+  private static final int TIMEOUT_MILLIS = 10000;
+  // The number of lookups before the cache is judged on the time they cost.
+  private static final int WARM_UP_LOOKUPS = 16;
+
+  private final String baseUrl;
+  // Separate, so that lookups never queue behind stores.
+  private final ExecutorService lookupExecutor;
+  private final ExecutorService storeExecutor;
+  private int lookups = 0;
+  private long waitedNanos = 0;
+  private long savedNanos = 0;
+  // Whether lookups have cost more than they saved; stores are cheap and carry on regardless.
+  private boolean lookupsDisabled = false;
+
+  /** Creates a client of the cache at {@code baseUrl}, an HTTP URL. */
+  RemoteAnalysisCache(String baseUrl) {
+    this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    this.lookupExecutor = newExecutor("error-prone-remote-cache-lookup-%d");
+    this.storeExecutor = newExecutor("error-prone-remote-cache-store-%d");
+  }
+
+  private static ExecutorService newExecutor(String nameFormat) {
+    return Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat(nameFormat)
+        .build());
+  }
+
+  /** A GET request, which can be abandoned while it waits for the server. */
+  private final class Lookup implements Callable<Optional<ImmutableList<Finding>>> {
+    private final HashCode key;
+    private volatile HttpURLConnection connection;
+    private volatile boolean abandoned = false;
+
+    Lookup(HashCode key) {
+      this.key = key;
+    }
+
+    @Override
+    public Optional<ImmutableList<Finding>> call() throws IOException {
+      connection = connect(key);
+      if (abandoned) {
+        return Optional.absent();
+      }
+      return get(connection);
+    }
+
+    /**
+     * Closes the connection. Interrupting the thread would not do: a thread that is blocked
+     * reading from an {@link HttpURLConnection} ignores interrupts until its read timeout.
+     */
+    void abandon() {
+      abandoned = true;
+      HttpURLConnection current = connection;
+      if (current != null) {
+        current.disconnect();
+      }
+    }
+  }
+
+  /**
+   * Returns the findings stored for {@code key}, if the cache returns them within about
+   * {@code estimatedScanNanos}, the time it would take to analyze the class instead.
+   */
+  Optional<ImmutableList<Finding>> lookup(HashCode key, long estimatedScanNanos) {
+    if (lookupsDisabled) {
+      return Optional.absent();
+    }
+    long start = System.nanoTime();
+    Lookup lookup = new Lookup(key);
+    Future<Optional<ImmutableList<Finding>>> response = lookupExecutor.submit(lookup);
+    Optional<ImmutableList<Finding>> findings;
+    try {
+      findings = response.get(estimatedScanNanos, NANOSECONDS);
+    } catch (TimeoutException | ExecutionException e) {
+      response.cancel(false);
+      lookup.abandon();
+      findings = Optional.absent();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      lookup.abandon();
+      findings = Optional.absent();
+    }
+    waitedNanos += System.nanoTime() - start;
+    if (findings.isPresent()) {
+      savedNanos += estimatedScanNanos;
+    }
+    if (++lookups >= WARM_UP_LOOKUPS && waitedNanos > savedNanos) {
+      lookupsDisabled = true;
+    }
+    return findings;
+  }
+
+  /** Stores the findings for {@code key} in the background. */
+  void store(final HashCode key, List<Finding> findings) throws IOException {
+    final byte[] encoded = AnalysisCache.encode(findings);
+    storeExecutor.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws IOException {
+        put(key, encoded);
+        return null;
+      }
+    });
+  }
+
+  /** Waits a little while for the pending stores, and stops the background threads. */
+  @Override
+  public void close() {
+    lookupExecutor.shutdownNow();
+    storeExecutor.shutdown();
+    try {
+      storeExecutor.awaitTermination(TIMEOUT_MILLIS, MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    storeExecutor.shutdownNow();
+  }
+
+  private static Optional<ImmutableList<Finding>> get(HttpURLConnection connection)
+      throws IOException {
+    int status = connection.getResponseCode();
+    if (status == HttpURLConnection.HTTP_OK) {
+      try (InputStream in = connection.getInputStream()) {
+        return Optional.of(AnalysisCache.decode(ByteStreams.toByteArray(in)));
+      }
+    }
+    drainError(connection);
+    if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+      return Optional.absent();
+    }
+    throw new IOException("GET " + connection.getURL() + " returned " + status);
+  }
+
+  private void put(HashCode key, byte[] encoded) throws IOException {
+    HttpURLConnection connection = connect(key);
+    connection.setRequestMethod("PUT");
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(encoded.length);
+    connection.setRequestProperty("Content-Type", "application/octet-stream");
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(encoded);
+    }
+    int status = connection.getResponseCode();
+    if (status / 100 != 2) {
+      drainError(connection);
+      throw new IOException("PUT " + connection.getURL() + " returned " + status);
+    }
+    try (InputStream in = connection.getInputStream()) {
+      ByteStreams.toByteArray(in);
+    }
+  }
+
+  /** Reads the body of an error response, so that the connection can be reused. */
+  private static void drainError(HttpURLConnection connection) throws IOException {
+    InputStream error = connection.getErrorStream();
+    if (error != null) {
+      try (InputStream in = error) {
+        ByteStreams.toByteArray(in);
+      }
+    }
+  }
+
+  private HttpURLConnection connect(HashCode key) throws IOException {
+    HttpURLConnection connection =
+        (HttpURLConnection) new URL(baseUrl + key).openConnection();
+    connection.setConnectTimeout(TIMEOUT_MILLIS);
+    connection.setReadTimeout(TIMEOUT_MILLIS);
+    connection.setUseCaches(false);
+    return connection;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.google.common.io.ByteStreams;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * A reference server for {@link RemoteAnalysisCache} that stores the entries as files in a
+ * directory.  It is meant for testing the protocol and for small deployments; it never evicts
+ * entries.
+ *
+ * <p>It is not meant for shared networks: it does not authenticate its clients, so anyone who can
+ * reach it can overwrite entries, and so change the findings that other compilations report.  It
+ * therefore listens on the loopback interface unless it is given another address.
+ *
+ * <p>Usage: {@code java com.google.errorprone.RemoteCacheServer <port> <dir> [<address>]}, after
+ * which compilations can use it with {@code -XepRemoteCache:http://<host>:<port>/}.
+ */
+public final class RemoteCacheServer {
+
+  private static final Pattern KEY = Pattern.compile("[0-9a-f]{32}");
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 && args.length != 3) {
+      System.err.println("Usage: RemoteCacheServer <port> <dir> [<address>]");
+      System.exit(2);
+    }
+    InetAddress address = args.length == 3
+        ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+    start(new InetSocketAddress(address, Integer.parseInt(args[0])), Paths.get(args[1]));
+  }
+
+  /**
+   * Starts a server on the loopback interface, on {@code port}, or on any free port if it is
+   * zero, that stores entries in {@code dir}.
+   */
+  public static RemoteCacheServer start(int port, Path dir) throws IOException {
+    return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), dir);
+  }
+
+  /**
+   * Starts a server on {@code address} that stores entries in {@code dir}.  See the class
+   * documentation before choosing an address other than the loopback interface.
+   */
+  public static RemoteCacheServer start(InetSocketAddress address, Path dir) throws IOException {
+    Files.createDirectories(dir);
+    HttpServer server = HttpServer.create(address, 0);
+    server.createContext("/", new Handler(dir));
+    ExecutorService executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.start();
+    return new RemoteCacheServer(server, executor);
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  private RemoteCacheServer(HttpServer server, ExecutorService executor) {
+    this.server = server;
+    this.executor = executor;
+  }
+
+  /** The port the server listens on. */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  public void stop() {
+    server.stop(0);
+    executor.shutdown();
+  }
+
+  private static class Handler implements HttpHandler {
+    private final Path dir;
+
+    Handler(Path dir) {
+      this.dir = dir;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      try {
+        // The key is the last segment of the path, so the cache can be mounted anywhere.
+        String path = exchange.getRequestURI().getPath();
+        String key = path.substring(path.lastIndexOf('/') + 1);
+        if (!KEY.matcher(key).matches()) {
+          respond(exchange, 400, "invalid key");
+          return;
+        }
+        Path entry = dir.resolve(key);
+        switch (exchange.getRequestMethod()) {
+          case "GET":
+            if (!Files.exists(entry)) {
+              respond(exchange, 404, "not found");
+              return;
+            }
+            byte[] contents = Files.readAllBytes(entry);
+            exchange.sendResponseHeaders(200, contents.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+              out.write(contents);
+            }
+            return;
+          case "PUT":
+            // Write to a temporary file first, so that readers never see a partial entry.
+            Path temp = Files.createTempFile(dir, key, ".tmp");
+            try (InputStream in = exchange.getRequestBody()) {
+              Files.write(temp, ByteStreams.toByteArray(in));
+              Files.move(temp, entry, REPLACE_EXISTING, ATOMIC_MOVE);
+            } finally {
+              Files.deleteIfExists(temp);
+            }
+            exchange.sendResponseHeaders(204, -1);
+            return;
+          default:
+            respond(exchange, 405, "method not allowed");
+        }
+      } finally {
+        exchange.close();
+      }
+    }
+
+    /**
+     * Sends an error with a short message. The JDK's server resets a kept-alive connection after
+     * an error without a body, which makes the client's next request on it fail.
+     */
+    private static void respond(HttpExchange exchange, int status, String message)
+        throws IOException {
+      byte[] body = message.getBytes(UTF_8);
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+}
@@ -16,10 +16,15 @@
 
 package com.google.errorprone;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.RangeSet;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.CompilationScoped;
 
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol;
@@ -33,14 +38,17 @@ import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.main.JavaCompiler;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeInfo;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.Name;
 import com.sun.tools.javac.util.Names;
+import com.sun.tools.javac.util.Position;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -52,6 +60,12 @@ public class VisitorState {
   public final Context context;
   private final TreePath path;
   private final Map<String, SeverityLevel> severityMap;
+  private final LookupCache lookupCache;
+  // The lines being analyzed, or null if all of them are.
+  private final RangeSet<Integer> changedLines;
+  // Memoized results of pure matchers, shared by all checkers that are handed this state. The
+  // scanner creates a fresh state for every node it visits, so this only ever holds a few entries.
+  private Map<Object, Boolean> matchMemo;
 
   // The default no-op implementation of DescriptionListener. We use this instead of null so callers
   // of getDescriptionListener() don't have to do null-checking.
@@ -74,20 +88,73 @@ public class VisitorState {
 
   private VisitorState(Context context, TreePath path,
       DescriptionListener descriptionListener, Map<String, SeverityLevel> severityMap) {
+    this(context, path, descriptionListener, severityMap, LookupCache.INSTANCE.get(context), null);
+  }
+
+  private VisitorState(Context context, TreePath path,
+      DescriptionListener descriptionListener, Map<String, SeverityLevel> severityMap,
+      LookupCache lookupCache, RangeSet<Integer> changedLines) {
     this.context = context;
     this.path = path;
     this.descriptionListener = descriptionListener;
     this.severityMap = severityMap;
+    this.lookupCache = lookupCache;
+    this.changedLines = changedLines;
   }
 
   public VisitorState withPath(TreePath path) {
-    return new VisitorState(context, path, descriptionListener, severityMap);
+    return new VisitorState(
+        context, path, descriptionListener, severityMap, lookupCache, changedLines);
+  }
+
+  /**
+   * Returns a state that analyzes only the given lines of the compilation unit, as given by
+   * {@code -XepChangedLines}.
+   */
+  public VisitorState withChangedLines(RangeSet<Integer> changedLines) {
+    return new VisitorState(
+        context, path, descriptionListener, severityMap, lookupCache, changedLines);
+  }
+
+  /**
+   * Returns true if {@code tree}, in {@code compilationUnit}, spans any of the lines being
+   * analyzed. All lines are analyzed unless only changed lines are.
+   */
+  public boolean isAnalyzed(Tree tree, CompilationUnitTree compilationUnit) {
+    if (changedLines == null) {
+      return true;
+    }
+    JCTree jcTree = (JCTree) tree;
+    int start = TreeInfo.getStartPos(jcTree);
+    int end = jcTree.getEndPosition(((JCCompilationUnit) compilationUnit).endPositions);
+    if (start == Position.NOPOS || end == Position.NOPOS) {
+      return true;
+    }
+    LineMap lineMap = compilationUnit.getLineMap();
+    return ChangedLines.overlaps(changedLines,
+        lineMap.getLineNumber(start), lineMap.getLineNumber(Math.max(start, end - 1)));
   }
 
   public TreePath getPath() {
     return path;
   }
 
+  /**
+   * Returns the result of a pure matcher that was memoized under {@code key} with this state,
+   * or null if there is none. See {@link com.google.errorprone.matchers.Matchers#memoized}.
+   */
+  public Boolean getMemoizedMatch(Object key) {
+    return matchMemo == null ? null : matchMemo.get(key);
+  }
+
+  /** Memoizes the result of a pure matcher for the lifetime of this state. */
+  public void memoizeMatch(Object key, boolean result) {
+    if (matchMemo == null) {
+      matchMemo = new HashMap<>();
+    }
+    matchMemo.put(key, result);
+  }
+
   public TreeMaker getTreeMaker() {
     return TreeMaker.instance(context);
   }
@@ -126,10 +193,21 @@ public class VisitorState {
    * result would always be false even if it could create the type.  Thus it might be best to bail
    * out early in your matcher if this method returns null on your type of interest.
    *
+   * <p>Results, including failed lookups, are cached for the rest of the compilation.
+   *
    * @param typeStr The canonical string representation of a simple type (e.g., "java.lang.Object")
    * @return The Type that corresponds to the string, or null if it cannot be found
    */
   public Type getTypeFromString(String typeStr) {
+    Optional<Type> cached = lookupCache.types.get(typeStr);
+    if (cached == null) {
+      cached = Optional.fromNullable(resolveTypeFromString(typeStr));
+      lookupCache.types.put(typeStr, cached);
+    }
+    return cached.orNull();
+  }
+
+  private Type resolveTypeFromString(String typeStr) {
     validateTypeStr(typeStr);
     if (isPrimitiveType(typeStr)) {
       return getPrimitiveType(typeStr);
@@ -159,21 +237,30 @@ public class VisitorState {
   }
 
   /**
+   * Symbols that were found, or that failed to complete, are cached for the rest of the
+   * compilation. Symbols that have not been loaded yet are looked up again on the next call.
+   *
    * @param symStr the string representation of a symbol
    * @return the Symbol object, or null if it cannot be found
    */
   public Symbol getSymbolFromString(String symStr) {
+    Optional<Symbol> cached = lookupCache.symbols.get(symStr);
+    if (cached != null) {
+      return cached.orNull();
+    }
+    Name symName = getName(symStr);
+    Symbol result = getSymtab().classes.get(symName);
+    if (result == null) {
+      return null;
+    }
     try {
-      Name symName = getName(symStr);
-      Symbol result = getSymtab().classes.get(symName);
-      if (result != null) {
-        // Force a completion failure if the type is not available.
-        result.complete();
-      }
-      return result;
+      // Force a completion failure if the type is not available.
+      result.complete();
     } catch (CompletionFailure failure) {
-      return null;
+      result = null;
     }
+    lookupCache.symbols.put(symStr, Optional.fromNullable(result));
+    return result;
   }
 
   /**
@@ -336,4 +423,18 @@ public class VisitorState {
         typeStr.equals("long") || typeStr.equals("float") || typeStr.equals("double") ||
         typeStr.equals("boolean") || typeStr.equals("char");
   }
+
+  /** Memoizes {@link #getTypeFromString} and {@link #getSymbolFromString}. */
+  private static final class LookupCache {
+    static final CompilationScoped<LookupCache> INSTANCE = new CompilationScoped<LookupCache>() {
+      @Override
+      protected LookupCache create(Context context) {
+        return new LookupCache();
+      }
+    };
+
+    // Absent values record lookups that failed, so they are not retried.
+    final Map<String, Optional<Type>> types = new HashMap<>();
+    final Map<String, Optional<Symbol>> symbols = new HashMap<>();
+  }
 }
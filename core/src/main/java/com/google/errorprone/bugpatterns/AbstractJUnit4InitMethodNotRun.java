@@ -22,8 +22,10 @@ import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 import static com.google.errorprone.matchers.Matchers.hasAnnotationOnAnyOverriddenMethod;
 import static com.google.errorprone.matchers.Matchers.not;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.JUnitMatchers;
@@ -37,6 +39,7 @@ import com.sun.tools.javac.tree.JCTree;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 import javax.lang.model.element.Modifier;
@@ -48,7 +51,17 @@ import javax.lang.model.element.Modifier;
  *
  * @author glorioso@google.com
  */
-abstract class AbstractJUnit4InitMethodNotRun extends BugChecker implements MethodTreeMatcher {
+abstract class AbstractJUnit4InitMethodNotRun extends BugChecker
+    implements MethodTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("org.junit.runner.RunWith");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
   private static final String JUNIT_TEST = "org.junit.Test";
   protected final JUnitMatchers.JUnit4TestClassMatcher isJUnit4TestClass;
 
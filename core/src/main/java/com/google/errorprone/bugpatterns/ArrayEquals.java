@@ -27,8 +27,10 @@ import static com.google.errorprone.matchers.Matchers.instanceMethod;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -40,6 +42,8 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 
+import java.util.Set;
+
 /**
  * @author eaftan@google.com (Eddie Aftandilian)
  */
@@ -54,7 +58,16 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
         + "If reference equality is needed, == should be used instead for clarity. Otherwise, "
         + "use java.util.Arrays#equals() to compare the contents of the arrays.",
     category = JDK, severity = ERROR, maturity = MATURE)
-public class ArrayEquals extends BugChecker implements MethodInvocationTreeMatcher {
+public class ArrayEquals extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("equals", "equal");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
+
   /**
    * Matches when the equals instance method is used to compare two arrays.
    */
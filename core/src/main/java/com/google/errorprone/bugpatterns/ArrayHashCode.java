@@ -26,8 +26,10 @@ import static com.google.errorprone.matchers.Matchers.argumentCount;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -39,6 +41,8 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 
+import java.util.Set;
+
 /**
  * @author eaftan@google.com (Eddie Aftandilian)
  */
@@ -64,7 +68,15 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
         + "on the contents of the array. If you really intended to compute the identity hash code, "
         + "consider using java.lang.System#identityHashCode() instead for clarity.",
     category = JDK, severity = ERROR, maturity = MATURE)
-public class ArrayHashCode extends BugChecker implements MethodInvocationTreeMatcher {
+public class ArrayHashCode extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("hashCode", "hash");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   /**
    * Matches calls to varargs hashcode methods com.google.common.base.Objects#hashCode() and
@@ -46,19 +46,21 @@ import com.sun.source.tree.MethodInvocationTree;
     category = JDK, severity = ERROR, maturity = MATURE)
 public class ArrayToString extends BugChecker implements MethodInvocationTreeMatcher {
 
+  /**
+   * Matches calls to a toString instance method in which the receiver is an array type.
+   */
+  private static final Matcher<MethodInvocationTree> arrayToStringMatcher = methodSelect(
+      instanceMethod(Matchers.<ExpressionTree>isArrayType(), "toString"));
+
   /**
    * Matches calls to Throwable.getStackTrace().
    */
   private static final Matcher<MethodInvocationTree> getStackTraceMatcher = methodSelect(
       instanceMethod(Matchers.<ExpressionTree>isSubtypeOf("java.lang.Throwable"), "getStackTrace"));
 
-  /**
-   * Matches calls to a toString instance method in which the receiver is an array type.
-   */
   @Override
   public Description matchMethodInvocation(MethodInvocationTree methodTree, VisitorState state) {
-    if (!methodSelect(instanceMethod(Matchers.<ExpressionTree>isArrayType(), "toString"))
-        .matches(methodTree, state)) {
+    if (!arrayToStringMatcher.matches(methodTree, state)) {
       return Description.NO_MATCH;
     }
 
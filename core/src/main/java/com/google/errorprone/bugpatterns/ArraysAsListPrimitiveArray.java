@@ -20,8 +20,10 @@ import static com.google.errorprone.BugPattern.Category.JDK;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -38,6 +40,7 @@ import com.sun.tools.javac.tree.JCTree;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.Set;
 
 import javax.lang.model.type.TypeKind;
 
@@ -51,7 +54,16 @@ import javax.lang.model.type.TypeKind;
         "list containing the primitive array, use Collections.singletonList to " +
         "make your intent clearer.",
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
-public class ArraysAsListPrimitiveArray extends BugChecker implements MethodInvocationTreeMatcher {
+public class ArraysAsListPrimitiveArray extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("asList");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
+
   private static final Matcher<MethodInvocationTree> ARRAYS_AS_LIST_SINGLE_ARRAY = Matchers.allOf(
       Matchers.methodSelect(Matchers.staticMethod("java.util.Arrays", "asList")),
       Matchers.argumentCount(1),
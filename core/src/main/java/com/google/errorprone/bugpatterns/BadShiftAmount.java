@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.allOf;
@@ -53,7 +54,7 @@ import com.sun.tools.javac.tree.JCTree.JCLiteral;
         + "not in the range 0 to 31, inclusive, are silently mapped to values in that range. "
         + "For example, a shift of an int by 32 is equivalent to shifting by 0, i.e., a no-op.\n\n"
         + "See JLS 15.19, \"Shift Operators\", for more details.",
-    category = JDK, severity = ERROR, maturity = MATURE)
+    category = JDK, severity = ERROR, maturity = MATURE, cost = CHEAP)
 public class BadShiftAmount extends BugChecker implements BinaryTreeMatcher {
 
   /**
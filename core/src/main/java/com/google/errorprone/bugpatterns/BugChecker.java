@@ -20,6 +20,7 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.Cost;
 import com.google.errorprone.BugPattern.MaturityLevel;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.BugPattern.Suppressibility;
@@ -138,6 +139,12 @@ public abstract class BugChecker implements Suppressible, Serializable {
    */
   private final String linkUrl;
 
+  /**
+   * How expensive this check is to run.  Corresponds to the {@code cost} attribute from its
+   * {@code BugPattern}.
+   */
+  private final Cost cost;
+
   /**
    * Whether this check may be suppressed.  Corresponds to the {@code suppressibility} attribute
    * from its {@code BugPattern}.
@@ -168,6 +175,7 @@ public abstract class BugChecker implements Suppressible, Serializable {
     maturity = pattern.maturity();
     defaultSeverity = pattern.severity();
     linkUrl = createLinkUrl(pattern);
+    cost = pattern.cost();
     suppressibility = pattern.suppressibility();
     if (suppressibility == Suppressibility.CUSTOM_ANNOTATION) {
       customSuppressionAnnotation = pattern.customSuppressionAnnotation();
@@ -248,6 +256,10 @@ public abstract class BugChecker implements Suppressible, Serializable {
     return linkUrl;
   }
 
+  public Cost cost() {
+    return cost;
+  }
+
   @Override
   public Suppressibility suppressibility() {
     return suppressibility;
@@ -401,6 +413,35 @@ public abstract class BugChecker implements Suppressible, Serializable {
     Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state);
   }
 
+  /**
+   * Implemented by a {@link MethodInvocationTreeMatcher} that can only match invocations of
+   * methods with particular simple names. The scanner uses these names to skip the checker for
+   * every other invocation; checkers that do not implement this interface see every invocation.
+   */
+  public static interface InterestingMethodNames {
+    /**
+     * The simple names of the methods whose invocations this checker may match, e.g.
+     * {@code "equals"}.
+     */
+    Set<String> interestingMethodNames();
+  }
+
+  /**
+   * Implemented by a checker that can only match code that refers to one of a few library types,
+   * e.g. the Guice or JUnit annotations. The scanner skips the checker for compilations without
+   * any of these types on the classpath, and for compilation units that reference none of them.
+   *
+   * <p>A type counts as referenced by a compilation unit if the unit mentions it, mentions one of
+   * its subtypes, or mentions a type or subtype annotated with it.
+   */
+  public static interface TriggerTypes {
+    /**
+     * The fully-qualified names of the top-level types that trigger this checker, e.g.
+     * {@code "org.junit.Test"}.
+     */
+    Set<String> triggerTypes();
+  }
+
   public static interface ModifiersTreeMatcher extends Suppressible {
     Description matchModifiers(ModifiersTree tree, VisitorState state);
   }
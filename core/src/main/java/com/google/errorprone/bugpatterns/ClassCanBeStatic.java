@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.EXPENSIVE;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.allOf;
@@ -56,7 +57,7 @@ import javax.lang.model.element.NestingKind;
     explanation = "An inner class should be static unless it references members" +
         "of its enclosing class. An inner class that is made non-static unnecessarily" +
         "uses more memory and does not make the intent of the class clear.",
-    category = JDK, maturity = EXPERIMENTAL, severity = ERROR)
+    category = JDK, maturity = EXPERIMENTAL, severity = ERROR, cost = EXPENSIVE)
 public class ClassCanBeStatic extends BugChecker implements ClassTreeMatcher {
 
   /**
@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.anyOf;
@@ -46,7 +47,7 @@ import com.sun.source.tree.Tree.Kind;
 @BugPattern(name = "DivZero", altNames = "divzero",
     summary = "Division by integer literal zero",
     explanation = "This code will cause a runtime arithmetic exception if it is executed.",
-    category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
+    category = JDK, severity = ERROR, maturity = EXPERIMENTAL, cost = CHEAP)
 public class DivZero extends BugChecker
     implements BinaryTreeMatcher, CompoundAssignmentTreeMatcher {
 
@@ -29,6 +29,7 @@ import com.google.errorprone.bugpatterns.BugChecker.WhileLoopTreeMatcher;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 
 import com.sun.source.tree.EnhancedForLoopTree;
 import com.sun.source.tree.ExpressionTree;
@@ -65,14 +66,16 @@ import com.sun.tools.javac.tree.JCTree.JCWhileLoop;
 public class ElementsCountedInLoop extends BugChecker
     implements EnhancedForLoopTreeMatcher, WhileLoopTreeMatcher {
 
+  private static final Matcher<MethodInvocationTree> ITERATOR_HAS_NEXT =
+      methodSelect(isDescendantOfMethod("java.util.Iterator", "hasNext()"));
+
   @Override
   public Description matchWhileLoop(WhileLoopTree tree, VisitorState state) {
     JCWhileLoop whileLoop = (JCWhileLoop) tree;
     JCExpression whileExpression = ((JCParens) whileLoop.getCondition()).getExpression();
     if (whileExpression instanceof MethodInvocationTree) {
       MethodInvocationTree methodInvocation = (MethodInvocationTree) whileExpression;
-      if (methodSelect(isDescendantOfMethod("java.util.Iterator", "hasNext()")).matches(
-          methodInvocation, state)) {
+      if (ITERATOR_HAS_NEXT.matches(methodInvocation, state)) {
         IdentifierTree identifier = getIncrementedIdentifer(extractSingleStatement(whileLoop.body));
         if (identifier != null) {
           return describeMatch(tree);
@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
@@ -42,7 +43,7 @@ import javax.annotation.Nullable;
     summary = "== NaN always returns false; use the isNaN methods instead",
     explanation = "As per JLS 15.21.1, == NaN comparisons always return false, even NaN == NaN. "
         + "Instead, use the isNaN methods to check for NaN.",
-    category = JDK, severity = ERROR, maturity = MATURE)
+    category = JDK, severity = ERROR, maturity = MATURE, cost = CHEAP)
 public class EqualsNaN extends BugChecker implements BinaryTreeMatcher {  
   @Override
   public Description matchBinary(BinaryTree tree, VisitorState state) {
@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.ONE_OFF;
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.NOT_A_PROBLEM;
 import static com.google.errorprone.matchers.Matchers.allOf;
@@ -45,7 +46,7 @@ import java.util.List;
         "@SuppressWarnings annotation, remove the whole annotation.\n\n" +
         "Note: This checker was specific to a refactoring we performed and should not be " +
         "used as a general error or warning.",
-    category = ONE_OFF, severity = NOT_A_PROBLEM, maturity = EXPERIMENTAL)
+    category = ONE_OFF, severity = NOT_A_PROBLEM, maturity = EXPERIMENTAL, cost = CHEAP)
 public class FallThroughSuppression extends AbstractSuppressWarningsMatcher {
 
   @SuppressWarnings({"varargs", "unchecked"})
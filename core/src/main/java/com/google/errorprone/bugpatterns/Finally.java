@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 
@@ -66,7 +67,7 @@ import com.sun.tools.javac.util.Name;
         + " and will cause the result of any previously executed return or throw statements to"
         + " be ignored. This is very confusing. Please refactor this code to ensure that the"
         + " finally block will always complete normally.",
-    category = JDK, severity = WARNING, maturity = MATURE)
+    category = JDK, severity = WARNING, maturity = MATURE, cost = CHEAP)
 public class Finally extends BugChecker
     implements ContinueTreeMatcher, ThrowTreeMatcher, BreakTreeMatcher, ReturnTreeMatcher {
 
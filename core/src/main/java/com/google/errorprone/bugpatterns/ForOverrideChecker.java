@@ -31,7 +31,6 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.source.util.TreePath;
-import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.TypeSymbol;
@@ -153,7 +152,8 @@ public class ForOverrideChecker extends BugChecker
     Iterator<MethodSymbol> iter = list.iterator();
     while (iter.hasNext()) {
       MethodSymbol member = iter.next();
-      if (!(hasAnnotation(FOR_OVERRIDE, member) || hasAnnotation(GUAVA_FOR_OVERRIDE, member))
+      if (!(ASTHelpers.hasAnnotation(member, FOR_OVERRIDE, state)
+          || ASTHelpers.hasAnnotation(member, GUAVA_FOR_OVERRIDE, state))
           // Note that MethodSymbol.overrides() ignores static-ness, but that's OK since we've
           // already checked that this method is not static.
           || !method.overrides(
@@ -182,13 +182,4 @@ public class ForOverrideChecker extends BugChecker
     }
     return type;
   }
-
-  private boolean hasAnnotation(String annotation, Symbol member) {
-    for (Attribute.Compound attribute : member.getAnnotationMirrors()) {
-      if (annotation.equals(attribute.type.toString())) {
-        return true;
-      }
-    }
-    return false;
-  }
 }
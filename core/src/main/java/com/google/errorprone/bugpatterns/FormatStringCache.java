@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.bugpatterns;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.util.CompilationScoped;
+
+import com.sun.tools.javac.util.Context;
+
+import edu.umd.cs.findbugs.formatStringChecker.Formatter;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Remembers what the format string and regex checkers learned about string literals, so that a
+ * literal repeated at many call sites, e.g. a common log message, is only parsed once.
+ *
+ * <p>Results are keyed by the question and the literal, not by the call site. The cache is
+ * bounded, and its hit rate is reported with javac's {@code -verbose}, see {@link #statistics}.
+ */
+public final class FormatStringCache {
+
+  /** The maximum number of parsed literals to keep. */
+  private static final int MAX_ENTRIES = 4096;
+
+  private static final CompilationScoped<FormatStringCache> INSTANCE =
+      new CompilationScoped<FormatStringCache>() {
+        @Override
+        protected FormatStringCache create(Context context) {
+          return new FormatStringCache();
+        }
+      };
+
+  static FormatStringCache instance(VisitorState state) {
+    return instance(state.context);
+  }
+
+  /** Returns the cache of the compilation with {@code context}. */
+  public static FormatStringCache instance(Context context) {
+    return INSTANCE.get(context);
+  }
+
+  private final Cache<List<?>, Object> cache =
+      CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).recordStats().build();
+
+  private FormatStringCache() {}
+
+  /**
+   * Returns the size and hit rate of the cache, or absent if no checker has used it. Unlike the
+   * compilation's {@link Context}, the cache can still be read once the compilation has ended.
+   */
+  public Optional<String> statistics() {
+    return cache.stats().requestCount() > 0 ? Optional.of(toString()) : Optional.<String>absent();
+  }
+
+  /**
+   * Returns the result of {@code loader}, which computes the answer to {@code question} about
+   * {@code literal} and must not depend on anything else.
+   */
+  @SuppressWarnings("unchecked")  // Each question is only ever answered with one type.
+  <V> V get(Object question, Object literal, Callable<V> loader) {
+    try {
+      return (V) cache.get(Arrays.asList(question, literal), loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Returns the message of the {@link PatternSyntaxException} thrown when compiling
+   * {@code regex}, or absent if it is a valid regex.
+   */
+  Optional<String> regexSyntaxError(final String regex) {
+    return get("regexSyntaxError", regex, new Callable<Optional<String>>() {
+      @Override
+      public Optional<String> call() {
+        try {
+          Pattern.compile(regex);
+          return Optional.absent();
+        } catch (PatternSyntaxException e) {
+          return Optional.of(e.getMessage());
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the exception that {@link Formatter#check} throws for {@code format} and arguments of
+   * {@code argTypes}, or absent if they match.
+   */
+  Optional<Exception> printfError(final String format, List<String> argTypes) {
+    final ImmutableList<String> types = ImmutableList.copyOf(argTypes);
+    return get(Arrays.asList("printfError", types), format, new Callable<Optional<Exception>>() {
+      @Override
+      public Optional<Exception> call() {
+        try {
+          Formatter.check(format, types.toArray(new String[0]));
+          return Optional.absent();
+        } catch (Exception e) {
+          return Optional.of(e);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the exception that {@link MessageFormat} throws when parsing {@code format}, or absent
+   * if it is a valid pattern.
+   */
+  Optional<Exception> messageFormatError(final String format) {
+    return get("messageFormatError", format, new Callable<Optional<Exception>>() {
+      @Override
+      public Optional<Exception> call() {
+        try {
+          new MessageFormat(format);
+          return Optional.absent();
+        } catch (Exception e) {
+          return Optional.of(e);
+        }
+      }
+    });
+  }
+
+  /** Returns whether {@code pattern}, which should be a constant, occurs in {@code input}. */
+  boolean find(final Pattern pattern, final String input) {
+    return get(pattern, input, new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return pattern.matcher(input).find();
+      }
+    });
+  }
+
+  /** Returns the hit and miss counts of this cache so far. */
+  CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public String toString() {
+    CacheStats stats = stats();
+    return String.format("FormatStringCache{size=%d, requests=%d, hitRate=%.2f}",
+        cache.size(), stats.requestCount(), stats.hitRate());
+  }
+}
@@ -26,9 +26,11 @@ import static com.google.errorprone.matchers.Matchers.constructor;
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 import static com.google.errorprone.matchers.Matchers.methodHasParameters;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -40,6 +42,8 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.VariableTree;
 
+import java.util.Set;
+
 /**
  * This checker matches iff *both* of the following conditions are true:
  * 1) The class is assisted:
@@ -60,7 +64,17 @@ import com.sun.source.tree.VariableTree;
         "See [https://code.google.com/p/google-guice/issues/detail?id=742 this bug report] for " +
         "details.",
     category = GUICE, severity = ERROR, maturity = MATURE)
-public class GuiceAssistedInjectScoping extends BugChecker implements ClassTreeMatcher {
+public class GuiceAssistedInjectScoping extends BugChecker
+    implements ClassTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES = ImmutableSet.of(
+      "com.google.inject.assistedinject.AssistedInject",
+      "com.google.inject.assistedinject.Assisted");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_SCOPE_ANNOTATION = "com.google.inject.ScopeAnnotation";
   private static final String JAVAX_SCOPE_ANNOTATION = "javax.inject.Scope";
@@ -19,8 +19,10 @@ import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -34,6 +36,8 @@ import com.sun.tools.javac.code.Attribute.Compound;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 
+import java.util.Set;
+
 import javax.lang.model.element.TypeElement;
 
 /**
@@ -44,7 +48,16 @@ import javax.lang.model.element.TypeElement;
     + "disambiguated with named @Assisted annotations. ",
     explanation = "See http://google-guice.googlecode.com/git/javadoc/com/google/inject/assistedinject/FactoryModuleBuilder.html",
     category = GUICE, severity = ERROR, maturity = EXPERIMENTAL)
-public class GuiceAssistedParameters extends BugChecker implements VariableTreeMatcher {
+public class GuiceAssistedParameters extends BugChecker
+    implements VariableTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.assistedinject.Assisted");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String ASSISTED_ANNOTATION = "com.google.inject.assistedinject.Assisted";
 
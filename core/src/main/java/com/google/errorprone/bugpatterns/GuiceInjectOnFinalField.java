@@ -22,8 +22,10 @@ import static com.google.errorprone.matchers.Matchers.isType;
 import static com.sun.source.tree.Tree.Kind.VARIABLE;
 import static javax.lang.model.element.Modifier.FINAL;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.ChildMultiMatcher.MatchType;
@@ -41,6 +43,8 @@ import com.sun.tools.javac.tree.JCTree.JCModifiers;
 import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
 import com.sun.tools.javac.tree.TreeMaker;
 
+import java.util.Set;
+
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
  */
@@ -50,7 +54,16 @@ import com.sun.tools.javac.tree.TreeMaker;
     explanation = "See https://code.google.com/p/google-guice/wiki/InjectionPoints",
     category = GUICE, severity = WARNING, maturity = EXPERIMENTAL)
 @SuppressWarnings("serial")
-public class GuiceInjectOnFinalField extends BugChecker implements VariableTreeMatcher {
+public class GuiceInjectOnFinalField extends BugChecker
+    implements VariableTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.Inject");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_INJECT_ANNOTATION = "com.google.inject.Inject";
 
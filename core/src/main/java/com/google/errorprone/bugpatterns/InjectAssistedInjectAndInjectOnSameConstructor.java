@@ -21,9 +21,11 @@ import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -35,6 +37,8 @@ import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Symbol;
 
+import java.util.Set;
+
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
  */
@@ -44,7 +48,15 @@ import com.sun.tools.javac.code.Symbol;
     + "error in Guice.",
     category = INJECT, severity = ERROR, maturity = EXPERIMENTAL)
 public class InjectAssistedInjectAndInjectOnSameConstructor extends BugChecker
-    implements AnnotationTreeMatcher {
+    implements AnnotationTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.assistedinject.AssistedInject");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_INJECT_ANNOTATION = "com.google.inject.Inject";
   private static final String JAVAX_INJECT_ANNOTATION = "javax.inject.Inject";
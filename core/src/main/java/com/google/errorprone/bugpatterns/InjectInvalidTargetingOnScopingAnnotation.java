@@ -22,8 +22,10 @@ import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -38,6 +40,7 @@ import com.sun.tools.javac.code.Symbol;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
+import java.util.Set;
 
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
@@ -48,7 +51,15 @@ import java.lang.annotation.Target;
         "appropriate on @Provides methods and classes that will be provided just-in-time.",
     category = INJECT, severity = ERROR, maturity = EXPERIMENTAL)
 public class InjectInvalidTargetingOnScopingAnnotation extends BugChecker
-    implements ClassTreeMatcher {
+    implements ClassTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.ScopeAnnotation", "javax.inject.Scope");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_SCOPE_ANNOTATION = "com.google.inject.ScopeAnnotation";
   private static final String JAVAX_SCOPE_ANNOTATION = "javax.inject.Scope";
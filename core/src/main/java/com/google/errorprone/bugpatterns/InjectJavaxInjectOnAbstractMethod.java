@@ -22,9 +22,11 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.sun.source.tree.Tree.Kind.METHOD;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -34,6 +36,8 @@ import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 
+import java.util.Set;
+
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
  */
@@ -47,7 +51,14 @@ import com.sun.source.tree.Tree;
         + "and https://code.google.com/p/google-guice/wiki/JSR330" + " ", category = INJECT,
     severity = ERROR, maturity = EXPERIMENTAL)
 public class InjectJavaxInjectOnAbstractMethod extends BugChecker
-    implements AnnotationTreeMatcher {
+    implements AnnotationTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES = ImmutableSet.of("javax.inject.Inject");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String JAVAX_INJECT_ANNOTATION = "javax.inject.Inject";
 
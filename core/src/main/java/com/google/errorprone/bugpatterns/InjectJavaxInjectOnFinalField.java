@@ -22,9 +22,11 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.sun.source.tree.Tree.Kind.VARIABLE;
 import static javax.lang.model.element.Modifier.FINAL;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.AnnotationType;
 import com.google.errorprone.matchers.Description;
@@ -36,6 +38,8 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 
+import java.util.Set;
+
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
  */
@@ -44,7 +48,15 @@ import com.sun.source.tree.VariableTree;
         "According to the JSR-330 spec, the @javax.inject.Inject annotation "
         + "cannot go on final fields.)", category = INJECT, severity = ERROR,
     maturity = EXPERIMENTAL)
-public class InjectJavaxInjectOnFinalField extends BugChecker implements AnnotationTreeMatcher {
+public class InjectJavaxInjectOnFinalField extends BugChecker
+    implements AnnotationTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES = ImmutableSet.of("javax.inject.Inject");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String JAVAX_INJECT_ANNOTATION = "javax.inject.Inject";
 
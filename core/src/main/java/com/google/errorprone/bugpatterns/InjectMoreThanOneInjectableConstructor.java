@@ -21,9 +21,11 @@ import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.AnnotationType;
 import com.google.errorprone.matchers.Description;
@@ -36,6 +38,8 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 
+import java.util.Set;
+
 /**
  * Matches classes that have two or more constructors annotated with @Inject.
  *
@@ -48,7 +52,15 @@ import com.sun.source.tree.Tree;
         + "compliant JSR-330 frameworks such as Guice or Dagger",
         category = INJECT, severity = ERROR, maturity = EXPERIMENTAL)
 public class InjectMoreThanOneInjectableConstructor extends BugChecker
-    implements MethodTreeMatcher {
+    implements MethodTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.Inject", "javax.inject.Inject");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_INJECT_ANNOTATION = "com.google.inject.Inject";
   private static final String JAVAX_INJECT_ANNOTATION = "javax.inject.Inject";
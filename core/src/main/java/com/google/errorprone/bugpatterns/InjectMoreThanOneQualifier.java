@@ -22,8 +22,10 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher;
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -33,6 +35,7 @@ import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.ModifiersTree;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
@@ -41,7 +44,16 @@ import java.util.List;
     summary = "Using more than one qualifier annotation on the same element is not allowed.",
     explanation = "An element can be qualified by at most one qualifier.", category = INJECT,
     severity = ERROR, maturity = EXPERIMENTAL)
-public class InjectMoreThanOneQualifier extends BugChecker implements AnnotationTreeMatcher {
+public class InjectMoreThanOneQualifier extends BugChecker
+    implements AnnotationTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.BindingAnnotation", "javax.inject.Qualifier");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
 
   private static final String GUICE_BINDING_ANNOTATION = "com.google.inject.BindingAnnotation";
@@ -22,8 +22,10 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher;
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -33,6 +35,8 @@ import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.ModifiersTree;
 
+import java.util.Set;
+
 /**
  * This checker matches if a class has more than one annotation that is a scope annotation(that is,
  * the annotation is either annotated with Guice's @ScopeAnnotation or Javax's @Scope).
@@ -46,7 +50,15 @@ import com.sun.source.tree.ModifiersTree;
         + "invalid according to the JSR-330 specification. ", category = INJECT, severity = ERROR,
     maturity = EXPERIMENTAL)
 public class InjectMoreThanOneScopeAnnotationOnClass extends BugChecker
-    implements AnnotationTreeMatcher {
+    implements AnnotationTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.ScopeAnnotation", "javax.inject.Scope");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_SCOPE_ANNOTATION = "com.google.inject.ScopeAnnotation";
   private static final String JAVAX_SCOPE_ANNOTATION = "javax.inject.Scope";
@@ -23,8 +23,10 @@ import static com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -36,6 +38,8 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Flags;
 
+import java.util.Set;
+
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
  */
@@ -44,7 +48,15 @@ import com.sun.tools.javac.code.Flags;
     explanation = "Scoping annotations are not allowed on abstract types.", category = INJECT,
     severity = ERROR, maturity = EXPERIMENTAL)
 public class InjectScopeAnnotationOnInterfaceOrAbstractClass
-    extends BugChecker implements AnnotationTreeMatcher {
+    extends BugChecker implements AnnotationTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.ScopeAnnotation", "javax.inject.Scope");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_SCOPE_ANNOTATION = "com.google.inject.ScopeAnnotation";
   private static final String JAVAX_SCOPE_ANNOTATION = "javax.inject.Scope";
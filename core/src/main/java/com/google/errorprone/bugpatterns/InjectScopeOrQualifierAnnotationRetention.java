@@ -21,8 +21,10 @@ import static com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
 import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -34,6 +36,7 @@ import com.sun.source.tree.ClassTree;
 import com.sun.tools.javac.code.Flags;
 
 import java.lang.annotation.Retention;
+import java.util.Set;
 
 /**
  * @author sgoldfeder@google.com (Steven Goldfeder)
@@ -45,7 +48,18 @@ import java.lang.annotation.Retention;
         + "behavior in frameworks that use reflection.", category = INJECT, severity = ERROR,
     maturity = EXPERIMENTAL)
 public class InjectScopeOrQualifierAnnotationRetention extends BugChecker
-    implements ClassTreeMatcher {
+    implements ClassTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES = ImmutableSet.of(
+      "com.google.inject.ScopeAnnotation",
+      "javax.inject.Scope",
+      "com.google.inject.BindingAnnotation",
+      "javax.inject.Qualifier");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String GUICE_SCOPE_ANNOTATION = "com.google.inject.ScopeAnnotation";
   private static final String JAVAX_SCOPE_ANNOTATION = "javax.inject.Scope";
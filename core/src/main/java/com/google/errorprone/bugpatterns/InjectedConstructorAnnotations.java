@@ -26,9 +26,11 @@ import static com.google.errorprone.matchers.Matchers.hasArgumentWithValue;
 import static com.google.errorprone.matchers.Matchers.isType;
 import static com.google.errorprone.matchers.Matchers.methodIsConstructor;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -36,6 +38,8 @@ import com.google.errorprone.matchers.Matcher;
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.MethodTree;
 
+import java.util.Set;
+
 /**
  * A checker for injected constructors with @Inject(optional=true) or binding annotations.
  */
@@ -45,7 +49,17 @@ import com.sun.source.tree.MethodTree;
         + "with @Inject and a binding annotation. This will cause a Guice runtime error.\n\n"
         + "See [https://code.google.com/p/google-guice/wiki/InjectionPoints] for details.",
     category = INJECT, severity = ERROR, maturity = EXPERIMENTAL)
-public class InjectedConstructorAnnotations extends BugChecker implements MethodTreeMatcher {
+public class InjectedConstructorAnnotations extends BugChecker
+    implements MethodTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.inject.Inject");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
   private static final String GUICE_INJECT_ANNOTATION = "com.google.inject.Inject";
   private static final String GUICE_BINDING_ANNOTATION = "com.google.inject.BindingAnnotation";
 
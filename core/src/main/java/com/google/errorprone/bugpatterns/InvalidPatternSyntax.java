@@ -26,8 +26,10 @@ import static com.google.errorprone.matchers.Matchers.isDescendantOfMethod;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -37,8 +39,7 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.Set;
 
 /**
  * @author mdempsky@google.com (Matthew Dempsky)
@@ -50,7 +51,16 @@ import java.util.regex.PatternSyntaxException;
         + "We deliberately do not check java.util.regex.Pattern#compile as many of its users "
         + "are deliberately testing the regex compiler or using a vacuously true regex.",
     category = JDK, severity = ERROR, maturity = MATURE)
-public class InvalidPatternSyntax extends BugChecker implements MethodInvocationTreeMatcher {
+public class InvalidPatternSyntax extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES =
+      ImmutableSet.of("matches", "replaceAll", "replaceFirst", "split", "onPattern");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   private static final String MESSAGE_BASE = "Invalid syntax used for a regular expression: ";
 
@@ -59,20 +69,15 @@ public class InvalidPatternSyntax extends BugChecker implements MethodInvocation
     @Override
     public boolean matches(ExpressionTree tree, VisitorState state) {
       Object value = ((JCExpression) tree).type.constValue();
-      return value instanceof String && !isValidSyntax((String) value);
+      return value instanceof String && !isValidSyntax((String) value, state);
     }
 
-    private boolean isValidSyntax(String regex) {
+    private boolean isValidSyntax(String regex, VisitorState state) {
       // Actually valid, but useless.
       if (".".equals(regex)) {
         return false;
       }
-      try {
-        Pattern.compile(regex);
-        return true;
-      } catch (PatternSyntaxException e) {
-        return false;
-      }
+      return !FormatStringCache.instance(state).regexSyntaxError(regex).isPresent();
     }
   };
 
@@ -112,11 +117,7 @@ public class InvalidPatternSyntax extends BugChecker implements MethodInvocation
       descriptionBuilder.addFix(SuggestedFix.replace(arg, "\"\\\\.\""));
       reasonInvalid = "\".\" is a valid but useless regex";
     } else {
-      try {
-        Pattern.compile(value);
-      } catch (PatternSyntaxException e) {
-        reasonInvalid = e.getMessage();
-      }
+      reasonInvalid = FormatStringCache.instance(state).regexSyntaxError(value).or("");
     }
 
     descriptionBuilder.setMessage(MESSAGE_BASE + reasonInvalid);
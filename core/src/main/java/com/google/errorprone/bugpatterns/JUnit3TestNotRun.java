@@ -29,9 +29,11 @@ import static com.google.errorprone.matchers.Matchers.methodReturns;
 import static com.google.errorprone.matchers.Matchers.not;
 import static com.google.errorprone.suppliers.Suppliers.VOID_TYPE;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -41,6 +43,7 @@ import com.google.errorprone.matchers.Matchers;
 import com.sun.source.tree.MethodTree;
 import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
 
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.lang.model.element.Modifier;
@@ -58,7 +61,15 @@ import javax.lang.model.element.Modifier;
         " like \"disabledTestSomething()\". You don't need @Test annotation, but if you want to" +
         " keep it, add @Ignore too.",
     category = JUNIT, maturity = MATURE, severity = ERROR)
-public class JUnit3TestNotRun extends BugChecker implements MethodTreeMatcher {
+public class JUnit3TestNotRun extends BugChecker implements MethodTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("junit.framework.TestCase");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   /*
    * Regular expression for test method name that is misspelled and should be replaced with "test".
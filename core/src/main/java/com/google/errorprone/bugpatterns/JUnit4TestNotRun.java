@@ -25,9 +25,11 @@ import static com.google.errorprone.matchers.Matchers.allOf;
 import static com.google.errorprone.matchers.Matchers.enclosingClass;
 import static com.google.errorprone.matchers.Matchers.not;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -37,6 +39,8 @@ import com.google.errorprone.matchers.Matchers;
 import com.sun.source.tree.MethodTree;
 import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
 
+import java.util.Set;
+
 import javax.lang.model.element.Modifier;
 
 /**
@@ -51,7 +55,15 @@ import javax.lang.model.element.Modifier;
         "If you intend for this test method not to run, please add both an @Test and an " +
         "@Ignore annotation to make it clear that you are purposely disabling it.",
     category = JUNIT, maturity = MATURE, severity = ERROR)
-public class JUnit4TestNotRun extends BugChecker implements MethodTreeMatcher {
+public class JUnit4TestNotRun extends BugChecker implements MethodTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("org.junit.runner.RunWith");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String JUNIT4_TEST_ANNOTATION = "org.junit.Test";
   private static final JUnit4TestClassMatcher isJUnit4TestClass = new JUnit4TestClassMatcher();
@@ -24,14 +24,18 @@ import static com.google.errorprone.matchers.JUnitMatchers.hasJUnit4TestCases;
 import static com.google.errorprone.matchers.JUnitMatchers.isTestCaseDescendant;
 import static com.google.errorprone.matchers.Matchers.allOf;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 
 import com.sun.source.tree.ClassTree;
 
+import java.util.Set;
+
 /**
  * @author mwacker@google.com (Mike Wacker)
  */
@@ -41,7 +45,15 @@ import com.sun.source.tree.ClassTree;
     explanation = "The test class could execute either as a JUnit 3 class or a JUnit 4 class, "
         + "and tests could behave differently depending on whether it runs in JUnit 3 or JUnit 4. ",
     category = JUNIT, maturity = EXPERIMENTAL, severity = WARNING)
-public class JUnitAmbiguousTestClass extends BugChecker implements ClassTreeMatcher {
+public class JUnitAmbiguousTestClass extends BugChecker implements ClassTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("junit.framework.TestCase");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final Matcher<ClassTree> matcher = allOf(
       isTestCaseDescendant,
@@ -23,6 +23,7 @@ import static com.google.errorprone.matchers.Matchers.anyOf;
 import static com.google.errorprone.matchers.Matchers.isDescendantOfMethod;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.errorprone.BugPattern;
@@ -45,7 +46,6 @@ import com.sun.tools.javac.tree.JCTree.JCLiteral;
 import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
 
 import edu.umd.cs.findbugs.formatStringChecker.ExtraFormatArgumentsException;
-import edu.umd.cs.findbugs.formatStringChecker.Formatter;
 
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -154,9 +154,10 @@ public class MalformedFormatString extends BugChecker implements MethodInvocatio
       argTypes.add(getFormatterType(type));
     }
 
-    try {
-      Formatter.check(formatString, argTypes.toArray(new String[0]));
-    } catch (ExtraFormatArgumentsException e) {
+    Optional<Exception> error =
+        FormatStringCache.instance(state).printfError(formatString, argTypes);
+    if (error.isPresent() && error.get() instanceof ExtraFormatArgumentsException) {
+      ExtraFormatArgumentsException e = (ExtraFormatArgumentsException) error.get();
       int begin = state.getEndPosition((JCExpression) allArgs.get(formatIndex + e.used));
       int end = state.getEndPosition((JCMethodInvocation) tree);
       if (end < 0) {
@@ -168,9 +169,8 @@ public class MalformedFormatString extends BugChecker implements MethodInvocatio
           .setMessage(message)
           .addFix(fix)
           .build();
-    } catch (Exception e) {
-      // TODO(user): provide fixes for other problems
     }
+    // TODO(user): provide fixes for other problems
     return Description.NO_MATCH;
   }
 }
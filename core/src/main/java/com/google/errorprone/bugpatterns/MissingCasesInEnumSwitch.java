@@ -35,6 +35,7 @@ import com.sun.tools.javac.tree.JCTree.JCSwitch;
 
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Set;
 
 import javax.lang.model.element.ElementKind;
 
@@ -62,7 +63,7 @@ public class MissingCasesInEnumSwitch extends BugChecker
     }
 
     LinkedHashSet<String> unhandled =
-        setDifference(ASTHelpers.enumValues(switchType), collectEnumSwitchCases(tree));
+        setDifference(ASTHelpers.enumValues(switchType, state), collectEnumSwitchCases(tree));
     if (unhandled.isEmpty()) {
       return Description.NO_MATCH;
     }
@@ -120,7 +121,7 @@ public class MissingCasesInEnumSwitch extends BugChecker
   }
 
   /** Return the difference of sets ax and bx. */
-  private static <T> LinkedHashSet<T> setDifference(LinkedHashSet<T> ax, LinkedHashSet<T> bx) {
+  private static <T> LinkedHashSet<T> setDifference(Set<T> ax, Set<T> bx) {
     LinkedHashSet<T> result = new LinkedHashSet<>(ax);
     result.removeAll(bx);
     return result;
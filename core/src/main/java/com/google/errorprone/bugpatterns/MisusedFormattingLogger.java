@@ -27,7 +27,9 @@ import static com.google.errorprone.matchers.Matchers.isSubtypeOf;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
@@ -50,19 +52,15 @@ import com.sun.tools.javac.tree.JCTree.JCLiteral;
 import com.sun.tools.javac.tree.TreeMaker;
 
 import edu.umd.cs.findbugs.formatStringChecker.ExtraFormatArgumentsException;
-import edu.umd.cs.findbugs.formatStringChecker.Formatter;
-import edu.umd.cs.findbugs.formatStringChecker.FormatterException;
 
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.FormatFlagsConversionMismatchException;
 import java.util.HashSet;
-import java.util.IllegalFormatException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
 
 import javax.lang.model.type.TypeKind;
@@ -185,6 +183,7 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
   private Description checkFormatString(
       MethodInvocationTree tree, VisitorState state, FormatParameters parameters) {
 
+    FormatStringCache cache = FormatStringCache.instance(state);
     List<String> errors = new ArrayList<>();
     int formatIndex = parameters.getFormatIndex();
     List<? extends ExpressionTree> args = tree.getArguments();
@@ -203,25 +202,21 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
     }
 
     // Automatically switch method if this is the wrong type of format string
-    boolean rewriteMethod = changeFormatTypeIfRequired(parameters, formatString);
+    boolean rewriteMethod = changeFormatTypeIfRequired(parameters, formatString, cache);
     if (rewriteMethod) {
         errors.add("uses the wrong method for the format type");
     }
 
-    Exception formatException = null;
-    try {
-      if (parameters.getType() == FormatType.MESSAGEFORMAT) {
-        new MessageFormat(formatString);
-      } else if (parameters.getType() == FormatType.PRINTF) {
-        verifyPrintf(tree, parameters);
-      }
-    } catch (Exception e) {
-      formatException = e;
+    Optional<Exception> formatException = Optional.absent();
+    if (parameters.getType() == FormatType.MESSAGEFORMAT) {
+      formatException = cache.messageFormatError(formatString);
+    } else if (parameters.getType() == FormatType.PRINTF) {
+      formatException = verifyPrintf(tree, parameters, cache);
     }
-    if (formatException != null) {
+    if (formatException.isPresent()) {
       String customMessage = "Format string is invalid";
-      if (formatException.getMessage() != null) {
-        customMessage += ": " + formatException.getMessage();
+      if (formatException.get().getMessage() != null) {
+        customMessage += ": " + formatException.get().getMessage();
       }
       return buildDescription(tree)
           .setMessage(customMessage)
@@ -229,7 +224,8 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
     }
 
     // Are there format string references that aren't provided?
-    Set<Integer> referencedArguments = getReferencedArguments(parameters.getType(), formatString);
+    Set<Integer> referencedArguments =
+        getReferencedArguments(parameters.getType(), formatString, cache);
     if (referencesUnspecifiedArguments(referencedArguments, formatArguments.size())) {
       return describeMatch(tree);
     }
@@ -243,7 +239,7 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
 
       if (hasQuotedArguments(formatString)) {
         Set<Integer> updatedReferences =
-            getReferencedArguments(parameters.getType(), quotedString);
+            getReferencedArguments(parameters.getType(), quotedString, cache);
 
         if (updatedReferences.size() > referencedArguments.size()) {
           formatString = quotedString;
@@ -342,9 +338,9 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
   }
 
   // Run the FindBugs checker on the string, to catch anything we don't currently detect.
-  private void verifyPrintf(MethodInvocationTree tree, FormatParameters parameters)
-      throws FormatFlagsConversionMismatchException, IllegalFormatException, FormatterException {
-     List<? extends ExpressionTree> args = tree.getArguments();
+  private Optional<Exception> verifyPrintf(
+      MethodInvocationTree tree, FormatParameters parameters, FormatStringCache cache) {
+    List<? extends ExpressionTree> args = tree.getArguments();
 
     JCLiteral format = (JCLiteral) args.get(parameters.getFormatIndex());
     String formatString = (String) format.getValue();
@@ -355,11 +351,11 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
       argTypes.add(getFormatterType(type));
     }
 
-    try {
-      Formatter.check(formatString, argTypes.toArray(new String[0]));
-    } catch (ExtraFormatArgumentsException e) {
-      return; // We can handle this.
+    Optional<Exception> error = cache.printfError(formatString, argTypes);
+    if (error.isPresent() && error.get() instanceof ExtraFormatArgumentsException) {
+      return Optional.absent(); // We can handle this.
     }
+    return error;
   }
 
   private boolean referencesUnspecifiedArguments(Set<Integer> usedReferences, int argumentCount) {
@@ -381,14 +377,20 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
         builder.substring(0, builder.length() - separator.length());
   }
 
-  private Set<Integer> getReferencedArguments(FormatType type, String string) {
-    if (type == FormatType.PRINTF) {
-      return getReferencedArgumentsP(string);
-    } else if (type == FormatType.MESSAGEFORMAT) {
-      return getReferencedArgumentsM(string);
-    } else {
-      throw new IllegalArgumentException();
-    }
+  private Set<Integer> getReferencedArguments(
+      final FormatType type, final String string, FormatStringCache cache) {
+    return cache.get(type, string, new Callable<Set<Integer>>() {
+      @Override
+      public Set<Integer> call() {
+        if (type == FormatType.PRINTF) {
+          return ImmutableSet.copyOf(getReferencedArgumentsP(string));
+        } else if (type == FormatType.MESSAGEFORMAT) {
+          return ImmutableSet.copyOf(getReferencedArgumentsM(string));
+        } else {
+          throw new IllegalArgumentException();
+        }
+      }
+    });
   }
 
   private Set<Integer> getReferencedArgumentsP(String str) {
@@ -484,28 +486,21 @@ public class MisusedFormattingLogger extends BugChecker implements MethodInvocat
 
   /** Change the FormattingParameters to a different format type if the format string
    * doesn't match the method's expected input. Returns true if a change was made. */
-  private boolean changeFormatTypeIfRequired(FormatParameters parameters, String formatString) {
-    if (parameters.getType() == FormatType.MESSAGEFORMAT
-        && !mayBeMessageFormat(formatString) && mayBePrintfFormat(formatString)) {
+  private boolean changeFormatTypeIfRequired(
+      FormatParameters parameters, String formatString, FormatStringCache cache) {
+    boolean mayBePrintf = cache.find(printfGroup, formatString);
+    boolean mayBeMessageFormat = cache.find(messageFormatGroup, formatString);
+    if (parameters.getType() == FormatType.MESSAGEFORMAT && !mayBeMessageFormat && mayBePrintf) {
       parameters.setType(FormatType.PRINTF);
       return true;
     }
-    if (parameters.getType() == FormatType.PRINTF
-        && !mayBePrintfFormat(formatString) && mayBeMessageFormat(formatString)) {
+    if (parameters.getType() == FormatType.PRINTF && !mayBePrintf && mayBeMessageFormat) {
       parameters.setType(FormatType.MESSAGEFORMAT);
       return true;
     }
     return false;
   }
 
-  private boolean mayBePrintfFormat(String formatString) {
-    return printfGroup.matcher(formatString).find();
-  }
-
-  private boolean mayBeMessageFormat(String formatString) {
-    return messageFormatGroup.matcher(formatString).find();
-  }
-
   private static class FormatParameters {
     private FormatType type;
     private int formatIndex;
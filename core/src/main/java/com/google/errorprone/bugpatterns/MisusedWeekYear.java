@@ -25,8 +25,10 @@ import static com.google.errorprone.matchers.Matchers.isSameType;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.NewClassTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -42,6 +44,8 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.tools.javac.tree.JCTree;
 
+import java.util.Set;
+
 /**
  * Ban use of YYYY in a SimpleDateFormat pattern, unless it is being used for a week date.
  * Otherwise the user almost certainly meant yyyy instead.  See the summary in the {@link
@@ -62,7 +66,15 @@ import com.sun.tools.javac.tree.JCTree;
         + "a week date, you should use the year specifier \"yyyy\" instead.",
     category = JDK, severity = ERROR, maturity = MATURE)
 public class MisusedWeekYear extends BugChecker
-    implements MethodInvocationTreeMatcher, NewClassTreeMatcher {
+    implements MethodInvocationTreeMatcher, InterestingMethodNames, NewClassTreeMatcher {
+
+  private static final ImmutableSet<String> METHOD_NAMES =
+      ImmutableSet.of("applyPattern", "applyLocalizedPattern");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   private static final Matcher<NewClassTree> simpleDateFormatConstructorMatcher =
       Matchers.<NewClassTree>anyOf(
@@ -32,12 +32,15 @@ import static com.sun.source.tree.Tree.Kind.MEMBER_SELECT;
 import static com.sun.source.tree.Tree.Kind.METHOD;
 import static com.sun.source.tree.Tree.Kind.VARIABLE;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.EditDistance;
@@ -54,6 +57,8 @@ import com.sun.tools.javac.tree.JCTree.JCIdent;
 import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
 import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
 
+import java.util.Set;
+
 /**
  * @author scottjohnson@google.com (Scott Johnson)
  */
@@ -64,7 +69,18 @@ import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
         "and collection.removeAll(collection) is equivalent to collection.clear().",
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
 public class ModifyingCollectionWithItself extends BugChecker
-    implements MethodInvocationTreeMatcher {
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES =
+      ImmutableSet.of("addAll", "removeAll", "containsAll", "retainAll");
+
+  private static final Matcher<MethodInvocationTree> REMOVE_ALL =
+      methodSelect(instanceMethod(Matchers.<ExpressionTree>anything(), "removeAll"));
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   /**
    * Matches calls to addAll, containsAll, removeAll, and retainAll on itself
@@ -112,8 +128,7 @@ public class ModifyingCollectionWithItself extends BugChecker
     
     // default fix for methods
     Fix fix = SuggestedFix.delete(parent);
-    if (methodSelect(instanceMethod(Matchers.<ExpressionTree>anything(), "removeAll"))
-        .matches(methodInvocationTree, state)) {
+    if (REMOVE_ALL.matches(methodInvocationTree, state)) {
       fix = SuggestedFix.replace(methodInvocationTree, lhs + ".clear()");
     }
 
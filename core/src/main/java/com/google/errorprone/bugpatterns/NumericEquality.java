@@ -18,6 +18,7 @@ import static com.google.errorprone.BugPattern.Category.JDK;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.allOf;
+import static com.google.errorprone.matchers.Matchers.allOfReorderable;
 import static com.google.errorprone.matchers.Matchers.anyOf;
 import static com.google.errorprone.matchers.Matchers.binaryTree;
 import static com.google.errorprone.matchers.Matchers.isSubtypeOf;
@@ -51,8 +52,9 @@ import com.sun.tools.javac.code.Symbol;
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
 public class NumericEquality extends BugChecker implements BinaryTreeMatcher {
 
+  // The kind test is cheaper than the subtype test and doesn't depend on it.
   public static final Matcher<ExpressionTree> SUBCLASS_OF_NUMBER =
-      allOf(isSubtypeOf("java.lang.Number"), not(kindIs(Tree.Kind.NULL_LITERAL)));
+      allOfReorderable(isSubtypeOf("java.lang.Number"), not(kindIs(Tree.Kind.NULL_LITERAL)));
   public static final Matcher<BinaryTree> MATCHER = allOf(
       anyOf(kindIs(EQUAL_TO), kindIs(NOT_EQUAL_TO)),
       binaryTree(SUBCLASS_OF_NUMBER, SUBCLASS_OF_NUMBER));
@@ -25,9 +25,12 @@ import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 import static com.sun.source.tree.Tree.Kind.STRING_LITERAL;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -38,6 +41,7 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author alexeagle@google.com (Alex Eagle)
@@ -51,7 +55,23 @@ import java.util.List;
         "never actually checked for nullity. This check ensures that the first argument to " +
         "Preconditions.checkNotNull() is not a literal.",
     category = GUAVA, severity = ERROR, maturity = MATURE)
-public class PreconditionsCheckNotNull extends BugChecker implements MethodInvocationTreeMatcher {
+public class PreconditionsCheckNotNull extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.common.base.Preconditions");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("checkNotNull");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   @SuppressWarnings({"unchecked"})
   private static final Matcher<MethodInvocationTree> matcher = allOf(
@@ -25,9 +25,12 @@ import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -79,7 +82,23 @@ import java.util.Set;
         "Preconditions.checkArgument() instead.",
     category = GUAVA, severity = ERROR, maturity = MATURE)
 public class PreconditionsCheckNotNullPrimitive
-    extends BugChecker implements MethodInvocationTreeMatcher {
+    extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.common.base.Preconditions");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("checkNotNull");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   @Override
   public Description matchMethodInvocation(MethodInvocationTree methodInvocationTree, VisitorState state) {
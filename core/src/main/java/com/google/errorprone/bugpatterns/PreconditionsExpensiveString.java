@@ -26,9 +26,12 @@ import static com.google.errorprone.matchers.Matchers.expressionMethodSelect;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
@@ -40,6 +43,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree.Kind;
 
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -60,7 +64,24 @@ import java.util.regex.Pattern;
         "are not constructed using expensive methods that are evaluated eagerly.",
     category = GUAVA, severity = WARNING, maturity = EXPERIMENTAL)
 public class PreconditionsExpensiveString
-    extends BugChecker implements MethodInvocationTreeMatcher {
+    extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.common.base.Preconditions");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
+  private static final ImmutableSet<String> METHOD_NAMES =
+      ImmutableSet.of("checkNotNull", "checkState", "checkArgument");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   @SuppressWarnings({"vararg", "unchecked"})
   private static final Matcher<MethodInvocationTree> matcher = allOf(
@@ -20,9 +20,12 @@ import static com.google.errorprone.BugPattern.Category.GUAVA;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -33,6 +36,7 @@ import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree;
 
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -47,7 +51,23 @@ import java.util.regex.Pattern;
         + "%s placeholders.",
     category = GUAVA, maturity = MATURE, severity = WARNING)
 public class PreconditionsInvalidPlaceholder extends BugChecker
-    implements MethodInvocationTreeMatcher {
+    implements MethodInvocationTreeMatcher, InterestingMethodNames, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.common.base.Preconditions");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
+  private static final ImmutableSet<String> METHOD_NAMES =
+      ImmutableSet.of("checkArgument", "checkNotNull", "checkState");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   private static final
       Matcher<MethodInvocationTree> PRECONDITIONS_CHECK = Matchers.methodSelect(
@@ -73,7 +93,7 @@ public class PreconditionsInvalidPlaceholder extends BugChecker
         String formatString = (String) formatStringTree.getValue();
         int expectedArgs = expectedArguments(formatString);
         if (expectedArgs < t.getArguments().size() - 2
-            && BAD_PLACEHOLDER_REGEX.matcher(formatString).find()) {
+            && FormatStringCache.instance(state).find(BAD_PLACEHOLDER_REGEX, formatString)) {
           return describe(t, state);
         }
       }
@@ -20,9 +20,11 @@ import static com.google.errorprone.BugPattern.Category.ONE_OFF;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.BinaryTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -47,7 +49,16 @@ import java.util.Set;
         + "If you meant to check whether an optional field has been set, you should use the "
         + "hasField() method instead.",
     category = ONE_OFF, severity = ERROR, maturity = MATURE)
-public class ProtoFieldNullComparison extends BugChecker implements BinaryTreeMatcher {
+public class ProtoFieldNullComparison extends BugChecker
+    implements BinaryTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.protobuf.GeneratedMessage");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String PROTO_SUPER_CLASS = "com.google.protobuf.GeneratedMessage";
 
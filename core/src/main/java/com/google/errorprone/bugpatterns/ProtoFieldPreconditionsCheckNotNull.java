@@ -25,9 +25,12 @@ import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.parentNode;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -40,6 +43,8 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 
+import java.util.Set;
+
 /**
  * @author awturner@google.com (Andy Turner)
  */
@@ -54,7 +59,23 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
         + "hasField() method instead.",
     category = GUAVA, severity = WARNING, maturity = MATURE)
 public class ProtoFieldPreconditionsCheckNotNull
-    extends BugChecker implements MethodInvocationTreeMatcher {
+    extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.protobuf.GeneratedMessage");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("checkNotNull");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   private static final String PROTO_SUPER_CLASS = "com.google.protobuf.GeneratedMessage";
 
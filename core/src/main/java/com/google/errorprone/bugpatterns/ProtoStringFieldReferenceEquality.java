@@ -25,9 +25,11 @@ import static com.google.errorprone.matchers.Matchers.isSameType;
 import static com.google.errorprone.matchers.Matchers.isSubtypeOf;
 import static com.google.errorprone.matchers.Matchers.methodReceiver;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.BinaryTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -37,13 +39,24 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.tools.javac.tree.JCTree;
 
+import java.util.Set;
+
 @BugPattern(category = ONE_OFF, maturity = EXPERIMENTAL,
     name = "ProtoStringFieldReferenceEquality", severity = ERROR,
     summary = "Comparing protobuf fields of type String using reference equality",
     explanation = "Comparing strings with == is almost always an error, but it is an error 100% "
         + "of the time when one of the strings is a protobuf field.  Additionally, protobuf "
         + "fields cannot be null, so Object.equals(Object) is always more correct.")
-public class ProtoStringFieldReferenceEquality extends BugChecker implements BinaryTreeMatcher {
+public class ProtoStringFieldReferenceEquality extends BugChecker
+    implements BinaryTreeMatcher, TriggerTypes {
+
+  private static final ImmutableSet<String> TRIGGER_TYPES =
+      ImmutableSet.of("com.google.protobuf.GeneratedMessage");
+
+  @Override
+  public Set<String> triggerTypes() {
+    return TRIGGER_TYPES;
+  }
 
   private static final String PROTO_SUPER_CLASS = "com.google.protobuf.GeneratedMessage";
 
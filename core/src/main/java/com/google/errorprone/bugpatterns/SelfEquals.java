@@ -25,8 +25,10 @@ import static com.google.errorprone.matchers.Matchers.receiverSameAsArgument;
 import static com.google.errorprone.matchers.Matchers.sameArgument;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -46,6 +48,7 @@ import com.sun.tools.javac.tree.JCTree.JCStatement;
 import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author alexeagle@google.com (Alex Eagle)
@@ -56,7 +59,15 @@ import java.util.List;
         "The arguments to this equal method are the same object, so it always returns " +
         "true.  Either change the arguments to point to different objects or substitute true.",
     category = GUAVA, severity = ERROR, maturity = MATURE)
-public class SelfEquals extends BugChecker implements MethodInvocationTreeMatcher {
+public class SelfEquals extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("equal", "equals");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   /**
    * Matches calls to the Guava method Objects.equal() in which the two arguments are
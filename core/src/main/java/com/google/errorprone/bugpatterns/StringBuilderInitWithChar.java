@@ -14,6 +14,7 @@
 
 package com.google.errorprone.bugpatterns;
 
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
@@ -43,7 +44,8 @@ import javax.lang.model.type.TypeKind;
     "StringBuilder does not have a char constructor, so instead this code creates "
     + "a StringBuilder with initial size equal to the code point of the specified char.",
     maturity = MATURE, name = "StringBuilderInitWithChar", severity = ERROR,
-    summary = "StringBuilder does not have a char constructor; this invokes the int constructor.")
+    summary = "StringBuilder does not have a char constructor; this invokes the int constructor.",
+    cost = CHEAP)
 public class StringBuilderInitWithChar extends BugChecker implements NewClassTreeMatcher {
   @Override
   public Description matchNewClass(NewClassTree tree, VisitorState state) {
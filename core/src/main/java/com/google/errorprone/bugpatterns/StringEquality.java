@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.EXPENSIVE;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.dataflow.nullnesspropagation.Nullness.NONNULL;
@@ -50,7 +51,7 @@ import com.sun.tools.javac.tree.JCTree;
     summary = "String comparison using reference equality instead of value equality",
     explanation = "Strings are compared for reference equality/inequality using == or !="
         + "instead of for value equality using .equals()",
-    category = JDK, severity = WARNING, maturity = MATURE)
+    category = JDK, severity = WARNING, maturity = MATURE, cost = EXPENSIVE)
 public class StringEquality extends BugChecker implements BinaryTreeMatcher {
 
   private final NullnessAnalysis nullnessAnalysis = new NullnessAnalysis();
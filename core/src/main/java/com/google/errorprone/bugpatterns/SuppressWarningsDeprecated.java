@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.CHEAP;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.allOf;
@@ -45,7 +46,7 @@ import java.util.List;
     "`@SuppressWarnings(\"deprecation\")`\n" +
     "and not\n" +
     "`@SuppressWarnings(\"deprecated\")`",
-  category = JDK, severity = ERROR, maturity = MATURE)
+  category = JDK, severity = ERROR, maturity = MATURE, cost = CHEAP)
 public class SuppressWarningsDeprecated extends AbstractSuppressWarningsMatcher {
 
   @SuppressWarnings({"varargs", "unchecked"})
@@ -24,8 +24,10 @@ import static com.google.errorprone.matchers.Matchers.isDescendantOfMethod;
 import static com.google.errorprone.matchers.Matchers.methodSelect;
 import static com.google.errorprone.matchers.Matchers.not;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -48,6 +50,7 @@ import com.sun.tools.javac.tree.JCTree.JCIf;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 /**
  * TODO(user): Doesn't handle the case that the enclosing method is intended to be called
@@ -66,7 +69,15 @@ import java.util.List;
         "[http://docs.oracle.com/javase/7/docs/api/java/lang/Object.html#wait() " +
         "the Javadoc for Object.wait()].",
     category = JDK, severity = WARNING, maturity = MATURE)
-public class WaitNotInLoop extends BugChecker implements MethodInvocationTreeMatcher {
+public class WaitNotInLoop extends BugChecker
+    implements MethodInvocationTreeMatcher, InterestingMethodNames {
+
+  private static final ImmutableSet<String> METHOD_NAMES = ImmutableSet.of("wait");
+
+  @Override
+  public Set<String> interestingMethodNames() {
+    return METHOD_NAMES;
+  }
 
   // Since some of the fixes have formatting problems, do not supply them unless explicitly enabled.
   private static final boolean SUPPLY_FIX = false;
@@ -18,6 +18,8 @@ package com.google.errorprone.bugpatterns.threadsafety;
 
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Optional;
+import com.google.errorprone.AnnotationFacts;
+import com.google.errorprone.AnnotationFacts.SymbolFacts;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 
@@ -52,6 +54,22 @@ public class GuardedByUtils {
     return null;
   }
 
+  /**
+   * Like {@link #getGuardValue(Tree)}, but answers from the facts files of other compilations if
+   * they cover the tree's symbol, so that the symbol is not completed.
+   */
+  static String getGuardValue(Tree tree, VisitorState state) {
+    Symbol sym = ASTHelpers.getSymbol(tree);
+    if (sym != null) {
+      Optional<SymbolFacts> facts =
+          AnnotationFacts.instance(state.context).lookup(sym, state.getTypes());
+      if (facts.isPresent()) {
+        return facts.get().guardedBy();
+      }
+    }
+    return getGuardValue(tree);
+  }
+
   public static JCTree.JCExpression parseString(String guardedByString, Context context) {
     JavacParser parser =
         ParserFactory.instance(context).newParser(guardedByString, false, true, false);
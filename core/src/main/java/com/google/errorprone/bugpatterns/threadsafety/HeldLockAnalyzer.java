@@ -177,7 +177,7 @@ public class HeldLockAnalyzer {
     }
 
     private void checkMatch(ExpressionTree tree, HeldLockSet locks) {
-      String guardString = GuardedByUtils.getGuardValue(tree);
+      String guardString = GuardedByUtils.getGuardValue(tree, visitorState);
       if (guardString == null) {
         return;
       }
@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns.threadsafety;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.EXPENSIVE;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
@@ -38,7 +39,7 @@ import java.util.Set;
     summary = "This method does not acquire the locks specified by its @LockMethod annotation",
     explanation = "Methods with the @LockMethod annotation are expected to acquire one or more"
     + " locks. The caller will hold the locks when the function finishes execution.",
-    category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
+    category = JDK, severity = ERROR, maturity = EXPERIMENTAL, cost = EXPENSIVE)
 public class LockMethodChecker extends AbstractLockMethodChecker {
 
   @Override
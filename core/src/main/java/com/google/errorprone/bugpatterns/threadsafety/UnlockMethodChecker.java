@@ -17,6 +17,7 @@
 package com.google.errorprone.bugpatterns.threadsafety;
 
 import static com.google.errorprone.BugPattern.Category.JDK;
+import static com.google.errorprone.BugPattern.Cost.EXPENSIVE;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
@@ -39,7 +40,7 @@ import java.util.Set;
     explanation = "Methods with the @UnlockMethod annotation are expected to release one or more"
     + " locks. The caller must hold the locks when the function is entered, and will not hold"
     + " them when it completes.",
-    category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
+    category = JDK, severity = ERROR, maturity = EXPERIMENTAL, cost = EXPENSIVE)
 public class UnlockMethodChecker extends AbstractLockMethodChecker {
 
   @Override
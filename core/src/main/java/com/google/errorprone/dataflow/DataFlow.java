@@ -106,6 +106,20 @@ public final class DataFlow {
             }
           });
 
+  /**
+   * Drops the cached control flow graph and analyses of the methods in {@code compilationUnit},
+   * so that the caches don't keep its tree reachable once it has been analyzed.
+   */
+  public static void releaseCaches(CompilationUnitTree compilationUnit) {
+    for (CFGParams key : cfgCache.asMap().keySet()) {
+      if (key.getMethodPath().getCompilationUnit() == compilationUnit) {
+        cfgCache.invalidate(key);
+        // The cached analyses are all of the cached control flow graph.
+        analysisCache.invalidateAll();
+      }
+    }
+  }
+
   // TODO(user), remove once we merge jdk8 specific's with core
   public static <T> TreePath findPathFromEnclosingNodeToTopLevel(TreePath path,
       Class<T> klass) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.internal;
+
+import static com.google.common.base.StandardSystemProperty.JAVA_HOME;
+import static com.google.common.base.StandardSystemProperty.PATH_SEPARATOR;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Properties;
+
+/**
+ * Locates the Application Class-Data Sharing archive generated for the error-prone jar by the
+ * {@code appcds} build profile, so that launchers which fork a JVM can start it from the archive.
+ *
+ * <p>Using the archive must be requested explicitly: error-prone runs on JDK 8, where archiving
+ * application classes needs the commercial features of the Oracle JDK, which are licensed
+ * separately for production use. The Ant adapter has a {@code classDataSharing} attribute,
+ * {@code -XepShards} workers use it if the compiling JVM is started with
+ * {@code -Derrorprone.appcds=true}, and the {@code appcds/error-prone} launcher if
+ * {@code ERRORPRONE_APPCDS=true} is set in the environment.
+ *
+ * <p>The archive is expected next to the jar that contains error-prone, with the same base name
+ * and a {@code .jsa} extension, e.g. {@code error_prone_core-2.0.2.jsa}. Next to it, a
+ * {@code .appcds} file records the {@code java.home} of the JVM that dumped the archive and the
+ * class path it was dumped with, which is the jar alone. Only the JVM that dumped an archive can
+ * map it, and only if its class path starts with the recorded one; so the archive is only used
+ * when the forked JVM is the one that dumped it, and the jar is then put first on its class
+ * path. The JVM is started with {@code -Xshare:auto}, so an archive that still cannot be mapped
+ * is ignored.
+ */
+public final class ClassDataSharing {
+
+  /** The system property that requests the archive for the JVMs forked by this one. */
+  public static final String ENABLED_PROPERTY = "errorprone.appcds";
+
+  private static final String ARCHIVE_EXTENSION = ".jsa";
+  private static final String SETTINGS_EXTENSION = ".appcds";
+
+  /** Returns whether the archive was requested with {@code -Derrorprone.appcds=true}. */
+  public static boolean requested() {
+    return Boolean.getBoolean(ENABLED_PROPERTY);
+  }
+
+  /**
+   * Returns the JVM flags that start a forked JVM from the archive for the jar containing
+   * {@code clazz}, or an empty list if there is no usable archive. The forked JVM's class path
+   * must be {@link #classPath adjusted} as well.
+   */
+  public static ImmutableList<String> jvmFlags(Class<?> clazz) {
+    Optional<File> jar = jar(clazz);
+    return jar.isPresent() ? jvmFlags(jar.get(), JAVA_HOME.value()) : ImmutableList.<String>of();
+  }
+
+  /**
+   * Returns {@code classPath} preceded by the jar containing {@code clazz}, so that the archive
+   * for the jar can be mapped, or {@code classPath} itself if there is no usable archive.
+   */
+  public static String classPath(Class<?> clazz, String classPath) {
+    Optional<File> jar = jar(clazz);
+    return jar.isPresent() ? classPath(jar.get(), JAVA_HOME.value(), classPath) : classPath;
+  }
+
+  static ImmutableList<String> jvmFlags(File jar, String javaHome) {
+    Optional<File> archive = findArchive(jar, javaHome);
+    if (!archive.isPresent()) {
+      return ImmutableList.of();
+    }
+    return ImmutableList.of(
+        "-XX:+UnlockCommercialFeatures",
+        "-XX:+UseAppCDS",
+        "-Xshare:auto",
+        "-XX:SharedArchiveFile=" + archive.get().getAbsolutePath());
+  }
+
+  static String classPath(File jar, String javaHome, String classPath) {
+    if (!findArchive(jar, javaHome).isPresent()) {
+      return classPath;
+    }
+    return jar.getAbsolutePath() + PATH_SEPARATOR.value() + classPath;
+  }
+
+  private static Optional<File> jar(Class<?> clazz) {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return Optional.absent();
+    }
+    try {
+      return Optional.of(new File(codeSource.getLocation().toURI()));
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return Optional.absent();
+    }
+  }
+
+  /**
+   * Returns the archive for {@code jar}, if one exists and its settings show that it was dumped
+   * by the JVM in {@code javaHome} with the jar as its class path.
+   */
+  static Optional<File> findArchive(File jar, String javaHome) {
+    String name = jar.getName();
+    if (!jar.isFile() || !name.endsWith(".jar")) {
+      return Optional.absent();
+    }
+    String base = name.substring(0, name.length() - ".jar".length());
+    File archive = new File(jar.getParentFile(), base + ARCHIVE_EXTENSION);
+    File settingsFile = new File(jar.getParentFile(), base + SETTINGS_EXTENSION);
+    if (!archive.isFile()) {
+      return Optional.absent();
+    }
+    Properties settings = new Properties();
+    try (InputStream in = new FileInputStream(settingsFile)) {
+      settings.load(in);
+      String dumpJavaHome = settings.getProperty("java.home");
+      String dumpClassPath = settings.getProperty("class.path");
+      if (dumpJavaHome == null || dumpClassPath == null
+          || !sameFile(dumpJavaHome, javaHome) || !sameFile(dumpClassPath, jar.getPath())) {
+        return Optional.absent();
+      }
+    } catch (IOException e) {
+      return Optional.absent();
+    }
+    return Optional.of(archive);
+  }
+
+  private static boolean sameFile(String a, String b) throws IOException {
+    return new File(a).getCanonicalFile().equals(new File(b).getCanonicalFile());
+  }
+
+  private ClassDataSharing() {}
+}
@@ -16,6 +16,9 @@
 
 package com.google.errorprone.matchers;
 
+import com.google.common.base.Optional;
+import com.google.errorprone.AnnotationFacts;
+import com.google.errorprone.AnnotationFacts.SymbolFacts;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.annotations.CompileTimeConstant;
 import com.google.errorprone.util.ASTHelpers;
@@ -118,6 +121,12 @@ public class CompileTimeConstantExpressionMatcher implements Matcher<ExpressionT
 
   // default visibility, since this is also used by CompileTimeConstantTypeAnnotationChecker.
   public static boolean hasCompileTimeConstantAnnotation(VisitorState state, Symbol symbol) {
+    Optional<SymbolFacts> facts =
+        AnnotationFacts.instance(state.context).lookup(symbol, state.getTypes());
+    if (facts.isPresent()) {
+      return facts.get().isAnnotated(COMPILE_TIME_CONSTANT_ANNOTATION)
+          || facts.get().isAnnotated(GUAVA_COMPILE_TIME_CONSTANT_ANNOTATION);
+    }
     return hasAttribute(symbol, COMPILE_TIME_CONSTANT_ANNOTATION, state)
         || hasAttribute(symbol, GUAVA_COMPILE_TIME_CONSTANT_ANNOTATION, state);
   }
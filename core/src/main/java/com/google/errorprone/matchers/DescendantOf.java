@@ -24,13 +24,15 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Type;
 
+import java.util.Objects;
+
 /**
  * Matches an instance method that is a descendant of a method with the given class and
  * name.
  *
  * @author eaftan@google.com (Eddie Aftandilian)
  */
-public class DescendantOf implements Matcher<ExpressionTree> {
+public class DescendantOf implements Matcher<ExpressionTree>, MethodSymbolCache.SymbolMatcher {
   private final String fullClassName;
   private final String methodName;
 
@@ -50,7 +52,11 @@ public class DescendantOf implements Matcher<ExpressionTree> {
     if (sym.isStatic()) {
       return false;
     }
+    return MethodSymbolCache.matches(this, (MethodSymbol) sym, state);
+  }
 
+  @Override
+  public boolean matchesSymbol(MethodSymbol sym, VisitorState state) {
     if (methodName.equals(sym.toString())) {
       Type accessedReferenceType = sym.owner.type;
       Type collectionType = state.getTypeFromString(fullClassName);
@@ -62,4 +68,18 @@ public class DescendantOf implements Matcher<ExpressionTree> {
 
     return false;
   }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == null || obj.getClass() != getClass()) {
+      return false;
+    }
+    DescendantOf other = (DescendantOf) obj;
+    return fullClassName.equals(other.fullClassName) && methodName.equals(other.methodName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(fullClassName, methodName);
+  }
 }
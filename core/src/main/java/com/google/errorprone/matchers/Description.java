@@ -25,6 +25,7 @@ import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.fixes.Fix;
 
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
 
 import javax.annotation.CheckReturnValue;
@@ -84,11 +85,23 @@ public class Description {
    * Returns the message, not including the check name but including the link.
    */
   public String getMessageWithoutCheckName() {
+    return messageWithoutCheckName(rawMessage, link);
+  }
+
+  static String messageWithoutCheckName(String rawMessage, String link) {
     return link != null
         ? String.format("%s\n%s", rawMessage, link)
         : String.format("%s", rawMessage);
   }
 
+  /**
+   * Returns a copy of this description that refers to neither the tree of
+   * {@code compilationUnit}, which must contain the matched node, nor to the trees of its fixes.
+   */
+  public DetachedDescription detach(CompilationUnitTree compilationUnit) {
+    return DetachedDescription.of(this, rawMessage, link, compilationUnit);
+  }
+
   /** TODO(user): Remove this constructor and ensure that there's always a check name. */
   public Description(Tree node, String message, Fix suggestedFix,
                      BugPattern.SeverityLevel severity) {
@@ -113,6 +126,15 @@ public class Description {
     return new Description(node, checkName, rawMessage, link, fixes, severity);
   }
 
+  /**
+   * Returns a copy of this description with {@code note} appended to its message, before the
+   * link.
+   */
+  @CheckReturnValue
+  public Description appendToMessage(String note) {
+    return new Description(node, checkName, rawMessage + note, link, fixes, severity);
+  }
+
   /**
    * Construct the link text to include in the compiler error message. Returns null if there is
    * no link.
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.matchers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.Fix;
+import com.google.errorprone.fixes.Replacement;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.tools.javac.tree.EndPosTable;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+import com.sun.tools.javac.util.Position;
+
+/**
+ * A {@link Description} that has been detached from the source tree: the matched node is resolved
+ * to offsets, a line and a column, and the fixes to the replacements they make.  Listeners that
+ * collect findings should keep these instead of descriptions, which keep the trees of the whole
+ * compilation unit reachable.  The message is only formatted when it is asked for.
+ */
+public final class DetachedDescription {
+
+  /** A suggested fix, as the replacements it makes and the imports it adds and removes. */
+  public static final class DetachedFix {
+    /** The replacements, in the order {@link Fix#getReplacements} returns them. */
+    public final ImmutableList<Replacement> replacements;
+    public final ImmutableList<String> importsToAdd;
+    public final ImmutableList<String> importsToRemove;
+
+    private DetachedFix(ImmutableList<Replacement> replacements,
+        ImmutableList<String> importsToAdd, ImmutableList<String> importsToRemove) {
+      this.replacements = replacements;
+      this.importsToAdd = importsToAdd;
+      this.importsToRemove = importsToRemove;
+    }
+  }
+
+  /** The name of the check that produced the match. */
+  public final String checkName;
+  public final SeverityLevel severity;
+  /** The name of the source file, as given by {@link javax.tools.FileObject#getName}. */
+  public final String sourceFile;
+  /**
+   * The character offsets of the matched node in the source file, or {@link Position#NOPOS} if
+   * they are unknown.  The preferred position is where the finding is reported.
+   */
+  public final int startPosition;
+  public final int preferredPosition;
+  public final int endPosition;
+  /** The 1-based line and column of the preferred position, or {@link Position#NOPOS}. */
+  public final int line;
+  public final int column;
+  /** The fixes, in order of decreasing preference. */
+  public final ImmutableList<DetachedFix> fixes;
+
+  private final String rawMessage;
+  private final String link;
+
+  private DetachedDescription(String checkName, SeverityLevel severity, String sourceFile,
+      int startPosition, int preferredPosition, int endPosition, int line, int column,
+      ImmutableList<DetachedFix> fixes, String rawMessage, String link) {
+    this.checkName = checkName;
+    this.severity = severity;
+    this.sourceFile = sourceFile;
+    this.startPosition = startPosition;
+    this.preferredPosition = preferredPosition;
+    this.endPosition = endPosition;
+    this.line = line;
+    this.column = column;
+    this.fixes = fixes;
+    this.rawMessage = rawMessage;
+    this.link = link;
+  }
+
+  static DetachedDescription of(Description description, String rawMessage, String link,
+      CompilationUnitTree compilationUnit) {
+    EndPosTable endPositions = ((JCCompilationUnit) compilationUnit).endPositions;
+    DiagnosticPosition position = (DiagnosticPosition) description.node;
+    int startPosition = position.getStartPosition();
+    int preferredPosition = position.getPreferredPosition();
+    int endPosition = endPositions != null
+        ? position.getEndPosition(endPositions) : Position.NOPOS;
+    int line = Position.NOPOS;
+    int column = Position.NOPOS;
+    LineMap lineMap = compilationUnit.getLineMap();
+    if (lineMap != null && preferredPosition != Position.NOPOS) {
+      line = (int) lineMap.getLineNumber(preferredPosition);
+      column = (int) lineMap.getColumnNumber(preferredPosition);
+    }
+    ImmutableList.Builder<DetachedFix> fixes = ImmutableList.builder();
+    for (Fix fix : description.fixes) {
+      fixes.add(new DetachedFix(
+          ImmutableList.copyOf(fix.getReplacements(endPositions)),
+          ImmutableList.copyOf(fix.getImportsToAdd()),
+          ImmutableList.copyOf(fix.getImportsToRemove())));
+    }
+    return new DetachedDescription(description.checkName, description.severity,
+        compilationUnit.getSourceFile().getName(), startPosition, preferredPosition, endPosition,
+        line, column, fixes.build(), rawMessage, link);
+  }
+
+  /**
+   * Returns the message to be printed by the compiler when a match is found in interactive use.
+   * Includes the name of the check and a link for more information.
+   */
+  public String getMessage() {
+    return String.format("[%s] %s", checkName, getMessageWithoutCheckName());
+  }
+
+  /** Returns the message, not including the check name but including the link. */
+  public String getMessageWithoutCheckName() {
+    return Description.messageWithoutCheckName(rawMessage, link);
+  }
+}
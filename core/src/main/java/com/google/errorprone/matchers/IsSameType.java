@@ -21,7 +21,6 @@ import com.google.errorprone.suppliers.Supplier;
 
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Type;
-import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.tree.JCTree;
 
 /**
@@ -47,9 +46,8 @@ public class IsSameType<T extends Tree> extends AbstractTypeMatcher<T> {
 
   @Override
   public boolean matches(T tree, VisitorState state) {
-    Types types = state.getTypes();
     Type typeToCompare = typeToCompareSupplier.get(state);
     return (typeToCompare != null &&
-        types.isSameType(((JCTree) tree).type, typeToCompare));
+        TypeRelationCache.instance(state).isSameType(((JCTree) tree).type, typeToCompare));
   }
 }
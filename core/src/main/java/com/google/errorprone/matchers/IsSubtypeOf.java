@@ -21,7 +21,6 @@ import com.google.errorprone.suppliers.Supplier;
 
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Type;
-import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.tree.JCTree;
 
 /**
@@ -47,9 +46,9 @@ public class IsSubtypeOf<T extends Tree> extends AbstractTypeMatcher<T> {
 
   @Override
   public boolean matches(T tree, VisitorState state) {
-    Types types = state.getTypes();
     Type typeToCompare = typeToCompareSupplier.get(state);
     return (typeToCompare != null &&
-        types.isSubtype(((JCTree) tree).type, types.erasure(typeToCompare)));
+        TypeRelationCache.instance(state)
+            .isSubtypeOfErasure(((JCTree) tree).type, typeToCompare));
   }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+/**
+ * How expensive a {@link Matcher} is to evaluate. {@link Matchers#allOfReorderable} and
+ * {@link Matchers#anyOfReorderable} evaluate cheaper sub-matchers first, so that most nodes are
+ * rejected before an expensive sub-matcher runs; {@link Matchers#allOf} and
+ * {@link Matchers#anyOf} keep the order they are given.
+ */
+public enum MatcherCost {
+  /** Inspects only the node itself, e.g. its kind. */
+  CHEAP,
+  /** Resolves symbols or compares types, e.g. a subtype test. The default for other matchers. */
+  MODERATE,
+  /** Analyzes more than the node itself, e.g. nullness dataflow over the enclosing method. */
+  EXPENSIVE;
+
+  /** Returns the cost of {@code matcher}, or {@link #MODERATE} if it does not declare one. */
+  public static MatcherCost of(Matcher<?> matcher) {
+    return matcher instanceof CostedMatcher
+        ? ((CostedMatcher<?>) matcher).cost()
+        : MODERATE;
+  }
+
+  /** Returns the more expensive of {@code this} and {@code other}. */
+  MatcherCost max(MatcherCost other) {
+    return compareTo(other) >= 0 ? this : other;
+  }
+}
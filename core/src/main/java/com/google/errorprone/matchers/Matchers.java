@@ -16,6 +16,8 @@
 
 package com.google.errorprone.matchers;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.dataflow.nullnesspropagation.Nullness;
 import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
@@ -55,6 +57,7 @@ import com.sun.tools.javac.tree.JCTree.JCIdent;
 import com.sun.tools.javac.tree.JCTree.JCNewClass;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -72,11 +75,100 @@ import javax.lang.model.element.NestingKind;
 public class Matchers {
   private Matchers() {}
 
+  /** Base class for matchers that only inspect the node itself. */
+  private abstract static class CheapMatcher<T extends Tree> implements CostedMatcher<T> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public MatcherCost cost() {
+      return MatcherCost.CHEAP;
+    }
+  }
+
+  /** A composite matcher, which costs as much as its most expensive component. */
+  private abstract static class CompositeMatcher<T extends Tree> implements CostedMatcher<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final MatcherCost cost;
+
+    CompositeMatcher(List<? extends Matcher<?>> matchers) {
+      MatcherCost cost = MatcherCost.CHEAP;
+      for (Matcher<?> matcher : matchers) {
+        cost = cost.max(MatcherCost.of(matcher));
+      }
+      this.cost = cost;
+    }
+
+    @Override
+    public MatcherCost cost() {
+      return cost;
+    }
+  }
+
+  private static final Comparator<Matcher<?>> BY_COST = new Comparator<Matcher<?>>() {
+    @Override
+    public int compare(Matcher<?> a, Matcher<?> b) {
+      return MatcherCost.of(a).compareTo(MatcherCost.of(b));
+    }
+  };
+
+  /**
+   * Returns a copy of {@code matchers} with the cheapest matchers first. Matchers of the same cost
+   * keep their relative order.
+   */
+  private static <M extends Matcher<?>> ImmutableList<M> cheapestFirst(List<M> matchers) {
+    return Ordering.from(BY_COST).immutableSortedCopy(matchers);
+  }
+
+  /**
+   * Shares the results of a pure matcher between all checkers that visit the same node.
+   *
+   * <p>The scanner hands every checker that visits a node the same {@link VisitorState}, and
+   * {@code matcher}'s result for each node is memoized there under {@code question}. Matchers with
+   * equal questions must therefore give the same answer for the same node: the question should
+   * identify the matcher and all of its parameters, e.g. {@code Arrays.asList("isSameType",
+   * "java.lang.String")}. Only memoize matchers whose result depends on nothing but the node and
+   * the compilation, and that cost more than a map lookup.
+   */
+  public static <T extends Tree> Matcher<T> memoized(Object question, Matcher<T> matcher) {
+    return new MemoizedMatcher<>(question, matcher);
+  }
+
+  /**
+   * Declares the cost of {@code matcher}, so that {@link #allOfReorderable} and
+   * {@link #anyOfReorderable} can evaluate it before or after its siblings.
+   */
+  public static <T extends Tree> Matcher<T> withCost(MatcherCost cost, Matcher<T> matcher) {
+    return new WithCost<>(cost, matcher);
+  }
+
+  private static class WithCost<T extends Tree> implements CostedMatcher<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final MatcherCost cost;
+    private final Matcher<T> matcher;
+
+    WithCost(MatcherCost cost, Matcher<T> matcher) {
+      this.cost = cost;
+      this.matcher = matcher;
+    }
+
+    @Override
+    public boolean matches(T t, VisitorState state) {
+      return matcher.matches(t, state);
+    }
+
+    @Override
+    public MatcherCost cost() {
+      return cost;
+    }
+  }
+
   /**
    * A matcher that matches any AST node.
    */
   public static <T extends Tree> Matcher<T> anything() {
-    return new Matcher<T>() {
+    return new CheapMatcher<T>() {
       @Override
       public boolean matches(T t, VisitorState state) {
         return true;
@@ -88,7 +180,7 @@ public class Matchers {
    * A matcher that matches no AST node.
    */
   public static <T extends Tree> Matcher<T> nothing() {
-    return new Matcher<T>() {
+    return new CheapMatcher<T>() {
       @Override
       public boolean matches(T t, VisitorState state) {
         return false;
@@ -100,7 +192,7 @@ public class Matchers {
    * Matches an AST node iff it does not match the given matcher.
    */
   public static <T extends Tree> Matcher<T> not(final Matcher<T> matcher) {
-    return new Matcher<T>() {
+    return new CompositeMatcher<T>(ImmutableList.of(matcher)) {
       @Override
       public boolean matches(T t, VisitorState state) {
         return !matcher.matches(t, state);
@@ -110,43 +202,109 @@ public class Matchers {
 
   /**
    * Compose several matchers together, such that the composite matches an AST node iff all the given matchers do.
+   * The matchers are evaluated in the order they are given, so earlier matchers can guard later
+   * ones.
    */
   @SafeVarargs
   public static <T extends Tree> Matcher<T> allOf(final Matcher<? super T>... matchers) {
-    return new Matcher<T>() {
-      @Override public boolean matches(T t, VisitorState state) {
-        for (Matcher<? super T> matcher : matchers) {
-          if (!matcher.matches(t, state)) {
-            return false;
-          }
+    // Copied element by element, so that the varargs array does not escape.
+    ImmutableList.Builder<Matcher<? super T>> copy = ImmutableList.builder();
+    for (Matcher<? super T> matcher : matchers) {
+      copy.add(matcher);
+    }
+    ImmutableList<Matcher<? super T>> inOrder = copy.build();
+    return new AllOf<>(inOrder);
+  }
+
+  /**
+   * Like {@link #allOf}, but evaluates the matchers cheapest first, see {@link MatcherCost}. Use it
+   * only for matchers that do not guard each other: any of them may run before, or without, the
+   * others.
+   */
+  @SafeVarargs
+  public static <T extends Tree> Matcher<T> allOfReorderable(Matcher<? super T>... matchers) {
+    ImmutableList.Builder<Matcher<? super T>> copy = ImmutableList.builder();
+    for (Matcher<? super T> matcher : matchers) {
+      copy.add(matcher);
+    }
+    ImmutableList<Matcher<? super T>> inOrder = copy.build();
+    return new AllOf<>(cheapestFirst(inOrder));
+  }
+
+  private static class AllOf<T extends Tree> extends CompositeMatcher<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final ImmutableList<Matcher<? super T>> ordered;
+
+    AllOf(ImmutableList<Matcher<? super T>> ordered) {
+      super(ordered);
+      this.ordered = ordered;
+    }
+
+    @Override public boolean matches(T t, VisitorState state) {
+      for (Matcher<? super T> matcher : ordered) {
+        if (!matcher.matches(t, state)) {
+          return false;
         }
-        return true;
       }
-    };
+      return true;
+    }
   }
 
   /**
    * Compose several matchers together, such that the composite matches an AST node if any of the given matchers do.
+   * The matchers are evaluated in the order they are given.
    */
   @SafeVarargs
   public static <T extends Tree> Matcher<T> anyOf(final Matcher<? super T>... matchers) {
-    return new Matcher<T>() {
-      @Override public boolean matches(T t, VisitorState state) {
-        for (Matcher<? super T> matcher : matchers) {
-          if (matcher.matches(t, state)) {
-            return true;
-          }
+    ImmutableList.Builder<Matcher<? super T>> copy = ImmutableList.builder();
+    for (Matcher<? super T> matcher : matchers) {
+      copy.add(matcher);
+    }
+    ImmutableList<Matcher<? super T>> inOrder = copy.build();
+    return new AnyOf<>(inOrder);
+  }
+
+  /**
+   * Like {@link #anyOf}, but evaluates the matchers cheapest first, see {@link MatcherCost}. Use it
+   * only for matchers that do not guard each other: any of them may run before, or without, the
+   * others.
+   */
+  @SafeVarargs
+  public static <T extends Tree> Matcher<T> anyOfReorderable(Matcher<? super T>... matchers) {
+    ImmutableList.Builder<Matcher<? super T>> copy = ImmutableList.builder();
+    for (Matcher<? super T> matcher : matchers) {
+      copy.add(matcher);
+    }
+    ImmutableList<Matcher<? super T>> inOrder = copy.build();
+    return new AnyOf<>(cheapestFirst(inOrder));
+  }
+
+  private static class AnyOf<T extends Tree> extends CompositeMatcher<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final ImmutableList<Matcher<? super T>> ordered;
+
+    AnyOf(ImmutableList<Matcher<? super T>> ordered) {
+      super(ordered);
+      this.ordered = ordered;
+    }
+
+    @Override public boolean matches(T t, VisitorState state) {
+      for (Matcher<? super T> matcher : ordered) {
+        if (matcher.matches(t, state)) {
+          return true;
         }
-        return false;
       }
-    };
+      return false;
+    }
   }
 
   /**
    * Matches if an AST node is an instance of the given class.
    */
   public static <T extends Tree> Matcher<T> isInstance(final java.lang.Class<?> klass) {
-    return new Matcher<T>() {
+    return new CheapMatcher<T>() {
       @Override
       public boolean matches(T t, VisitorState state) {
         return klass.isInstance(t);
@@ -158,7 +316,7 @@ public class Matchers {
    * Matches an AST node of a given kind, for example, an Annotation or a switch block.
    */
   public static <T extends Tree> Matcher<T> kindIs(final Kind kind) {
-    return new Matcher<T>() {
+    return new CheapMatcher<T>() {
       @Override public boolean matches(T tree, VisitorState state) {
         return tree.getKind() == kind;
       }
@@ -169,7 +327,7 @@ public class Matchers {
    * Matches an AST node which is the same object reference as the given node.
    */
    public static <T extends Tree> Matcher<T> isSame(final Tree t) {
-    return new Matcher<T>() {
+    return new CheapMatcher<T>() {
       @Override public boolean matches(T tree, VisitorState state) {
         return tree == t;
       }
@@ -334,7 +492,7 @@ public class Matchers {
    * @param typeStr a string representation of the type, e.g., "java.util.AbstractList"
    */
   public static <T extends Tree> Matcher<T> isSubtypeOf(String typeStr) {
-    return new IsSubtypeOf<>(typeStr);
+    return memoized(Arrays.asList("isSubtypeOf", typeStr), new IsSubtypeOf<T>(typeStr));
   }
 
   /**
@@ -361,7 +519,7 @@ public class Matchers {
    * @param typeString a string representation of the type, e.g., "java.util.Set"
    */
   public static <T extends Tree> Matcher<T> isCastableTo(String typeString) {
-    return new IsCastableTo<>(typeString);
+    return memoized(Arrays.asList("isCastableTo", typeString), new IsCastableTo<T>(typeString));
   }
 
   /**
@@ -397,7 +555,7 @@ public class Matchers {
    * @param typeString the type to check against
    */
   public static <T extends Tree> Matcher<T> isSameType(String typeString) {
-    return new IsSameType<>(typeString);
+    return memoized(Arrays.asList("isSameType", typeString), new IsSameType<T>(typeString));
   }
 
   /**
@@ -413,23 +571,23 @@ public class Matchers {
    * Matches an AST node if its type is an array type.
    */
   public static <T extends Tree> Matcher<T> isArrayType() {
-    return new Matcher<T>() {
+    return memoized("isArrayType", new Matcher<T>() {
       @Override public boolean matches(Tree t, VisitorState state) {
         return state.getTypes().isArray(((JCTree) t).type);
       }
-    };
+    });
   }
 
   /**
    * Matches an AST node if its type is a primitive array type.
    */
   public static <T extends Tree> Matcher<T> isPrimitiveArrayType() {
-    return new Matcher<T>() {
+    return memoized("isPrimitiveArrayType", new Matcher<T>() {
       @Override public boolean matches(Tree t, VisitorState state) {
         Type type = ((JCTree) t).type;
         return state.getTypes().isArray(type) && state.getTypes().elemtype(type).isPrimitive();
       }
-    };
+    });
   }
 
   /**
@@ -617,24 +775,7 @@ public class Matchers {
     return new Matcher<T>() {
       @Override
       public boolean matches (T tree, VisitorState state) {
-        Symbol sym = ASTHelpers.getSymbol(tree);
-        Symbol annotationSym = state.getSymbolFromString(annotationType);
-        Symbol inheritedSym = state.getSymtab().inheritedType.tsym;
-
-        if ((sym == null) || (annotationSym == null)) {
-          return false;
-        }
-        if ((sym instanceof ClassSymbol) && (annotationSym.attribute(inheritedSym) != null)) {
-          while (sym != null) {
-            if (sym.attribute(annotationSym) != null) {
-              return true;
-            }
-            sym = ((ClassSymbol) sym).getSuperclass().tsym;
-          }
-          return false;
-        } else {
-          return sym.attribute(annotationSym) != null;
-        }
+        return ASTHelpers.hasAnnotation(ASTHelpers.getSymbol(tree), annotationType, state);
       }
     };
   }
@@ -656,10 +797,10 @@ public class Matchers {
           return false;
         }
 
-        Set<MethodSymbol> allMethods = ASTHelpers.findSuperMethods(methodSym, state.getTypes());
-        allMethods.add(methodSym);
-
-        for (MethodSymbol method : allMethods) {
+        if (methodSym.attribute(annotationSym) != null) {
+          return true;
+        }
+        for (MethodSymbol method : ASTHelpers.findSuperMethods(methodSym, state)) {
           if (method.attribute(annotationSym) != null) {
             return true;
           }
@@ -742,7 +883,7 @@ public class Matchers {
    * @param prefix The prefix.
    */
   public static Matcher<MethodTree> methodNameStartsWith(final String prefix) {
-    return new Matcher<MethodTree>() {
+    return new CheapMatcher<MethodTree>() {
       @Override
       public boolean matches(MethodTree methodTree, VisitorState state) {
         return methodTree.getName().toString().startsWith(prefix);
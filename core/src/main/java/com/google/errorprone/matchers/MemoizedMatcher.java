@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+import com.google.common.base.Objects;
+import com.google.errorprone.VisitorState;
+
+import com.sun.source.tree.Tree;
+
+/**
+ * Memoizes the result of a pure matcher in the {@link VisitorState}, so that when several checkers
+ * ask the same question about the same node, only the first one pays for the answer.
+ *
+ * <p>Two memoized matchers share results if their questions are equal, so the question must
+ * identify everything the result depends on besides the node and the compilation, e.g. the name
+ * of the type a subtype test compares against.
+ */
+final class MemoizedMatcher<T extends Tree> implements CostedMatcher<T> {
+  private static final long serialVersionUID = 1L;
+
+  private final Object question;
+  private final Matcher<T> matcher;
+
+  MemoizedMatcher(Object question, Matcher<T> matcher) {
+    this.question = question;
+    this.matcher = matcher;
+  }
+
+  @Override
+  public boolean matches(T tree, VisitorState state) {
+    Key key = new Key(question, tree);
+    Boolean result = state.getMemoizedMatch(key);
+    if (result == null) {
+      result = matcher.matches(tree, state);
+      state.memoizeMatch(key, result);
+    }
+    return result;
+  }
+
+  @Override
+  public MatcherCost cost() {
+    return MatcherCost.of(matcher);
+  }
+
+  /** A question about a particular node. Nodes are compared by identity. */
+  private static final class Key {
+    private final Object question;
+    private final Tree tree;
+
+    Key(Object question, Tree tree) {
+      this.question = question;
+      this.tree = tree;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) obj;
+      return tree == that.tree && question.equals(that.question);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(question, System.identityHashCode(tree));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.util.CompilationScoped;
+
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.util.Context;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers, for the duration of one compilation, which method symbols satisfy the symbol-only
+ * part of a method matcher.
+ *
+ * <p>Method matchers such as {@link StaticMethod} compare class and method names as strings
+ * against the invoked symbol, and {@link DescendantOf} also runs a subtype test. The answer only
+ * depends on the symbol, so it is computed once per distinct callee and afterwards answered by
+ * an identity lookup.
+ *
+ * <p>Results are keyed by matcher <em>value</em>, so a {@link SymbolMatcher} must implement
+ * {@code equals} and {@code hashCode} over the fields that decide a match. Checkers that build
+ * a matcher inside each {@code match*} call then share one table, and the cache holds at most one
+ * table per distinct method descriptor however many matcher instances are created.
+ */
+final class MethodSymbolCache {
+
+  /**
+   * The symbol-only part of a method matcher. Implementations must have value equality; see
+   * {@link MethodSymbolCache}.
+   */
+  interface SymbolMatcher {
+    boolean matchesSymbol(MethodSymbol sym, VisitorState state);
+  }
+
+  private static final CompilationScoped<MethodSymbolCache> INSTANCE =
+      new CompilationScoped<MethodSymbolCache>() {
+        @Override
+        protected MethodSymbolCache create(Context context) {
+          return new MethodSymbolCache();
+        }
+      };
+
+  private final Map<SymbolMatcher, Map<MethodSymbol, Boolean>> results = new HashMap<>();
+
+  /**
+   * Returns whether {@code sym} satisfies {@code matcher}, evaluating the matcher only the first
+   * time it, or an equal matcher, sees {@code sym} in this compilation.
+   */
+  static boolean matches(SymbolMatcher matcher, MethodSymbol sym, VisitorState state) {
+    MethodSymbolCache cache = INSTANCE.get(state.context);
+    Map<MethodSymbol, Boolean> forMatcher = cache.results.get(matcher);
+    if (forMatcher == null) {
+      forMatcher = new IdentityHashMap<>();
+      cache.results.put(matcher, forMatcher);
+    }
+    Boolean result = forMatcher.get(sym);
+    if (result == null) {
+      result = matcher.matchesSymbol(sym, state);
+      forMatcher.put(sym, result);
+    }
+    return result;
+  }
+
+  /** Returns the number of distinct matchers with results cached for {@code context}. */
+  static int size(Context context) {
+    return INSTANCE.get(context).results.size();
+  }
+
+  private MethodSymbolCache() {}
+}
@@ -26,7 +26,7 @@ import com.sun.source.util.TreePath;
 /**
  * Matches an expression based on the result of the nullness dataflow analysis. 
  */
-public class NullnessMatcher implements Matcher<ExpressionTree> {
+public class NullnessMatcher implements CostedMatcher<ExpressionTree> {
   private final NullnessAnalysis nullnessAnalysis;
   private final Nullness expectedNullnessValue;
   
@@ -40,4 +40,9 @@ public class NullnessMatcher implements Matcher<ExpressionTree> {
     TreePath exprPath = new TreePath(state.getPath(), expr);
     return nullnessAnalysis.getNullness(exprPath, state.context) == expectedNullnessValue;
   }
+
+  @Override
+  public MatcherCost cost() {
+    return MatcherCost.EXPENSIVE;
+  }
 }
@@ -23,12 +23,17 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 
+import java.util.Objects;
+
 /**
  * Matches a static method expression.
  *
+ * <p>The class and method names are compared once per distinct method symbol in a compilation;
+ * see {@link MethodSymbolCache}.
+ *
  * @author alexeagle@google.com (Alex Eagle)
  */
-public class StaticMethod implements Matcher<ExpressionTree> {
+public class StaticMethod implements Matcher<ExpressionTree>, MethodSymbolCache.SymbolMatcher {
   private final String fullClass;
   private final String methodName;
 
@@ -43,7 +48,11 @@ public class StaticMethod implements Matcher<ExpressionTree> {
     if (!(sym instanceof MethodSymbol) || !sym.isStatic()) {
       return false;
     }
+    return MethodSymbolCache.matches(this, (MethodSymbol) sym, state);
+  }
 
+  @Override
+  public boolean matchesSymbol(MethodSymbol sym, VisitorState state) {
     boolean methodSame = methodName.equals("*")
         || sym.getSimpleName().contentEquals(methodName)
         || sym.toString().equals(methodName);
@@ -51,4 +60,18 @@ public class StaticMethod implements Matcher<ExpressionTree> {
         || sym.owner.getQualifiedName().contentEquals(fullClass);
     return methodSame && classSame;
   }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == null || obj.getClass() != getClass()) {
+      return false;
+    }
+    StaticMethod other = (StaticMethod) obj;
+    return fullClass.equals(other.fullClass) && methodName.equals(other.methodName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(fullClass, methodName);
+  }
 }
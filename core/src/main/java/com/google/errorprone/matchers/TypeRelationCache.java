@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.util.CompilationScoped;
+
+import com.sun.tools.javac.code.Symbol.TypeSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.Type.ClassType;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.util.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memoizes the type relations computed by {@link IsSubtypeOf}, {@link IsCastableTo} and
+ * {@link IsSameType} for one compilation.
+ *
+ * <p>The same few target types, e.g. {@code java.util.Collection}, are compared against the type
+ * of nearly every node in a file, and most of those node types are plain class types. For a class
+ * type without type arguments, the relation to the erasure of a class type depends only on the two
+ * {@link TypeSymbol}s, so results are cached per symbol pair. Relations involving parameterized,
+ * raw, array, primitive or type variable types are always computed by {@link Types}.
+ *
+ * <p>The tables are bounded and evict their least recently used entries.
+ */
+final class TypeRelationCache {
+
+  /** The maximum number of entries in each table. */
+  private static final int MAX_ENTRIES = 8192;
+
+  private static final CompilationScoped<TypeRelationCache> INSTANCE =
+      new CompilationScoped<TypeRelationCache>() {
+        @Override
+        protected TypeRelationCache create(Context context) {
+          return new TypeRelationCache(Types.instance(context));
+        }
+      };
+
+  static TypeRelationCache instance(VisitorState state) {
+    return INSTANCE.get(state.context);
+  }
+
+  private final Types types;
+  private final Map<SymbolPair, Boolean> subtypes = new LruMap<>();
+  private final Map<SymbolPair, Boolean> castable = new LruMap<>();
+  private final Map<SymbolPair, Boolean> sameTypes = new LruMap<>();
+  private final Map<Type, Type> erasures = new LruMap<>();
+
+  private TypeRelationCache(Types types) {
+    this.types = types;
+  }
+
+  /** Returns true if {@code type} is a subtype of the erasure of {@code target}. */
+  boolean isSubtypeOfErasure(Type type, Type target) {
+    if (!isPlainClassType(type) || !isClassType(target)) {
+      return types.isSubtype(type, erasure(target));
+    }
+    SymbolPair key = new SymbolPair(type.tsym, target.tsym);
+    Boolean result = subtypes.get(key);
+    if (result == null) {
+      result = types.isSubtype(type, erasure(target));
+      subtypes.put(key, result);
+    }
+    return result;
+  }
+
+  /** Returns true if {@code type} is castable to the erasure of {@code target}. */
+  boolean isCastableToErasure(Type type, Type target) {
+    if (!isPlainClassType(type) || !isClassType(target)) {
+      return types.isCastable(type, erasure(target));
+    }
+    SymbolPair key = new SymbolPair(type.tsym, target.tsym);
+    Boolean result = castable.get(key);
+    if (result == null) {
+      result = types.isCastable(type, erasure(target));
+      castable.put(key, result);
+    }
+    return result;
+  }
+
+  /** Returns true if {@code type} and {@code target} are the same type. */
+  boolean isSameType(Type type, Type target) {
+    if (!isPlainClassType(type) || !isPlainClassType(target)) {
+      return types.isSameType(type, target);
+    }
+    SymbolPair key = new SymbolPair(type.tsym, target.tsym);
+    Boolean result = sameTypes.get(key);
+    if (result == null) {
+      result = types.isSameType(type, target);
+      sameTypes.put(key, result);
+    }
+    return result;
+  }
+
+  /** Returns the erasure of {@code type}. */
+  Type erasure(Type type) {
+    Type result = erasures.get(type);
+    if (result == null) {
+      result = types.erasure(type);
+      erasures.put(type, result);
+    }
+    return result;
+  }
+
+  private static boolean isClassType(Type type) {
+    return type instanceof ClassType && !type.isErroneous();
+  }
+
+  /** Returns true if {@code type} is fully determined by its symbol. */
+  private static boolean isPlainClassType(Type type) {
+    return isClassType(type) && !type.isParameterized() && !type.isRaw();
+  }
+
+  /** A pair of type symbols, compared by identity. */
+  private static final class SymbolPair {
+    private final TypeSymbol left;
+    private final TypeSymbol right;
+
+    SymbolPair(TypeSymbol left, TypeSymbol right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof SymbolPair)) {
+        return false;
+      }
+      SymbolPair that = (SymbolPair) obj;
+      return left == that.left && right == that.right;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(left) + System.identityHashCode(right);
+    }
+  }
+
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    LruMap() {
+      super(16, 0.75f, /* accessOrder */ true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  }
+}
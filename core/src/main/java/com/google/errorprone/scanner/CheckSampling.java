@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.scanner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.math.IntMath;
+import com.google.common.math.LongMath;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decides which compilation units a sampled check runs on, see
+ * {@link com.google.errorprone.ErrorProneOptions#getSamplePercentages}.
+ *
+ * <p>Each compilation unit falls into one of 100 buckets by a hash of its package and file name,
+ * which unlike its absolute path is the same on every machine. A check sampled at {@code p}%
+ * runs on a window of {@code p} consecutive buckets, and each increment of the seed moves the
+ * window past the buckets of the previous seed, so {@code ceil(100 / p)} consecutive seeds cover
+ * every compilation unit.
+ */
+final class CheckSampling {
+
+  static final CheckSampling NONE = new CheckSampling(ImmutableMap.<String, Integer>of(), 0);
+
+  private static final int BUCKETS = 100;
+
+  private final ImmutableMap<String, Integer> percentages;
+  private final int seed;
+
+  CheckSampling(ImmutableMap<String, Integer> percentages, int seed) {
+    this.percentages = percentages;
+    this.seed = seed;
+  }
+
+  boolean isEmpty() {
+    return percentages.isEmpty();
+  }
+
+  /**
+   * Returns the sampling of the checks of both samplings. Where both sample a check, and for the
+   * seed, {@code other} wins.
+   */
+  CheckSampling plus(CheckSampling other) {
+    if (other.isEmpty()) {
+      return this;
+    }
+    if (isEmpty()) {
+      return other;
+    }
+    Map<String, Integer> combined = new HashMap<>(percentages);
+    combined.putAll(other.percentages);
+    return new CheckSampling(ImmutableMap.copyOf(combined), other.seed);
+  }
+
+  /** Returns whether the check is sampled, i.e. does not run on every compilation unit. */
+  boolean isSampled(String checkName) {
+    Integer percentage = percentages.get(checkName);
+    return percentage != null && percentage < BUCKETS;
+  }
+
+  /** Returns the percentage of compilation units the check runs on. */
+  int percentage(String checkName) {
+    Integer percentage = percentages.get(checkName);
+    return percentage != null ? percentage : BUCKETS;
+  }
+
+  /** Returns whether the check runs on {@code compilationUnit} with the current seed. */
+  boolean includes(String checkName, CompilationUnitTree compilationUnit) {
+    if (!isSampled(checkName)) {
+      return true;
+    }
+    return includes(checkName, bucket(compilationUnit));
+  }
+
+  boolean includes(String checkName, int bucket) {
+    int percentage = percentage(checkName);
+    long windowStart = (long) seed * percentage;
+    return LongMath.mod(bucket - windowStart, BUCKETS) < percentage;
+  }
+
+  @Override
+  public String toString() {
+    return "sampled " + new TreeMap<>(percentages) + " with seed " + seed;
+  }
+
+  static int bucket(CompilationUnitTree compilationUnit) {
+    String fileName = compilationUnit.getSourceFile().getName();
+    int lastSeparator = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+    fileName = fileName.substring(lastSeparator + 1);
+    ExpressionTree packageName = compilationUnit.getPackageName();
+    String key = (packageName != null ? packageName + "/" : "") + fileName;
+    return IntMath.mod(Hashing.murmur3_32().hashString(key, UTF_8).asInt(), BUCKETS);
+  }
+}
@@ -17,6 +17,8 @@
 package com.google.errorprone.scanner;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.BugPattern.Suppressibility;
@@ -47,6 +49,7 @@ import com.google.errorprone.bugpatterns.BugChecker.IdentifierTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.IfTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.ImportTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.InstanceOfTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.IntersectionTypeTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.LabeledStatementTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.LambdaExpressionTreeMatcher;
@@ -65,6 +68,7 @@ import com.google.errorprone.bugpatterns.BugChecker.ReturnTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.SwitchTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.SynchronizedTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.ThrowTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.bugpatterns.BugChecker.TryTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.TypeCastTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.TypeParameterTreeMatcher;
@@ -73,7 +77,10 @@ import com.google.errorprone.bugpatterns.BugChecker.UnionTypeTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.WhileLoopTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.WildcardTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.CodeSources;
 
 import com.sun.source.tree.AnnotatedTypeTree;
 import com.sun.source.tree.AnnotationTree;
@@ -118,6 +125,7 @@ import com.sun.source.tree.ReturnTree;
 import com.sun.source.tree.SwitchTree;
 import com.sun.source.tree.SynchronizedTree;
 import com.sun.source.tree.ThrowTree;
+import com.sun.source.tree.Tree;
 import com.sun.source.tree.TryTree;
 import com.sun.source.tree.TypeCastTree;
 import com.sun.source.tree.TypeParameterTree;
@@ -126,14 +134,23 @@ import com.sun.source.tree.UnionTypeTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.tree.WildcardTree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.util.Name;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Scans the parsed AST, looking for violations of any of the enabled checks.
@@ -180,10 +197,24 @@ public class ErrorProneScanner extends Scanner {
    * @param severities The default check severities.
    */
   public ErrorProneScanner(Iterable<BugChecker> checkers, Map<String, SeverityLevel> severities) {
+    this(checkers, severities, CheckSampling.NONE);
+  }
+
+  ErrorProneScanner(Iterable<BugChecker> checkers, Map<String, SeverityLevel> severities,
+      CheckSampling sampling) {
     this.severities = severities;
+    this.sampling = sampling;
     for (BugChecker checker : checkers) {
+      checkerClasses.add(checker.getClass().getName());
+      if (!CodeSources.sameLocation(checker.getClass(), ErrorProneScanner.class)) {
+        pluginCheckerClasses.add(checker.getClass());
+      }
       registerNodeTypes(checker);
+      if (sampling.isSampled(checker.canonicalName())) {
+        sampledCheckers.add(checker);
+      }
     }
+    indexMethodInvocationMatchers();
   }
 
   @Override
@@ -191,6 +222,124 @@ public class ErrorProneScanner extends Scanner {
     return customSuppressionAnnotations;
   }
 
+  /** The trigger types declared by each checker that implements {@link TriggerTypes}. */
+  private final Map<BugChecker, Set<String>> triggerTypes = new LinkedHashMap<>();
+  /**
+   * The trigger types of each checker that are present on the classpath of the compilation that
+   * owns {@link #classpathSymtab}.
+   */
+  private Map<BugChecker, Set<String>> classpathTriggerTypes;
+  private Symtab classpathSymtab;
+  /** The sorted class names of the checkers, for {@link #fingerprint}. */
+  private final Set<String> checkerClasses = new TreeSet<>();
+  /**
+   * The classes of the checkers that are not part of error-prone, i.e. plugins, whose code can
+   * change without error-prone's version changing.
+   */
+  private final Set<Class<?>> pluginCheckerClasses = new HashSet<>();
+  /** The checkers that run on only a sample of the compilation units. */
+  private final CheckSampling sampling;
+  private final List<BugChecker> sampledCheckers = new ArrayList<>();
+  /** The checkers that cannot match anything in the tree currently being scanned. */
+  private Set<BugChecker> inactiveCheckers = Collections.emptySet();
+
+  @Override
+  public Void scan(TreePath path, VisitorState state) {
+    // The analyzer scans each compilation unit's header and each of its top-level classes
+    // separately, so this runs at most a few times per compilation unit.
+    if (path.getLeaf() instanceof ClassTree
+        && !state.isAnalyzed(path.getLeaf(), path.getCompilationUnit())) {
+      return null;
+    }
+    inactiveCheckers = inactiveCheckers(path, state);
+    return super.scan(path, state);
+  }
+
+  @Override
+  public Void scan(Tree tree, VisitorState state) {
+    if (isUnchangedDeclaration(tree, state)) {
+      return null;
+    }
+    return super.scan(tree, state);
+  }
+
+  /**
+   * Returns true if {@code tree} is a class, method or field declaration that does not span any
+   * of the lines being analyzed, as given by {@code -XepChangedLines}.  Nothing inside it could
+   * be reported, so it is not scanned at all.
+   */
+  private boolean isUnchangedDeclaration(Tree tree, VisitorState state) {
+    if (tree instanceof ClassTree
+        || tree instanceof MethodTree
+        || (tree instanceof VariableTree && getCurrentPath().getLeaf() instanceof ClassTree)) {
+      return !state.isAnalyzed(tree, getCurrentPath().getCompilationUnit());
+    }
+    return false;
+  }
+
+  @Override
+  protected boolean isSuppressed(Suppressible suppressible) {
+    return inactiveCheckers.contains(suppressible) || super.isSuppressed(suppressible);
+  }
+
+  @Override
+  protected <T extends Tree> void reportMatch(
+      Description description, T match, VisitorState state) {
+    if (description != null && sampling.isSampled(description.checkName)) {
+      description = description.appendToMessage(String.format(
+          " [sampled: runs on %d%% of files]", sampling.percentage(description.checkName)));
+    }
+    super.reportMatch(description, match, state);
+  }
+
+  /**
+   * Returns the checkers that are sampled out of the compilation unit of {@code path}, and the
+   * checkers with trigger types none of which are referenced by its leaf.
+   */
+  private Set<BugChecker> inactiveCheckers(TreePath path, VisitorState state) {
+    if (triggerTypes.isEmpty() && sampledCheckers.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<BugChecker> inactive = Sets.newIdentityHashSet();
+    for (BugChecker checker : sampledCheckers) {
+      if (!sampling.includes(checker.canonicalName(), path.getCompilationUnit())) {
+        inactive.add(checker);
+      }
+    }
+    if (triggerTypes.isEmpty()) {
+      return inactive;
+    }
+    if (classpathSymtab != state.getSymtab()) {
+      classpathTriggerTypes = triggerTypesOnClasspath(state);
+      classpathSymtab = state.getSymtab();
+    }
+    Tree tree = path.getLeaf();
+    Set<String> referenced = null;
+    for (Map.Entry<BugChecker, Set<String>> entry : classpathTriggerTypes.entrySet()) {
+      if (!entry.getValue().isEmpty() && referenced == null) {
+        referenced = ReferencedTypes.in(tree, state.getTypes());
+      }
+      if (entry.getValue().isEmpty() || Collections.disjoint(entry.getValue(), referenced)) {
+        inactive.add(entry.getKey());
+      }
+    }
+    return inactive;
+  }
+
+  private Map<BugChecker, Set<String>> triggerTypesOnClasspath(VisitorState state) {
+    Map<BugChecker, Set<String>> result = new LinkedHashMap<>();
+    for (Map.Entry<BugChecker, Set<String>> entry : triggerTypes.entrySet()) {
+      Set<String> present = new HashSet<>();
+      for (String type : entry.getValue()) {
+        if (state.getTypeFromString(type) != null) {
+          present.add(type);
+        }
+      }
+      result.put(entry.getKey(), present);
+    }
+    return result;
+  }
+
   private final List<AnnotationTreeMatcher> annotationMatchers =
       new ArrayList<>();
   private final List<AnnotatedTypeTreeMatcher> annotatedTypeMatchers =
@@ -257,6 +406,23 @@ public class ErrorProneScanner extends Scanner {
       new ArrayList<>();
   private final List<MethodInvocationTreeMatcher> methodInvocationMatchers =
       new ArrayList<>();
+  /**
+   * For each method name declared through {@link InterestingMethodNames}, the method invocation
+   * matchers that may match an invocation of a method with that name, in registration order.
+   */
+  private final Map<String, List<MethodInvocationTreeMatcher>> methodInvocationMatchersByName =
+      new HashMap<>();
+  /**
+   * {@link #methodInvocationMatchersByName}, keyed by the names of {@link #indexedNameTable}.
+   * Javac interns names per compilation, so the index is resolved once per compilation and lookups
+   * need not convert the invoked method's name to a string.
+   */
+  private Map<Name, List<MethodInvocationTreeMatcher>> methodInvocationMatchersByInternedName =
+      Collections.emptyMap();
+  private Name.Table indexedNameTable;
+  /** The method invocation matchers that do not restrict the names of the methods they match. */
+  private final List<MethodInvocationTreeMatcher> unrestrictedMethodInvocationMatchers =
+      new ArrayList<>();
   private final List<ModifiersTreeMatcher> modifiersMatchers =
       new ArrayList<>();
   private final List<NewArrayTreeMatcher> newArrayMatchers =
@@ -294,11 +460,58 @@ public class ErrorProneScanner extends Scanner {
   private final List<WildcardTreeMatcher> wildcardMatchers =
       new ArrayList<>();
 
+  private void indexMethodInvocationMatchers() {
+    Set<String> names = new HashSet<>();
+    for (MethodInvocationTreeMatcher matcher : methodInvocationMatchers) {
+      if (matcher instanceof InterestingMethodNames) {
+        names.addAll(((InterestingMethodNames) matcher).interestingMethodNames());
+      } else {
+        unrestrictedMethodInvocationMatchers.add(matcher);
+      }
+    }
+    for (String name : names) {
+      List<MethodInvocationTreeMatcher> matchers = new ArrayList<>();
+      for (MethodInvocationTreeMatcher matcher : methodInvocationMatchers) {
+        if (!(matcher instanceof InterestingMethodNames)
+            || ((InterestingMethodNames) matcher).interestingMethodNames().contains(name)) {
+          matchers.add(matcher);
+        }
+      }
+      methodInvocationMatchersByName.put(name, matchers);
+    }
+  }
+
+  /**
+   * Returns the matchers that may match {@code tree}, based on the simple name of the invoked
+   * method.
+   */
+  private List<MethodInvocationTreeMatcher> methodInvocationMatchers(MethodInvocationTree tree) {
+    Name name = TreeInfo.name((JCTree) tree.getMethodSelect());
+    if (name == null) {
+      return methodInvocationMatchers;
+    }
+    if (name.table != indexedNameTable) {
+      Map<Name, List<MethodInvocationTreeMatcher>> byInternedName = new HashMap<>();
+      for (Map.Entry<String, List<MethodInvocationTreeMatcher>> entry
+          : methodInvocationMatchersByName.entrySet()) {
+        byInternedName.put(name.table.fromString(entry.getKey()), entry.getValue());
+      }
+      methodInvocationMatchersByInternedName = byInternedName;
+      indexedNameTable = name.table;
+    }
+    List<MethodInvocationTreeMatcher> matchers = methodInvocationMatchersByInternedName.get(name);
+    return matchers != null ? matchers : unrestrictedMethodInvocationMatchers;
+  }
+
   private void registerNodeTypes(BugChecker checker) {
     if (checker.suppressibility() == Suppressibility.CUSTOM_ANNOTATION) {
       customSuppressionAnnotations.add(checker.customSuppressionAnnotation());
     }
 
+    if (checker instanceof TriggerTypes) {
+      triggerTypes.put(checker, ImmutableSet.copyOf(((TriggerTypes) checker).triggerTypes()));
+    }
+
     if (checker instanceof AnnotationTreeMatcher) {
       annotationMatchers.add((AnnotationTreeMatcher) checker);
     }
@@ -821,7 +1034,7 @@ public class ErrorProneScanner extends Scanner {
   @Override
   public Void visitMethodInvocation(MethodInvocationTree tree, VisitorState visitorState) {
     VisitorState state = visitorState.withPath(getCurrentPath());
-    for (MethodInvocationTreeMatcher matcher : methodInvocationMatchers) {
+    for (MethodInvocationTreeMatcher matcher : methodInvocationMatchers(tree)) {
       if (!isSuppressed(matcher)) {
         reportMatch(matcher.matchMethodInvocation(tree, state), tree, state);
       }
@@ -1034,4 +1247,13 @@ public class ErrorProneScanner extends Scanner {
   public Map<String, SeverityLevel> severityMap() {
     return severities;
   }
+
+  @Override
+  public String fingerprint() {
+    Set<String> pluginCode = new TreeSet<>();
+    for (Class<?> checkerClass : pluginCheckerClasses) {
+      pluginCode.add(CodeSources.hash(checkerClass));
+    }
+    return super.fingerprint() + checkerClasses + pluginCode + sampling;
+  }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.ErrorProneOptions.Severity;
+import com.google.errorprone.InvalidCommandLineOptionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Chooses the {@link Scanner} for each source file, based on its path: see
+ * {@link ErrorProneOptions#getExcludedPaths}, {@link ErrorProneOptions#getIncludedPaths} and
+ * {@link ErrorProneOptions#getPathSeverityMaps}.
+ *
+ * <p>The patterns are compiled once per compilation, all the exclusions into a single regular
+ * expression, and included paths are looked up in a set. A scanner is built for each distinct
+ * combination of severity overrides when a source file first needs it, and is reused for every
+ * later source file that needs the same combination.
+ */
+public final class PathScanners {
+
+  private final Scanner defaultScanner;
+  private final ScannerSupplier supplier;
+  private final boolean ignoreUnknownChecks;
+  private final Pattern excludedPaths;
+  private final ImmutableSet<String> includedPaths;
+  private final ImmutableMap<Pattern, ImmutableMap<String, Severity>> pathSeverityMaps;
+  private final Map<Map<String, Severity>, Scanner> scanners = new HashMap<>();
+
+  private PathScanners(Scanner defaultScanner, ScannerSupplier supplier,
+      boolean ignoreUnknownChecks, Pattern excludedPaths, ImmutableSet<String> includedPaths,
+      ImmutableMap<Pattern, ImmutableMap<String, Severity>> pathSeverityMaps) {
+    this.defaultScanner = defaultScanner;
+    this.supplier = supplier;
+    this.ignoreUnknownChecks = ignoreUnknownChecks;
+    this.excludedPaths = excludedPaths;
+    this.includedPaths = includedPaths;
+    this.pathSeverityMaps = pathSeverityMaps;
+  }
+
+  /** Returns a {@link PathScanners} that uses {@code scanner} for every source file. */
+  public static PathScanners of(Scanner scanner) {
+    return new PathScanners(scanner, null, false, null, ImmutableSet.<String>of(),
+        ImmutableMap.<Pattern, ImmutableMap<String, Severity>>of());
+  }
+
+  /**
+   * Applies the command-line options to {@code scannerSupplier}, and compiles the options that
+   * depend on the paths of source files.
+   *
+   * @throws InvalidCommandLineOptionException if an override, or a path pattern, is invalid
+   */
+  public static PathScanners create(ScannerSupplier scannerSupplier, ErrorProneOptions options)
+      throws InvalidCommandLineOptionException {
+    ScannerSupplier supplier = scannerSupplier.applyOverrides(options);
+
+    List<String> excluded = new ArrayList<>();
+    for (String pattern : options.getExcludedPaths()) {
+      excluded.add("(?:" + toRegex(pattern) + ")");
+    }
+    Pattern excludedPaths = excluded.isEmpty() ? null : compile(Joiner.on('|').join(excluded));
+
+    Map<Pattern, ImmutableMap<String, Severity>> pathSeverityMaps = new LinkedHashMap<>();
+    for (Map.Entry<String, ImmutableMap<String, Severity>> entry
+        : options.getPathSeverityMaps().entrySet()) {
+      // Fail now, rather than when the first matching source file is analyzed.
+      supplier.applySeverityOverrides(entry.getValue(), options.ignoreUnknownChecks());
+      pathSeverityMaps.put(compile(toRegex(entry.getKey())), entry.getValue());
+    }
+
+    return new PathScanners(supplier.get(), supplier, options.ignoreUnknownChecks(),
+        excludedPaths, options.getIncludedPaths(), ImmutableMap.copyOf(pathSeverityMaps));
+  }
+
+  /** Returns the scanner for source files that no path-specific options apply to. */
+  public Scanner defaultScanner() {
+    return defaultScanner;
+  }
+
+  /**
+   * Returns the scanner for the source file at {@code path}, or nothing if it should not be
+   * analyzed.
+   */
+  public Optional<Scanner> forPath(String path) {
+    if (!includedPaths.isEmpty() && !includedPaths.contains(path)) {
+      return Optional.absent();
+    }
+    if (excludedPaths != null && excludedPaths.matcher(path).find()) {
+      return Optional.absent();
+    }
+    if (pathSeverityMaps.isEmpty()) {
+      return Optional.of(defaultScanner);
+    }
+    // Later patterns take precedence over earlier ones.
+    Map<String, Severity> severities = new HashMap<>();
+    for (Map.Entry<Pattern, ImmutableMap<String, Severity>> entry
+        : pathSeverityMaps.entrySet()) {
+      if (entry.getKey().matcher(path).find()) {
+        severities.putAll(entry.getValue());
+      }
+    }
+    if (severities.isEmpty()) {
+      return Optional.of(defaultScanner);
+    }
+    Scanner scanner = scanners.get(severities);
+    if (scanner == null) {
+      try {
+        scanner = supplier.applySeverityOverrides(severities, ignoreUnknownChecks).get();
+      } catch (InvalidCommandLineOptionException e) {
+        // Each set of overrides was validated on its own in create().
+        throw new IllegalStateException(e);
+      }
+      scanners.put(severities, scanner);
+    }
+    return Optional.of(scanner);
+  }
+
+  private static Pattern compile(String regex) throws InvalidCommandLineOptionException {
+    try {
+      return Pattern.compile(regex);
+    } catch (PatternSyntaxException e) {
+      throw new InvalidCommandLineOptionException("invalid path pattern: " + e.getMessage());
+    }
+  }
+
+  /** Translates a path pattern to a regular expression that may match part of a path. */
+  static String toRegex(String pattern) throws InvalidCommandLineOptionException {
+    if (pattern.startsWith("glob:")) {
+      return "^" + globToRegex(pattern.substring("glob:".length())) + "$";
+    }
+    if (pattern.startsWith("regex:")) {
+      return pattern.substring("regex:".length());
+    }
+    return pattern;
+  }
+
+  /**
+   * Translates a glob to a regular expression. {@code **} matches any characters, {@code *} and
+   * {@code ?} match any characters and any one character within a path segment, and
+   * {@code {a,b}} matches either alternative.
+   */
+  static String globToRegex(String glob) throws InvalidCommandLineOptionException {
+    StringBuilder regex = new StringBuilder();
+    boolean inGroup = false;
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      switch (c) {
+        case '*':
+          if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+            regex.append(".*");
+            i++;
+          } else {
+            regex.append("[^/]*");
+          }
+          break;
+        case '?':
+          regex.append("[^/]");
+          break;
+        case '{':
+          if (inGroup) {
+            throw new InvalidCommandLineOptionException("invalid glob, nested '{': " + glob);
+          }
+          regex.append("(?:");
+          inGroup = true;
+          break;
+        case '}':
+          if (!inGroup) {
+            throw new InvalidCommandLineOptionException("invalid glob, unmatched '}': " + glob);
+          }
+          regex.append(')');
+          inGroup = false;
+          break;
+        case ',':
+          regex.append(inGroup ? "|" : ",");
+          break;
+        default:
+          if ("\\.[]()+-^$|".indexOf(c) >= 0) {
+            regex.append('\\');
+          }
+          regex.append(c);
+          break;
+      }
+    }
+    if (inGroup) {
+      throw new InvalidCommandLineOptionException("invalid glob, unmatched '{': " + glob);
+    }
+    return regex.toString();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.scanner;
+
+import com.google.errorprone.util.ASTHelpers;
+
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.Type.ArrayType;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.tree.JCTree;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the fully-qualified names of the classes a tree refers to, either by name or through
+ * the type of an expression. The names of the supertypes of each of those classes, and of the
+ * annotations on them, are included too, as are the names of the top-level classes enclosing
+ * any nested class.
+ */
+public final class ReferencedTypes extends TreeScanner<Void, Void> {
+
+  public static Set<String> in(Tree tree, Types types) {
+    ReferencedTypes scanner = new ReferencedTypes(types);
+    tree.accept(scanner, null);
+    return scanner.names;
+  }
+
+  private final Types types;
+  private final Set<Symbol> visited = new HashSet<>();
+  private final Set<String> names = new HashSet<>();
+
+  private ReferencedTypes(Types types) {
+    this.types = types;
+  }
+
+  @Override
+  public Void scan(Tree tree, Void unused) {
+    if (tree instanceof JCTree) {
+      Type type = ((JCTree) tree).type;
+      while (type instanceof ArrayType) {
+        type = ((ArrayType) type).elemtype;
+      }
+      if (type != null) {
+        addClass(type.tsym);
+      }
+      Symbol sym = ASTHelpers.getSymbol(tree);
+      if (sym != null) {
+        addClass(sym.enclClass());
+      }
+    }
+    return super.scan(tree, unused);
+  }
+
+  private void addClass(Symbol sym) {
+    if (!(sym instanceof ClassSymbol) || !visited.add(sym)) {
+      return;
+    }
+    ClassSymbol classSym = (ClassSymbol) sym;
+    names.add(classSym.getQualifiedName().toString());
+    // Not outermostClass(), which fails for classes outside any package, such as that of arrays.
+    for (Symbol enclosing = classSym.owner; enclosing != null; enclosing = enclosing.owner) {
+      if (enclosing instanceof ClassSymbol && enclosing.owner instanceof PackageSymbol) {
+        names.add(((ClassSymbol) enclosing).getQualifiedName().toString());
+      }
+    }
+    try {
+      for (Type supertype : types.closure(classSym.type)) {
+        addClass(supertype.tsym);
+      }
+      for (Attribute.Compound annotation : classSym.getAnnotationMirrors()) {
+        addClass(annotation.type.tsym);
+      }
+    } catch (CompletionFailure e) {
+      // The rest of the hierarchy is not on the classpath, so it cannot be referenced either.
+    }
+  }
+}
@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * TODO(user): I'm worried about this performance of this code,
@@ -159,4 +160,12 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
   public Map<String, SeverityLevel> severityMap() {
     return Collections.emptyMap();
   }
+
+  /**
+   * Returns a description of this scanner's configuration that changes whenever the
+   * configuration changes in a way that could change the findings it reports.
+   */
+  public String fingerprint() {
+    return getClass().getName() + new TreeMap<>(severityMap());
+  }
 }
@@ -20,9 +20,11 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.Cost;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.ErrorProneOptions.Severity;
@@ -129,6 +131,11 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
 
   protected abstract PMap<String, BugPattern.SeverityLevel> severities();
 
+  /** Returns the sampling of checks applied by {@link #applyOverrides}. */
+  CheckSampling sampling() {
+    return CheckSampling.NONE;
+  }
+
   /**
    * Applies an override map (from command-line options) to this {@link ScannerSupplier} and
    * returns the resulting {@link ScannerSupplier}.  The overrides may do any of the following:
@@ -137,6 +144,10 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
    * <li>Disable a check that is currently on</li>
    * <li>Change the severity of a check that is on, promoting a warning to an error or demoting
    * an error to a warning</li>
+   * <li>Disable the checks that cost more than {@link ErrorProneOptions#maxCost}, except those
+   * that may not be disabled or that are enabled by name</li>
+   * <li>Run checks on only a sample of the compilation units, see
+   * {@link ErrorProneOptions#getSamplePercentages}</li>
    * </ul>
    *
    * @param errorProneOptions an {@link ErrorProneOptions} object that encapsulates the overrides
@@ -148,7 +159,9 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
   public ScannerSupplier applyOverrides(ErrorProneOptions errorProneOptions)
       throws InvalidCommandLineOptionException {
     Map<String, Severity> severityOverrides = errorProneOptions.getSeverityMap();
-    if (severityOverrides.isEmpty()) {
+    Cost maxCost = errorProneOptions.maxCost();
+    Map<String, Integer> samplePercentages = errorProneOptions.getSamplePercentages();
+    if (severityOverrides.isEmpty() && maxCost == Cost.EXPENSIVE && samplePercentages.isEmpty()) {
       return this;
     }
     
@@ -156,11 +169,63 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
     ImmutableBiMap<String, BugChecker> checks = getAllChecks();
     PMap<String, SeverityLevel> severities = severities();
 
-    // Process overrides
+    // Disable checks above the cost limit; the overrides below may turn them back on.
+    for (BugChecker checker : checks.values()) {
+      if (checker.cost().compareTo(maxCost) > 0 && checker.suppressibility().disableable()) {
+        severities = severities.plus(checker.canonicalName(), SeverityLevel.NOT_A_PROBLEM);
+      }
+    }
+
+    severities = applySeverities(
+        severities, severityOverrides, errorProneOptions.ignoreUnknownChecks());
+
+    ImmutableMap.Builder<String, Integer> sampled = ImmutableMap.builder();
+    for (Entry<String, Integer> entry : samplePercentages.entrySet()) {
+      BugChecker checker = getAllChecks().get(entry.getKey());
+      if (checker == null) {
+        if (errorProneOptions.ignoreUnknownChecks()) {
+          continue;
+        }
+        throw new InvalidCommandLineOptionException(
+            entry.getKey() + " is not a valid checker name");
+      }
+      if (!checker.suppressibility().disableable()) {
+        throw new InvalidCommandLineOptionException(
+            checker.canonicalName() + " may not be sampled");
+      }
+      sampled.put(checker.canonicalName(), entry.getValue());
+    }
+
+    return new ScannerSupplierImpl(checks, severities,
+        new CheckSampling(sampled.build(), errorProneOptions.sampleSeed()));
+  }
+
+  /**
+   * Applies only severity overrides to this {@link ScannerSupplier} and returns the resulting
+   * {@link ScannerSupplier}, e.g. the overrides for some of the source files, see
+   * {@link ErrorProneOptions#getPathSeverityMaps}.
+   *
+   * @throws InvalidCommandLineOptionException if the overrides name an unknown check, or attempt
+   * to disable a check that may not be disabled
+   */
+  @CheckReturnValue
+  public ScannerSupplier applySeverityOverrides(
+      Map<String, Severity> severityOverrides, boolean ignoreUnknownChecks)
+      throws InvalidCommandLineOptionException {
+    if (severityOverrides.isEmpty()) {
+      return this;
+    }
+    return new ScannerSupplierImpl(getAllChecks(),
+        applySeverities(severities(), severityOverrides, ignoreUnknownChecks), sampling());
+  }
+
+  private PMap<String, SeverityLevel> applySeverities(PMap<String, SeverityLevel> severities,
+      Map<String, Severity> severityOverrides, boolean ignoreUnknownChecks)
+      throws InvalidCommandLineOptionException {
     for (Entry<String, Severity> entry : severityOverrides.entrySet()) {
       BugChecker supplier = getAllChecks().get(entry.getKey());
       if (supplier == null) {
-        if (errorProneOptions.ignoreUnknownChecks()) {
+        if (ignoreUnknownChecks) {
           continue;
         }
         throw new InvalidCommandLineOptionException(
@@ -194,8 +259,7 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
           throw new IllegalStateException("Unexpected severity level: " + entry.getValue());
       }
     }
-
-    return new ScannerSupplierImpl(checks, severities);
+    return severities;
   }
 
   /**
@@ -212,7 +276,8 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
             .build();
     PMap<String, SeverityLevel> combinedSeverities =
         this.severities().plusAll(other.severities());
-    return new ScannerSupplierImpl(combinedAllChecks, combinedSeverities);
+    return new ScannerSupplierImpl(
+        combinedAllChecks, combinedSeverities, sampling().plus(other.sampling()));
   }
 
   /**
@@ -227,6 +292,6 @@ public abstract class ScannerSupplier implements Supplier<Scanner> {
         filteredSeverities = filteredSeverities.plus(entry.getKey(), SeverityLevel.NOT_A_PROBLEM);
       }
     }
-    return new ScannerSupplierImpl(getAllChecks(), filteredSeverities);
+    return new ScannerSupplierImpl(getAllChecks(), filteredSeverities, sampling());
   }
 }
@@ -35,19 +35,31 @@ import org.pcollections.PMap;
 class ScannerSupplierImpl extends ScannerSupplier {
   private final ImmutableBiMap<String, BugChecker> checks;
   private final PMap<String, BugPattern.SeverityLevel> severities;
+  private final CheckSampling sampling;
 
   ScannerSupplierImpl(ImmutableBiMap<String, BugChecker> checks,
       PMap<String, BugPattern.SeverityLevel> severities) {
+    this(checks, severities, CheckSampling.NONE);
+  }
+
+  ScannerSupplierImpl(ImmutableBiMap<String, BugChecker> checks,
+      PMap<String, BugPattern.SeverityLevel> severities, CheckSampling sampling) {
     Preconditions.checkArgument(
         Sets.difference(severities.keySet(), checks.keySet()).isEmpty(),
         "enabledChecks must be a subset of allChecks");
     this.checks = checks;
     this.severities = severities;
+    this.sampling = sampling;
   }
 
   @Override
   public ErrorProneScanner get() {
-    return new ErrorProneScanner(getEnabledChecks(), severities);
+    return new ErrorProneScanner(getEnabledChecks(), severities, sampling);
+  }
+
+  @Override
+  CheckSampling sampling() {
+    return sampling;
   }
 
   @Override
@@ -17,6 +17,10 @@
 package com.google.errorprone.util;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.AnnotationFacts;
+import com.google.errorprone.AnnotationFacts.SymbolFacts;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.dataflow.nullnesspropagation.Nullness;
 import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
@@ -55,14 +59,17 @@ import com.sun.tools.javac.tree.JCTree.JCNewClass;
 import com.sun.tools.javac.tree.JCTree.JCPrimitiveTypeTree;
 import com.sun.tools.javac.tree.JCTree.JCTypeApply;
 import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.util.Context;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.lang.model.element.ElementKind;
@@ -369,6 +376,22 @@ public class ASTHelpers {
     return supers;
   }
 
+  /**
+   * Like {@link #findSuperMethods(MethodSymbol, Types)}, but memoized for the current
+   * compilation.
+   */
+  public static ImmutableSet<MethodSymbol> findSuperMethods(
+      MethodSymbol methodSymbol, VisitorState state) {
+    Map<MethodSymbol, ImmutableSet<MethodSymbol>> superMethods =
+        SymbolQueryCache.INSTANCE.get(state.context).superMethods;
+    ImmutableSet<MethodSymbol> result = superMethods.get(methodSymbol);
+    if (result == null) {
+      result = ImmutableSet.copyOf(findSuperMethods(methodSymbol, state.getTypes()));
+      superMethods.put(methodSymbol, result);
+    }
+    return result;
+  }
+
   /**
    * Find a method in the enclosing class's superclass that this method overrides.
    *
@@ -397,6 +420,63 @@ public class ASTHelpers {
     return getAnnotation(sym, annotationType) != null;
   }
 
+  /**
+   * Check for the presence of an annotation, considering annotation inheritance. The result is
+   * memoized for the current compilation. Annotations that are recorded in facts files are looked
+   * up in them, if they cover the symbol; see {@link AnnotationFacts}.
+   *
+   * @param annotationType the fully-qualified name of the annotation type, e.g.
+   *     {@code "org.junit.Test"}
+   * @return true if the symbol is annotated with given type.
+   */
+  public static boolean hasAnnotation(Symbol sym, String annotationType, VisitorState state) {
+    if (sym == null) {
+      return false;
+    }
+    Map<Symbol, Map<String, Boolean>> annotations =
+        SymbolQueryCache.INSTANCE.get(state.context).annotations;
+    Map<String, Boolean> forSymbol = annotations.get(sym);
+    Boolean result = forSymbol != null ? forSymbol.get(annotationType) : null;
+    if (result != null) {
+      return result;
+    }
+    if (AnnotationFacts.TRACKED_ANNOTATIONS.contains(annotationType)) {
+      Optional<SymbolFacts> facts =
+          AnnotationFacts.instance(state.context).lookup(sym, state.getTypes());
+      if (facts.isPresent()) {
+        result = facts.get().isAnnotated(annotationType);
+      }
+    }
+    if (result == null) {
+      Symbol annotationSym = state.getSymbolFromString(annotationType);
+      if (annotationSym == null) {
+        // Not cached: the annotation type may still be completed later in the compilation.
+        return false;
+      }
+      result = hasAnnotation(sym, annotationSym, state.getSymtab().inheritedType.tsym);
+    }
+    if (forSymbol == null) {
+      forSymbol = new HashMap<>();
+      annotations.put(sym, forSymbol);
+    }
+    forSymbol.put(annotationType, result);
+    return result;
+  }
+
+  private static boolean hasAnnotation(Symbol sym, Symbol annotationSym, Symbol inheritedSym) {
+    if ((sym instanceof ClassSymbol) && (annotationSym.attribute(inheritedSym) != null)) {
+      while (sym != null) {
+        if (sym.attribute(annotationSym) != null) {
+          return true;
+        }
+        sym = ((ClassSymbol) sym).getSuperclass().tsym;
+      }
+      return false;
+    } else {
+      return sym.attribute(annotationSym) != null;
+    }
+  }
+
   /**
    * Check for the presence of an annotation, considering annotation inheritance.
    *
@@ -451,6 +531,22 @@ public class ASTHelpers {
     return new LinkedHashSet<>(values);
   }
 
+  /**
+   * Like {@link #enumValues(TypeSymbol)}, but memoized for the current compilation.
+   *
+   * @return all values of the given enum type, in declaration order.
+   */
+  public static ImmutableSet<String> enumValues(TypeSymbol enumType, VisitorState state) {
+    Map<TypeSymbol, ImmutableSet<String>> enumValues =
+        SymbolQueryCache.INSTANCE.get(state.context).enumValues;
+    ImmutableSet<String> result = enumValues.get(enumType);
+    if (result == null) {
+      result = ImmutableSet.copyOf(enumValues(enumType));
+      enumValues.put(enumType, result);
+    }
+    return result;
+  }
+
   /** Returns true if the given tree is a generated contructor. **/
   public static boolean isGeneratedConstructor(MethodTree tree) {
     if (!(tree instanceof JCMethodDecl)) {
@@ -524,4 +620,23 @@ public class ASTHelpers {
         ? ((JCLiteral) tree).value
         : tree.type.constValue();
   }
+
+  /**
+   * Memoizes symbol queries for one compilation.
+   *
+   * <p>Symbols do not override {@code equals}, so the maps are keyed by symbol identity.
+   */
+  private static final class SymbolQueryCache {
+    static final CompilationScoped<SymbolQueryCache> INSTANCE =
+        new CompilationScoped<SymbolQueryCache>() {
+          @Override
+          protected SymbolQueryCache create(Context context) {
+            return new SymbolQueryCache();
+          }
+        };
+
+    final Map<MethodSymbol, ImmutableSet<MethodSymbol>> superMethods = new HashMap<>();
+    final Map<TypeSymbol, ImmutableSet<String>> enumValues = new HashMap<>();
+    final Map<Symbol, Map<String, Boolean>> annotations = new HashMap<>();
+  }
 }
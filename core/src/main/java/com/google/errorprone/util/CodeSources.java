@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Hashes the jars and class directories that classes are loaded from, to tell whether the code
+ * of, e.g., a checker may have changed since an earlier compilation.
+ */
+public final class CodeSources {
+
+  // Keyed by the location as a string: URL.equals resolves host names.
+  private static final Map<String, String> hashes = new HashMap<>();
+
+  /**
+   * Returns a hash of the jar or class directory that {@code clazz} was loaded from, or its
+   * location if that can't be read. Each location is hashed once per JVM, since the classes
+   * loaded from it don't change either.
+   */
+  public static synchronized String hash(Class<?> clazz) {
+    URL location = location(clazz);
+    if (location == null) {
+      return "unknown location";
+    }
+    String hash = hashes.get(location.toString());
+    if (hash == null) {
+      hash = hash(location);
+      hashes.put(location.toString(), hash);
+    }
+    return hash;
+  }
+
+  /** Returns true if {@code a} and {@code b} were loaded from the same jar or class directory. */
+  public static boolean sameLocation(Class<?> a, Class<?> b) {
+    URL locationA = location(a);
+    URL locationB = location(b);
+    return locationA != null && locationB != null
+        && locationA.toString().equals(locationB.toString());
+  }
+
+  private static URL location(Class<?> clazz) {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    return codeSource != null ? codeSource.getLocation() : null;
+  }
+
+  private static String hash(URL location) {
+    try {
+      final Path root = Paths.get(location.toURI());
+      Hasher hasher = Hashing.murmur3_128().newHasher();
+      if (Files.isDirectory(root)) {
+        final TreeSet<String> files = new TreeSet<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            files.add(root.relativize(file).toString());
+            return FileVisitResult.CONTINUE;
+          }
+        });
+        for (String file : files) {
+          hasher.putString(file, UTF_8).putBytes(Files.readAllBytes(root.resolve(file)));
+        }
+      } else {
+        hasher.putBytes(Files.readAllBytes(root));
+      }
+      return hasher.hash().toString();
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      // Not a file, e.g. loaded over the network; the location is the best there is.
+      return location.toString();
+    }
+  }
+
+  private CodeSources() {}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import com.sun.tools.javac.util.Context;
+
+/**
+ * A value, typically a cache, that is created the first time a compilation asks for it and then
+ * kept in that compilation's {@link Context}.
+ *
+ * <p>This is the lifetime that caches of anything derived from symbols and types need. Javac
+ * gives each annotation processing round a fresh {@code Context} with fresh symbols, so a value
+ * held here never outlives the symbols it was computed from, and never leaks from one
+ * compilation into another.
+ *
+ * <p>Like the {@code Context} itself, a value is only used by the thread that runs the
+ * compilation, so it need not be thread-safe.
+ *
+ * <p>Declare one instance per kind of value, as a constant:
+ * <pre>{@code
+ * private static final CompilationScoped<MyCache> CACHE = new CompilationScoped<MyCache>() {
+ *   @Override
+ *   protected MyCache create(Context context) {
+ *     return new MyCache();
+ *   }
+ * };
+ * }</pre>
+ */
+public abstract class CompilationScoped<T> {
+
+  private final Context.Key<T> key = new Context.Key<>();
+
+  /** Creates the value for the compilation with {@code context}. */
+  protected abstract T create(Context context);
+
+  /** Returns the value for the compilation with {@code context}, creating it if necessary. */
+  public final T get(Context context) {
+    T value = context.get(key);
+    if (value == null) {
+      value = create(context);
+      context.put(key, value);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.errorprone.AnalysisCache.Finding;
+import com.google.errorprone.BugPattern.SeverityLevel;
+
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.main.Main.Result;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Names;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * Tests for {@link AnalysisCache}.
+ */
+@RunWith(JUnit4.class)
+public class AnalysisCacheTest {
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private static HashCode key(int i) {
+    return AnalysisCache.key(
+        "config", "class Test" + i + " {}", 0, ImmutableList.<HashCode>of());
+  }
+
+  private static ImmutableList<Finding> findings(int i) {
+    return ImmutableList.of(
+        new Finding(SeverityLevel.ERROR, i, i + 1, i + 2, "error " + i),
+        new Finding(SeverityLevel.WARNING, 0, 0, 0, "warning \u00e9"));
+  }
+
+  private static void assertFindings(AnalysisCache cache, int i) throws IOException {
+    ImmutableList<Finding> found = cache.lookup(key(i)).get();
+    assertThat(found.size()).isEqualTo(2);
+    assertThat(found.get(0).severity).isEqualTo(SeverityLevel.ERROR);
+    assertThat(found.get(0).startPosition).isEqualTo(i);
+    assertThat(found.get(0).preferredPosition).isEqualTo(i + 1);
+    assertThat(found.get(0).endPosition).isEqualTo(i + 2);
+    assertThat(found.get(0).message).isEqualTo("error " + i);
+    assertThat(found.get(1).message).isEqualTo("warning \u00e9");
+  }
+
+  @Test
+  public void keysDependOnEveryInput() {
+    ImmutableList<HashCode> none = ImmutableList.of();
+    HashCode key = AnalysisCache.key("config", "source", 0, none);
+    assertThat(AnalysisCache.key("config", "source", 0, none)).isEqualTo(key);
+    assertThat(AnalysisCache.key("other", "source", 0, none)).isNotEqualTo(key);
+    assertThat(AnalysisCache.key("config", "other", 0, none)).isNotEqualTo(key);
+    assertThat(AnalysisCache.key("config", "source", 1, none)).isNotEqualTo(key);
+  }
+
+  /** Compiles {@code lines} and returns the API hash of class {@code A}. */
+  private static HashCode apiHashOfA(String... lines) throws IOException {
+    ErrorProneInMemoryFileManager fileManager = new ErrorProneInMemoryFileManager();
+    JavacTaskImpl task = (JavacTaskImpl) JavacTool.create().getTask(null, fileManager, null,
+        null, null, Arrays.asList(fileManager.forSourceLines("A.java", lines)));
+    task.analyze();
+    Context context = task.getContext();
+    return new AnalysisCache.ApiHasher(context).apiHash(classSymbol(context, "A"));
+  }
+
+  @Test
+  public void apiHashesCoverSupertypes() throws Exception {
+    HashCode apiHash = apiHashOfA("class A extends B {}", "class B { public void f() {} }");
+    assertThat(apiHashOfA("class A extends B {}", "class B { public void f() {} }"))
+        .isEqualTo(apiHash);
+    assertThat(apiHashOfA("class A extends B {}", "class B { public void g() {} }"))
+        .isNotEqualTo(apiHash);
+    assertThat(apiHashOfA("class A extends B {}", "class B { private void g() {} }"))
+        .isEqualTo(apiHashOfA("class A extends B {}", "class B {}"));
+  }
+
+  /** Returns the cache key of an unchanged source of A whose only dependency is B. */
+  private static HashCode keyDependingOnB(String b) throws IOException {
+    return AnalysisCache.key("config", "class A extends B {}", 0,
+        ImmutableList.of(apiHashOfA("class A extends B {}", b)));
+  }
+
+  @Test
+  public void parameterAnnotationsOfDependenciesAreInKeys() throws Exception {
+    String annotated = "class B { public void f("
+        + "@com.google.errorprone.annotations.CompileTimeConstant String s) {} }";
+    HashCode key = keyDependingOnB(annotated);
+    assertThat(keyDependingOnB(annotated)).isEqualTo(key);
+    assertThat(keyDependingOnB("class B { public void f(String s) {} }")).isNotEqualTo(key);
+  }
+
+  @Test
+  public void constantValuesOfDependenciesAreInKeys() throws Exception {
+    HashCode key = keyDependingOnB("class B { public static final int ZERO = 0; }");
+    assertThat(keyDependingOnB("class B { public static final int ZERO = 0; }"))
+        .isEqualTo(key);
+    assertThat(keyDependingOnB("class B { public static final int ZERO = 1; }"))
+        .isNotEqualTo(key);
+  }
+
+  /** Compiles {@code source} as Lib.java into {@code dir}, writing its facts to lib.facts. */
+  private static void compileLib(Path dir, String source) throws IOException {
+    Path lib = dir.resolve("Lib.java");
+    Files.write(lib, Arrays.asList(source), UTF_8);
+    StringWriter output = new StringWriter();
+    Result result = ErrorProneCompiler.compile(
+        new String[] {"-XepFactsOutput:" + dir.resolve("lib.facts"), "-d", dir.toString(),
+            lib.toString()},
+        new PrintWriter(output, true));
+    if (result != Result.OK) {
+      fail(output.toString());
+    }
+  }
+
+  /** Compiles a client of Lib against the class and facts files in {@code dir}. */
+  private static Context compileClient(Path dir) throws IOException {
+    Path client = dir.resolve("Client.java");
+    Files.write(client, Arrays.asList("class Client { Lib lib; }"), UTF_8);
+    JavacTool tool = JavacTool.create();
+    StandardJavaFileManager fileManager = tool.getStandardFileManager(null, null, UTF_8);
+    JavacTaskImpl task = (JavacTaskImpl) tool.getTask(null, fileManager, null,
+        // Without annotation processing, so that the context the facts go in is the final one.
+        Arrays.asList("-cp", dir.toString(), "-proc:none"), null,
+        fileManager.getJavaFileObjects(client.toFile()));
+    AnnotationFacts.register(task.getContext(),
+        AnnotationFacts.open(Arrays.asList(dir.resolve("lib.facts"))));
+    task.analyze();
+    return task.getContext();
+  }
+
+  private static ClassSymbol classSymbol(Context context, String flatName) {
+    return Symtab.instance(context).classes.get(Names.instance(context).fromString(flatName));
+  }
+
+  @Test
+  public void classesCoveredByFactsAreHashedByTheirClassFiles() throws Exception {
+    Path dir = tempDir.newFolder().toPath();
+    compileLib(dir, "public class Lib { public void f() {} public static class Nested {} }");
+    Context context = compileClient(dir);
+    HashCode apiHash = new AnalysisCache.ApiHasher(context).apiHash(classSymbol(context, "Lib"));
+    // Hashing the nested class as part of Lib's API did not complete it.
+    assertThat(classSymbol(context, "Lib$Nested").completer).isNotNull();
+
+    compileLib(dir, "public class Lib { public void g() {} public static class Nested {} }");
+    context = compileClient(dir);
+    assertThat(new AnalysisCache.ApiHasher(context).apiHash(classSymbol(context, "Lib")))
+        .isNotEqualTo(apiHash);
+  }
+
+  @Test
+  public void storesAndPersistsFindings() throws Exception {
+    Path dir = tempDir.getRoot().toPath();
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      assertThat(cache.lookup(key(1)).isPresent()).isFalse();
+      cache.store(key(1), findings(1));
+      cache.store(key(2), ImmutableList.<Finding>of());
+      assertFindings(cache, 1);
+    }
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      assertFindings(cache, 1);
+      assertThat(cache.lookup(key(2)).get()).isEmpty();
+      assertThat(cache.lookup(key(3)).isPresent()).isFalse();
+    }
+  }
+
+  @Test
+  public void growsIndex() throws Exception {
+    Path dir = tempDir.getRoot().toPath();
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      for (int i = 0; i < 5000; i++) {
+        cache.store(key(i), findings(i));
+      }
+      assertFindings(cache, 0);
+      assertFindings(cache, 4999);
+    }
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      assertFindings(cache, 2500);
+    }
+  }
+
+  @Test
+  public void recoversFromTornRecord() throws Exception {
+    Path dir = tempDir.getRoot().toPath();
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      cache.store(key(1), findings(1));
+    }
+    // Simulate a crash in the middle of appending a record.
+    try (RandomAccessFile log = new RandomAccessFile(dir.resolve("findings.log").toFile(), "rw")) {
+      log.seek(log.length());
+      log.write(key(2).asBytes());
+      log.write("torn".getBytes(UTF_8));
+    }
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      assertFindings(cache, 1);
+      assertThat(cache.lookup(key(2)).isPresent()).isFalse();
+      cache.store(key(2), findings(2));
+      assertFindings(cache, 2);
+    }
+  }
+
+  @Test
+  public void compactsLogPastItsMaximumSize() throws Exception {
+    Path dir = tempDir.getRoot().toPath();
+    try (AnalysisCache cache = AnalysisCache.open(dir, 20000)) {
+      for (int i = 0; i < 1000; i++) {
+        cache.store(key(i), findings(i));
+      }
+      // Replaced records are dropped too.
+      cache.store(key(0), findings(0));
+    }
+    assertThat(Files.size(dir.resolve("findings.log")) > 20000).isTrue();
+    try (AnalysisCache cache = AnalysisCache.open(dir, 20000)) {
+      assertThat(Files.size(dir.resolve("findings.log")) <= 10000).isTrue();
+      assertFindings(cache, 0);
+      assertFindings(cache, 999);
+      assertThat(cache.lookup(key(1)).isPresent()).isFalse();
+      cache.store(key(1), findings(1));
+    }
+    try (AnalysisCache cache = AnalysisCache.open(dir, 20000)) {
+      assertFindings(cache, 0);
+      assertFindings(cache, 1);
+      assertFindings(cache, 999);
+    }
+  }
+
+  @Test
+  public void onlyOneCompilationAtATime() throws Exception {
+    Path dir = tempDir.getRoot().toPath();
+    try (AnalysisCache cache = AnalysisCache.open(dir)) {
+      try {
+        AnalysisCache.open(dir);
+        fail();
+      } catch (IOException expected) {
+        assertThat(expected.getMessage()).contains("in use");
+      }
+    }
+    AnalysisCache.open(dir).close();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.sun.tools.javac.main.Main.Result;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests for {@link CompilerCache}.
+ */
+@RunWith(JUnit4.class)
+public class CompilerCacheTest {
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private final CompilerCache compilerCache = CompilerCache.createWithPlatformClasses();
+  private final StringWriter output = new StringWriter();
+
+  private Result compile(String className, String source, String... options) throws Exception {
+    File sourceFile = new File(tempDir.getRoot(), className + ".java");
+    Files.write(sourceFile.toPath(), source.getBytes(UTF_8));
+    File classes = new File(tempDir.getRoot(), className + "-classes");
+    classes.mkdirs();
+    String[] args = new String[options.length + 3];
+    System.arraycopy(options, 0, args, 0, options.length);
+    args[options.length] = "-d";
+    args[options.length + 1] = classes.getAbsolutePath();
+    args[options.length + 2] = sourceFile.getAbsolutePath();
+    ErrorProneCompiler compiler = new ErrorProneCompiler.Builder()
+        .redirectOutputTo(new PrintWriter(output, true))
+        .reuse(compilerCache)
+        .build();
+    return compiler.run(args);
+  }
+
+  private File jar(String className, long lastModified) throws Exception {
+    File jar = new File(tempDir.getRoot(), "lib.jar");
+    try (OutputStream out = Files.newOutputStream(jar.toPath());
+        JarOutputStream jarOut = new JarOutputStream(out)) {
+      jarOut.putNextEntry(new JarEntry(className + ".class"));
+      jarOut.write(Files.readAllBytes(
+          tempDir.getRoot().toPath().resolve(className + "-classes/" + className + ".class")));
+      jarOut.closeEntry();
+    }
+    jar.setLastModified(lastModified);
+    return jar;
+  }
+
+  @Test
+  public void reusesStateAcrossCompilations() throws Exception {
+    assertThat(compile("A", "public class A { public static void foo() {} }"))
+        .isEqualTo(Result.OK);
+    File jar = jar("A", 1000000000000L);
+    String b = "class B { void f() { A.foo(); } }";
+    assertThat(compile("B", b, "-cp", jar.getPath())).isEqualTo(Result.OK);
+    assertThat(compile("B", b, "-cp", jar.getPath())).isEqualTo(Result.OK);
+
+    // The jar changes between compilations, and the next compilation sees the change.
+    assertThat(compile("A", "public class A { public static void bar() {} }"))
+        .isEqualTo(Result.OK);
+    jar("A", 1000000002000L);
+    assertThat(compile("B", b, "-cp", jar.getPath())).isEqualTo(Result.ERROR);
+    assertThat(output.toString()).contains("foo");
+  }
+
+  @Test
+  public void eachCompilationSeesOnlyItsOwnClasses() throws Exception {
+    assertThat(compile("A", "public class A {}")).isEqualTo(Result.OK);
+    // A was compiled with the same file managers, but is not on this compilation's class path.
+    assertThat(compile("B", "class B extends A {}")).isEqualTo(Result.ERROR);
+  }
+}
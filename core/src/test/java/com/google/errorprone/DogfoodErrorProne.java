@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -28,14 +29,32 @@ import java.util.List;
  */
 public class DogfoodErrorProne {
 
+  /**
+   * Compiles error-prone once, or, to measure the speedup of {@code -XepShards}, once with
+   * {@code -XepAnalysisOnly} for each of the shard counts given as arguments, e.g. {@code 1 4}.
+   * Shard counts above the number of available processors are capped, so measure on a machine
+   * with at least as many cores as the largest count.
+   */
   public static void main(String[] args) throws Exception {
-    new DogfoodErrorProne().compile();
+    DogfoodErrorProne dogfood = new DogfoodErrorProne();
+    if (args.length > 0) {
+      System.out.printf("Available processors: %d\n", Runtime.getRuntime().availableProcessors());
+    }
+    if (args.length == 0) {
+      dogfood.compile();
+    }
+    for (String shards : args) {
+      dogfood.compile("-XepAnalysisOnly", "-XepShards:" + shards);
+    }
   }
 
-  private void compile() throws URISyntaxException {
+  private void compile(String... options) throws URISyntaxException {
+    List<String> args = new ArrayList<String>(Arrays.asList(options));
+    args.addAll(Arrays.asList(findSources()));
     long start = System.currentTimeMillis();
-    ErrorProneCompiler.compile(findSources());
-    System.out.printf("Finished compiling in %d millis\n", System.currentTimeMillis() - start);
+    ErrorProneCompiler.compile(args.toArray(new String[args.size()]));
+    System.out.printf("Finished compiling %s in %d millis\n", Arrays.toString(options),
+        System.currentTimeMillis() - start);
   }
 
   private String[] findSources() throws URISyntaxException {
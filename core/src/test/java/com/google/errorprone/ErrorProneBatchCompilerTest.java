@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.ErrorProneBatchCompiler.StructuredDiagnostic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Tests for {@link ErrorProneBatchCompiler}.
+ */
+@RunWith(JUnit4.class)
+public class ErrorProneBatchCompilerTest {
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private File argumentFile(String className, String source) throws Exception {
+    File sourceFile = tempDir.newFile(className + ".java");
+    Files.write(sourceFile.toPath(), source.getBytes(UTF_8));
+    File argumentFile = tempDir.newFile(className + ".args");
+    Files.write(argumentFile.toPath(), ImmutableList.of(
+        "-d", tempDir.getRoot().getAbsolutePath(),
+        sourceFile.getAbsolutePath()), UTF_8);
+    return argumentFile;
+  }
+
+  @Test
+  public void compilesEachRequestInTurn() throws Exception {
+    File good = argumentFile("Good", "class Good {}");
+    File bad = argumentFile("Bad",
+        "class Bad { boolean f(int[] a, int[] b) { return a.equals(b); } }");
+
+    ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+    DataOutputStream requests = new DataOutputStream(requestBytes);
+    requests.writeUTF(good.getAbsolutePath());
+    requests.writeUTF(bad.getAbsolutePath());
+    requests.flush();
+
+    ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+    ErrorProneBatchCompiler.serve(
+        new ByteArrayInputStream(requestBytes.toByteArray()), responseBytes);
+
+    DataInputStream responses =
+        new DataInputStream(new ByteArrayInputStream(responseBytes.toByteArray()));
+    assertThat(responses.readInt()).isEqualTo(0);
+    assertThat(responses.readInt()).isEqualTo(0);
+
+    assertThat(responses.readInt()).isEqualTo(1);
+    byte[] output = new byte[responses.readInt()];
+    responses.readFully(output);
+    assertThat(new String(output, UTF_8)).contains("[ArrayEquals]");
+    assertThat(responses.available()).isEqualTo(0);
+  }
+
+  @Test
+  public void reportsStructuredDiagnostics() throws Exception {
+    File bad = argumentFile("Bad",
+        "class Bad {\n  boolean f(int[] a, int[] b) { return a.equals(b); }\n}");
+
+    ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+    DataOutputStream requests = new DataOutputStream(requestBytes);
+    requests.writeUTF(bad.getAbsolutePath());
+    requests.writeUTF(bad.getAbsolutePath());
+    requests.flush();
+
+    ByteArrayOutputStream textBytes = new ByteArrayOutputStream();
+    ErrorProneBatchCompiler.serve(
+        new ByteArrayInputStream(requestBytes.toByteArray()), textBytes, false);
+    DataInputStream text = new DataInputStream(new ByteArrayInputStream(textBytes.toByteArray()));
+    assertThat(text.readInt()).isEqualTo(1);
+    String printed = ErrorProneBatchCompiler.readText(text);
+
+    ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+    ErrorProneBatchCompiler.serve(
+        new ByteArrayInputStream(requestBytes.toByteArray()), responseBytes, true);
+    DataInputStream responses =
+        new DataInputStream(new ByteArrayInputStream(responseBytes.toByteArray()));
+    for (int i = 0; i < 2; i++) {
+      assertThat(responses.readInt()).isEqualTo(1);
+      assertThat(ErrorProneBatchCompiler.readText(responses)).isEmpty();
+      assertThat(responses.readInt()).isEqualTo(1);
+      StructuredDiagnostic diagnostic = StructuredDiagnostic.readFrom(responses);
+      assertThat(diagnostic.kind()).isEqualTo(Kind.ERROR);
+      assertThat(diagnostic.file()).isEqualTo(
+          new File(tempDir.getRoot(), "Bad.java").getAbsolutePath());
+      assertThat(diagnostic.line()).isEqualTo(2L);
+      // The text is what javac would have printed.
+      assertThat(diagnostic.text() + "\n1 error\n").isEqualTo(printed);
+    }
+    assertThat(responses.available()).isEqualTo(0);
+  }
+}
@@ -21,6 +21,7 @@ import static com.google.errorprone.BugPattern.Category.ONE_OFF;
 import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.DiagnosticTestHelper.diagnosticMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
@@ -29,19 +30,31 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.ExpressionStatementTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.InterestingMethodNames;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.TriggerTypes;
 import com.google.errorprone.bugpatterns.NonAtomicVolatileUpdate;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.DetachedDescription;
 import com.google.errorprone.scanner.ErrorProneScanner;
 import com.google.errorprone.scanner.Scanner;
 import com.google.errorprone.scanner.ScannerSupplier;
+import com.google.errorprone.util.ASTHelpers;
 
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.ImportTree;
 import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
@@ -59,10 +72,16 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Locale;
 import java.util.Set;
 
 import javax.annotation.processing.AbstractProcessor;
@@ -110,6 +129,205 @@ public class ErrorProneCompilerIntegrationTest {
         matcher.matches(diagnosticHelper.getDiagnostics()));
   }
 
+  @Test
+  public void failFastStopsAfterFirstError() throws Exception {
+    Result exitCode = compiler.compile(new String[] {"-XepFailFast"},
+        compiler.fileManager().sources(getClass(),
+            "bugpatterns/BadShiftAmountPositiveCases.java"));
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    assertThat(diagnosticHelper.getDiagnostics()).hasSize(1);
+  }
+
+  @Test
+  public void cachedFindingsAreReplayed() throws Exception {
+    String[] args = {"-XepCacheDir:" + Files.createTempDirectory("analysis-cache")};
+    java.util.List<JavaFileObject> sources = compiler.fileManager().sources(getClass(),
+        "bugpatterns/BadShiftAmountPositiveCases.java");
+    Result exitCode = compiler.compile(args, sources);
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    String analyzed = describeDiagnostics();
+    assertThat(analyzed).contains("[BadShiftAmount]");
+
+    diagnosticHelper.clearDiagnostics();
+    exitCode = compiler.compile(args, sources);
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    assertThat(describeDiagnostics()).isEqualTo(analyzed);
+  }
+
+  private String describeDiagnostics() {
+    StringBuilder result = new StringBuilder();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnosticHelper.getDiagnostics()) {
+      result.append(diagnostic.getKind()).append(' ')
+          .append(diagnostic.getLineNumber()).append(':').append(diagnostic.getColumnNumber())
+          .append(' ').append(diagnostic.getMessage(Locale.ENGLISH)).append('\n');
+    }
+    return result.toString();
+  }
+
+  @Test
+  public void analysisOnlyWritesNoClassFiles() throws Exception {
+    Path dir = Files.createTempDirectory("analysis-only");
+    Path source = dir.resolve("Test.java");
+    Files.write(source, Arrays.asList(
+        "class Test {",
+        "  boolean f(int[] a, int[] b) { return a.equals(b); }",
+        "  class Inner {}",
+        "}"), UTF_8);
+    Result exitCode = ErrorProneCompiler.compile(
+        new String[] {"-XepAnalysisOnly", "-d", dir.toString(), source.toString()},
+        new PrintWriter(outputStream, true));
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    assertThat(outputStream.toString()).contains("[ArrayEquals]");
+
+    Files.write(source, Arrays.asList("class Test {", "  class Inner {}", "}"), UTF_8);
+    exitCode = ErrorProneCompiler.compile(
+        new String[] {"-XepAnalysisOnly", "-d", dir.toString(), source.toString()},
+        new PrintWriter(outputStream, true));
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+    assertThat(Files.exists(dir.resolve("Test.class"))).isFalse();
+    assertThat(Files.exists(dir.resolve("Test$Inner.class"))).isFalse();
+  }
+
+  @Test
+  public void changedLinesOnlyReportsFindingsOnChangedLines() throws Exception {
+    Path dir = Files.createTempDirectory("changed-lines");
+    Path source = dir.resolve("Test.java");
+    Files.write(source, Arrays.asList(
+        "class Test {",
+        "  boolean f(int[] a, int[] b) { return a.equals(b); }",
+        "  boolean g(int[] a, int[] b) {",
+        "    return a.equals(b);",
+        "  }",
+        "}"), UTF_8);
+    Path other = dir.resolve("Other.java");
+    Files.write(other, Arrays.asList(
+        "class Other {",
+        "  boolean f(int[] a, int[] b) { return a.equals(b); }",
+        "}"), UTF_8);
+    Path changedLines = dir.resolve("changed.lines");
+    Files.write(changedLines, Arrays.asList("Test.java:3", "Test.java:5-6"), UTF_8);
+    Result exitCode = ErrorProneCompiler.compile(
+        new String[] {"-XepChangedLines:" + changedLines, "-d", dir.toString(),
+            source.toString(), other.toString()},
+        new PrintWriter(outputStream, true));
+    // g() overlaps the changed lines, but its finding on line 4 is not on one of them.
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+    assertThat(outputStream.toString()).doesNotContain("[ArrayEquals]");
+
+    Files.write(changedLines, Arrays.asList("Test.java:4"), UTF_8);
+    exitCode = ErrorProneCompiler.compile(
+        new String[] {"-XepChangedLines:" + changedLines, "-d", dir.toString(),
+            source.toString(), other.toString()},
+        new PrintWriter(outputStream, true));
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    assertThat(outputStream.toString()).contains("Test.java:4:");
+    assertThat(outputStream.toString()).doesNotContain("Test.java:2:");
+    assertThat(outputStream.toString()).doesNotContain("Other.java");
+  }
+
+  @Test
+  public void annotationsAreLookedUpInFactsFiles() throws Exception {
+    Path dir = Files.createTempDirectory("facts");
+    String classPath = System.getProperty("java.class.path") + File.pathSeparator + dir;
+    Path facts = dir.resolve("lib.facts");
+    Path lib = dir.resolve("Lib.java");
+    Files.write(lib, Arrays.asList(
+        "public class Lib {",
+        "  @javax.annotation.CheckReturnValue public int f() { return 0; }",
+        "}"), UTF_8);
+    Result exitCode = ErrorProneCompiler.compile(
+        new String[] {"-XepFactsOutput:" + facts, "-cp", classPath, "-d", dir.toString(),
+            lib.toString()},
+        new PrintWriter(outputStream, true));
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+    assertThat(Files.exists(facts)).isTrue();
+
+    // Compile the client against a version of Lib without the annotation, so that only the facts
+    // file knows about it.
+    Files.write(lib, Arrays.asList(
+        "public class Lib {",
+        "  public int f() { return 0; }",
+        "}"), UTF_8);
+    exitCode = ErrorProneCompiler.compile(
+        new String[] {"-cp", classPath, "-d", dir.toString(), lib.toString()},
+        new PrintWriter(outputStream, true));
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+
+    Path client = dir.resolve("Client.java");
+    Files.write(client, Arrays.asList(
+        "class Client {",
+        "  void g(Lib lib) { lib.f(); }",
+        "}"), UTF_8);
+    exitCode = ErrorProneCompiler.compile(
+        new String[] {"-XepFactsPath:" + facts, "-cp", classPath, "-d", dir.toString(),
+            client.toString()},
+        new PrintWriter(outputStream, true));
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    assertThat(outputStream.toString()).contains("[CheckReturnValue]");
+  }
+
+  @BugPattern(name = "UnitRecorder", explanation = "",
+      category = ONE_OFF, maturity = EXPERIMENTAL, severity = ERROR, summary = "Class found")
+  private static class UnitRecorder extends BugChecker implements ClassTreeMatcher {
+    final java.util.List<WeakReference<CompilationUnitTree>> units = new ArrayList<>();
+
+    @Override
+    public Description matchClass(ClassTree tree, VisitorState state) {
+      units.add(new WeakReference<>(state.getPath().getCompilationUnit()));
+      return describeMatch(tree);
+    }
+  }
+
+  @Test
+  public void detachedListenerKeepsFindingsButNotTrees() throws Exception {
+    UnitRecorder recorder = new UnitRecorder();
+    final java.util.List<DetachedDescription> findings = new ArrayList<>();
+    // Javac's diagnostics refer to the trees, so they are not collected here.
+    compiler = new ErrorProneTestCompiler.Builder()
+        .redirectOutputTo(new PrintWriter(outputStream, true))
+        .report(ScannerSupplier.fromBugCheckers(recorder))
+        .listenDetached(new DetachedDescriptionListener() {
+          @Override
+          public void onDescribed(DetachedDescription description) {
+            findings.add(description);
+          }
+        })
+        .build();
+    Result exitCode = compiler.compile(Arrays.asList(compiler.fileManager().forSourceLines(
+        "Test.java",
+        "package test;",
+        "public class Test {}")));
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+
+    assertThat(recorder.units).hasSize(1);
+    for (int i = 0; i < 10 && recorder.units.get(0).get() != null; i++) {
+      System.gc();
+    }
+    assertThat(recorder.units.get(0).get() == null).isTrue();
+    assertThat(findings).hasSize(1);
+    assertThat(findings.get(0).line).isEqualTo(2);
+    assertThat(findings.get(0).getMessage()).contains("[UnitRecorder] Class found");
+  }
+
+  @Test
+  public void customChecksAreNotSharded() throws Exception {
+    Path dir = Files.createTempDirectory("shards");
+    Path first = dir.resolve("First.java");
+    Files.write(first, Arrays.asList("class First {}"), UTF_8);
+    Path second = dir.resolve("Second.java");
+    Files.write(second, Arrays.asList("class Second {}"), UTF_8);
+    // Workers would run the built-in checks, which don't include UnitRecorder.
+    Result exitCode = new ErrorProneCompiler.Builder()
+        .redirectOutputTo(new PrintWriter(outputStream, true))
+        .report(ScannerSupplier.fromBugCheckers(new UnitRecorder()))
+        .build()
+        .run(new String[] {"-XepShards:2", "-d", dir.toString(), first.toString(),
+            second.toString()});
+    assertThat(outputStream.toString(), exitCode, is(Result.ERROR));
+    assertThat(outputStream.toString()).contains("First.java:1: error: [UnitRecorder]");
+    assertThat(outputStream.toString()).contains("Second.java:1: error: [UnitRecorder]");
+  }
+
   @Test
   public void fileWithWarning() throws Exception {
     compilerBuilder.report(ScannerSupplier.fromBugCheckers(new NonAtomicVolatileUpdate()));
@@ -183,6 +401,114 @@ public class ErrorProneCompilerIntegrationTest {
         matcher.matches(diagnosticHelper.getDiagnostics()));
   }
 
+  @BugPattern(name = "EqualsInvocations", explanation = "", summary = "",
+      maturity = EXPERIMENTAL, severity = ERROR, category = ONE_OFF)
+  public static class EqualsInvocations extends BugChecker
+      implements MethodInvocationTreeMatcher, InterestingMethodNames {
+    final java.util.List<String> seen = new ArrayList<>();
+
+    @Override
+    public Set<String> interestingMethodNames() {
+      return ImmutableSet.of("equals");
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      seen.add(ASTHelpers.getSymbol(tree).getSimpleName().toString());
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void methodInvocationMatchersOnlySeeInterestingMethodNames() throws Exception {
+    EqualsInvocations checker = new EqualsInvocations();
+    compilerBuilder.report(ScannerSupplier.fromBugCheckers(checker));
+    compiler = compilerBuilder.build();
+    Result exitCode = compiler.compile(compiler.fileManager().sources(getClass(),
+        "bugpatterns/ArrayEqualsPositiveCases.java"));
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+    assertThat(checker.seen).isNotEmpty();
+    assertThat(ImmutableSet.copyOf(checker.seen)).isEqualTo(ImmutableSet.of("equals"));
+  }
+
+  @BugPattern(name = "AtomicIntegerClasses", explanation = "", summary = "",
+      maturity = EXPERIMENTAL, severity = ERROR, category = ONE_OFF)
+  public static class AtomicIntegerClasses extends BugChecker
+      implements ClassTreeMatcher, TriggerTypes {
+    final java.util.List<String> seen = new ArrayList<>();
+
+    @Override
+    public Set<String> triggerTypes() {
+      return ImmutableSet.of("java.util.concurrent.atomic.AtomicInteger", "does.not.Exist");
+    }
+
+    @Override
+    public Description matchClass(ClassTree tree, VisitorState state) {
+      seen.add(tree.getSimpleName().toString());
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void checkersOnlySeeClassesThatReferenceTheirTriggerTypes() throws Exception {
+    AtomicIntegerClasses checker = new AtomicIntegerClasses();
+    compilerBuilder.report(ScannerSupplier.fromBugCheckers(checker));
+    compiler = compilerBuilder.build();
+    Result exitCode = compiler.compile(Arrays.asList(
+        compiler.fileManager().forSourceLines("Plain.java",
+            "class Plain { int count; }"),
+        compiler.fileManager().forSourceLines("Counter.java",
+            "class Counter { java.util.concurrent.atomic.AtomicInteger count; }"),
+        compiler.fileManager().forSourceLines("SubCounter.java",
+            "class SubCounter extends Base {}",
+            "class Base extends java.util.concurrent.atomic.AtomicInteger {}")));
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+    assertThat(ImmutableSet.copyOf(checker.seen))
+        .isEqualTo(ImmutableSet.of("Counter", "SubCounter", "Base"));
+  }
+
+  @BugPattern(name = "ScannedTrees", explanation = "", summary = "",
+      maturity = EXPERIMENTAL, severity = ERROR, category = ONE_OFF)
+  public static class ScannedTrees extends BugChecker
+      implements CompilationUnitTreeMatcher, ClassTreeMatcher {
+    final java.util.List<String> seen = new ArrayList<>();
+
+    @Override
+    public Description matchCompilationUnit(
+        java.util.List<? extends AnnotationTree> packageAnnotations,
+        ExpressionTree packageName,
+        java.util.List<? extends ImportTree> imports,
+        VisitorState state) {
+      seen.add("unit " + (packageName != null ? packageName : "(default)"));
+      return Description.NO_MATCH;
+    }
+
+    @Override
+    public Description matchClass(ClassTree tree, VisitorState state) {
+      seen.add(tree.getSimpleName().toString());
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void eachUnitHeaderAndClassIsScannedOnce() throws Exception {
+    ScannedTrees checker = new ScannedTrees();
+    compilerBuilder.report(ScannerSupplier.fromBugCheckers(checker));
+    compiler = compilerBuilder.build();
+    Result exitCode = compiler.compile(Arrays.asList(
+        compiler.fileManager().forSourceLines("p/A.java",
+            "package p;",
+            "class A { B b; }",
+            "class B { class Inner {} }",
+            "interface C {}"),
+        compiler.fileManager().forSourceLines("p/package-info.java",
+            "@Deprecated package p;")));
+    assertThat(outputStream.toString(), exitCode, is(Result.OK));
+    Collections.sort(checker.seen);
+    assertThat(checker.seen)
+        .isEqualTo(Arrays.asList("A", "B", "C", "Inner", "unit p", "unit p"));
+  }
+
   /**
    * Regression test for Issue 188, error-prone doesn't work with annotation processors.
    */
@@ -17,18 +17,27 @@
 package com.google.errorprone;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
+import com.google.errorprone.BugPattern.Cost;
 import com.google.errorprone.ErrorProneOptions.Severity;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for {@code ErrorProneOptions}.
@@ -108,4 +117,196 @@ public class ErrorProneOptionsTest {
         .build();
     assertThat(options.getSeverityMap()).isEqualTo(expectedSeverityMap);
   }
+
+  @Test
+  public void handlesMaxCostFlag() throws Exception {
+    ErrorProneOptions options = ErrorProneOptions.processArgs(new String[] {"-verbose"});
+    assertThat(options.maxCost()).isEqualTo(Cost.EXPENSIVE);
+
+    options = ErrorProneOptions.processArgs(new String[] {"-XepMaxCost:CHEAP", "-verbose"});
+    assertThat(options.maxCost()).isEqualTo(Cost.CHEAP);
+    assertThat(options.getRemainingArgs()).isEqualTo(new String[] {"-verbose"});
+
+    try {
+      ErrorProneOptions.processArgs(new String[] {"-XepMaxCost:FREE"});
+      fail();
+    } catch (InvalidCommandLineOptionException expected) {
+      assertThat(expected.getMessage()).contains("invalid flag");
+    }
+  }
+
+  @Test
+  public void handlesSampleFlags() throws Exception {
+    ErrorProneOptions options = ErrorProneOptions.processArgs(new String[] {
+        "-XepSample:Check1:5%", "-XepSample:Check2:50", "-XepSampleSeed:17"});
+    assertThat(options.getSamplePercentages())
+        .isEqualTo(ImmutableMap.of("Check1", 5, "Check2", 50));
+    assertThat(options.sampleSeed()).isEqualTo(17);
+    assertThat(options.getRemainingArgs()).isEqualTo(new String[0]);
+
+    assertThat(ErrorProneOptions.processArgs(new String[0]).sampleSeed()).isEqualTo(0);
+    long before = TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+    int daily =
+        ErrorProneOptions.processArgs(new String[] {"-XepSampleSeed:daily"}).sampleSeed();
+    long after = TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+    assertThat(daily == before || daily == after).isTrue();
+
+    for (String arg : Arrays.asList(
+        "-XepSample:Check1", "-XepSample:Check1:0%", "-XepSample:Check1:101%",
+        "-XepSample:Check1:x%", "-XepSampleSeed:x")) {
+      try {
+        ErrorProneOptions.processArgs(new String[] {arg});
+        fail();
+      } catch (InvalidCommandLineOptionException expected) {
+        assertThat(expected.getMessage()).contains("invalid flag");
+      }
+    }
+  }
+
+  @Test
+  public void handlesFailFastFlag() throws Exception {
+    assertThat(ErrorProneOptions.processArgs(new String[0]).failFastErrors()).isEqualTo(0);
+    assertThat(ErrorProneOptions.processArgs(new String[] {"-XepFailFast"}).failFastErrors())
+        .isEqualTo(1);
+    assertThat(ErrorProneOptions.processArgs(new String[] {"-XepFailFast:3"}).failFastErrors())
+        .isEqualTo(3);
+
+    for (String arg : Arrays.asList("-XepFailFast:0", "-XepFailFast:x")) {
+      try {
+        ErrorProneOptions.processArgs(new String[] {arg});
+        fail();
+      } catch (InvalidCommandLineOptionException expected) {
+        assertThat(expected.getMessage()).contains("invalid flag");
+      }
+    }
+  }
+
+  @Test
+  public void handlesCacheDirFlag() throws Exception {
+    assertThat(ErrorProneOptions.processArgs(new String[0]).cacheDir().isPresent()).isFalse();
+    assertThat(ErrorProneOptions.processArgs(new String[] {"-XepCacheDir:/tmp/cache"})
+        .cacheDir().get()).isEqualTo("/tmp/cache");
+    try {
+      ErrorProneOptions.processArgs(new String[] {"-XepCacheDir:"});
+      fail();
+    } catch (InvalidCommandLineOptionException expected) {
+      assertThat(expected.getMessage()).contains("invalid flag");
+    }
+  }
+
+  @Test
+  public void handlesAnalysisOnlyFlag() throws Exception {
+    assertThat(ErrorProneOptions.processArgs(new String[0]).analysisOnly()).isFalse();
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepAnalysisOnly", "-d", "out"});
+    assertThat(options.analysisOnly()).isTrue();
+    assertThat(options.getRemainingArgs()).isEqualTo(new String[] {"-d", "out"});
+  }
+
+  @Test
+  public void handlesPathFlags() throws Exception {
+    ErrorProneOptions options = ErrorProneOptions.processArgs(new String[] {
+        "-XepExcludedPaths:/generated/",
+        "-XepIncludedPath:/src/A.java",
+        "-XepIncludedPath:/src/B.java",
+        "-XepPathSeverity:Check1:OFF:glob:/a:b/**",
+        "-XepPathSeverity:Check2:ERROR:glob:/a:b/**",
+        "-XepPathSeverity:Check1:WARN:/test/"});
+    assertThat(options.getExcludedPaths()).isEqualTo(ImmutableList.of("/generated/"));
+    assertThat(options.getIncludedPaths())
+        .isEqualTo(ImmutableSet.of("/src/A.java", "/src/B.java"));
+    assertThat(options.getPathSeverityMaps()).isEqualTo(ImmutableMap.of(
+        "glob:/a:b/**", ImmutableMap.of("Check1", Severity.OFF, "Check2", Severity.ERROR),
+        "/test/", ImmutableMap.of("Check1", Severity.WARN)));
+
+    for (String arg : Arrays.asList(
+        "-XepExcludedPaths:", "-XepIncludedPath:", "-XepPathSeverity:Check1:OFF",
+        "-XepPathSeverity:Check1:BAD:x")) {
+      try {
+        ErrorProneOptions.processArgs(new String[] {arg});
+        fail();
+      } catch (InvalidCommandLineOptionException expected) {
+        assertThat(expected.getMessage()).contains("invalid flag");
+      }
+    }
+  }
+
+  @Test
+  public void handlesChangedLinesFlag() throws Exception {
+    Path file = Files.createTempFile("changed", ".lines");
+    Files.write(file, Arrays.asList(
+        "# changed by the review",
+        "src/a/A.java:3-5",
+        "src/a/A.java:9",
+        "",
+        "C:/b/B.java:1-2"), UTF_8);
+    ErrorProneOptions options = ErrorProneOptions.processArgs(
+        new String[] {"-XepChangedLines:" + file});
+    ChangedLines changedLines = options.changedLines().get();
+    assertThat(changedLines.forPath("/repo/src/a/A.java")).isEqualTo(
+        ImmutableRangeSet.<Integer>builder()
+            .add(Range.closed(3, 5))
+            .add(Range.closed(9, 9))
+            .build());
+    assertThat(changedLines.forPath("/repo/src/aa/A.java").isEmpty()).isTrue();
+    assertThat(changedLines.forPath("C:\\b\\B.java").contains(2)).isTrue();
+    assertThat(ErrorProneOptions.processArgs(new String[0]).changedLines().isPresent()).isFalse();
+
+    Files.write(file, Arrays.asList("src/a/A.java:5-3"), UTF_8);
+    for (String arg : Arrays.asList("-XepChangedLines:", "-XepChangedLines:" + file)) {
+      try {
+        ErrorProneOptions.processArgs(new String[] {arg});
+        fail();
+      } catch (InvalidCommandLineOptionException expected) {
+        assertThat(expected.getMessage()).contains("invalid");
+      }
+    }
+  }
+
+  @Test
+  public void handlesFactsFlags() throws Exception {
+    ErrorProneOptions options = ErrorProneOptions.processArgs(new String[] {"-XepFactsOutput:a"});
+    assertThat(options.factsOutput().get()).isEqualTo("a");
+    assertThat(options.annotationFacts()).isSameAs(AnnotationFacts.empty());
+
+    Path notFacts = Files.createTempFile("not", ".facts");
+    Files.write(notFacts, Arrays.asList("not a facts file"), UTF_8);
+    try {
+      ErrorProneOptions.processArgs(new String[] {"-XepFactsPath:" + notFacts});
+      fail();
+    } catch (InvalidCommandLineOptionException expected) {
+      assertThat(expected.getMessage()).contains("cannot read facts");
+    }
+  }
+
+  @Test
+  public void handlesShardsFlag() throws Exception {
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).shards()).isEqualTo(1);
+    ErrorProneOptions options = ErrorProneOptions.processArgs(new String[] {"-XepShards:4"});
+    assertThat(options.shards()).isEqualTo(4);
+    assertThat(options.getRemainingArgs()).isEqualTo(new String[0]);
+
+    try {
+      ErrorProneOptions.processArgs(new String[] {"-XepShards:0"});
+      fail();
+    } catch (InvalidCommandLineOptionException expected) {
+      assertThat(expected.getMessage()).contains("-XepShards:0");
+    }
+  }
+
+  @Test
+  public void handlesRemoteCacheFlag() throws Exception {
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepRemoteCache:http://cache:8080/ep/"});
+    assertThat(options.remoteCache().get()).isEqualTo("http://cache:8080/ep/");
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).remoteCache().isPresent())
+        .isFalse();
+
+    try {
+      ErrorProneOptions.processArgs(new String[] {"-XepRemoteCache:/tmp/cache"});
+      fail();
+    } catch (InvalidCommandLineOptionException expected) {
+      assertThat(expected.getMessage()).contains("-XepRemoteCache");
+    }
+  }
 }
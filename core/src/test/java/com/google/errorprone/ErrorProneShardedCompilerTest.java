@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.ErrorProneBatchCompiler.StructuredDiagnostic;
+
+import com.sun.tools.javac.main.Main.Result;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Tests for {@link ErrorProneShardedCompiler}.
+ */
+@RunWith(JUnit4.class)
+public class ErrorProneShardedCompilerTest {
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Test
+  public void assignsLargestFilesToLightestShards() {
+    Path a = Paths.get("A.java");
+    Path b = Paths.get("B.java");
+    Path c = Paths.get("C.java");
+    Path d = Paths.get("D.java");
+    List<List<Path>> shards = ErrorProneShardedCompiler.assignShards(
+        ImmutableList.of(a, b, c, d), new long[] {10, 40, 30, 20}, 2);
+    assertThat(shards).isEqualTo(ImmutableList.of(
+        ImmutableList.of(b, a), ImmutableList.of(c, d)));
+  }
+
+  @Test
+  public void neverCreatesEmptyShards() {
+    Path a = Paths.get("A.java");
+    List<List<Path>> shards =
+        ErrorProneShardedCompiler.assignShards(ImmutableList.of(a), new long[] {10}, 4);
+    assertThat(shards).isEqualTo(ImmutableList.of(ImmutableList.of(a)));
+  }
+
+  private static StructuredDiagnostic diagnostic(Kind kind, String file, long line, String text) {
+    return new StructuredDiagnostic(kind, file, line, text);
+  }
+
+  @Test
+  public void mergesDiagnosticsInOrder() {
+    String note = "Note: Some input files use unchecked or unsafe operations.";
+    List<StructuredDiagnostic> first = ImmutableList.of(
+        diagnostic(Kind.WARNING, "B.java", 3, "B.java:3: warning: [Foo] foo\n  foo();\n  ^"),
+        diagnostic(Kind.ERROR, "A.java", 9, "A.java:9: error: [Bar] bar\n  bar();\n  ^"),
+        diagnostic(Kind.NOTE, "", Diagnostic.NOPOS, note));
+    List<StructuredDiagnostic> second = ImmutableList.of(
+        diagnostic(Kind.ERROR, "A.java", 2, "A.java:2: error: [Baz] baz\n  baz();\n  ^"),
+        diagnostic(Kind.NOTE, "", Diagnostic.NOPOS, note));
+    assertThat(ErrorProneShardedCompiler.mergeDiagnostics(ImmutableList.of(first, second)))
+        .isEqualTo("A.java:2: error: [Baz] baz\n"
+            + "  baz();\n"
+            + "  ^\n"
+            + "A.java:9: error: [Bar] bar\n"
+            + "  bar();\n"
+            + "  ^\n"
+            + "B.java:3: warning: [Foo] foo\n"
+            + "  foo();\n"
+            + "  ^\n"
+            + note + "\n"
+            + "2 errors\n"
+            + "1 warning\n");
+  }
+
+  @Test
+  public void countsDiagnosticsReportedBySeveralWorkersOnce() {
+    StructuredDiagnostic error =
+        diagnostic(Kind.ERROR, "A.java", 2, "A.java:2: error: cannot find symbol");
+    assertThat(ErrorProneShardedCompiler.mergeDiagnostics(ImmutableList.of(
+        ImmutableList.of(error), ImmutableList.of(error))))
+        .isEqualTo("A.java:2: error: cannot find symbol\n1 error\n");
+  }
+
+  @Test
+  public void rejectsArgumentsWithLineBreaks() {
+    StringWriter output = new StringWriter();
+    Result result = ErrorProneShardedCompiler.compile(
+        new String[] {"-Abad=a\nb", "A.java"}, 2, new PrintWriter(output, true));
+    assertThat(result).isEqualTo(Result.CMDERR);
+    assertThat(output.toString()).contains("line breaks");
+  }
+
+  @Test
+  public void analyzesEachFileInOneWorker() throws Exception {
+    File a = tempDir.newFile("A.java");
+    Files.write(a.toPath(), ImmutableList.of(
+        "class A {", "  boolean f(int[] x, int[] y) { return x.equals(y); }", "}"), UTF_8);
+    File b = tempDir.newFile("B.java");
+    Files.write(b.toPath(), ImmutableList.of(
+        "class B extends A {", "  boolean g(int[] x) { return x.equals(x); }", "}"), UTF_8);
+    StringWriter output = new StringWriter();
+    Result result = ErrorProneShardedCompiler.compile(
+        new String[] {b.getPath(), a.getPath()}, 2, new PrintWriter(output, true));
+    assertThat(result).isEqualTo(Result.ERROR);
+    String merged = output.toString();
+    // Each finding is reported once, in order of file.
+    assertThat(merged.split("\\[ArrayEquals\\]", -1).length).isEqualTo(3);
+    assertThat(merged.indexOf("A.java:2: error: [ArrayEquals]") >= 0).isTrue();
+    assertThat(merged.indexOf("B.java:2: error: [ArrayEquals]")
+        > merged.indexOf("A.java:2: error: [ArrayEquals]")).isTrue();
+    assertThat(merged.endsWith("2 errors\n")).isTrue();
+  }
+
+  @Test
+  public void findsProcessorsRegisteredOnTheProcessorPath() throws Exception {
+    File withProcessor = tempDir.newFolder("with");
+    Path service = withProcessor.toPath()
+        .resolve("META-INF/services/javax.annotation.processing.Processor");
+    Files.createDirectories(service.getParent());
+    Files.write(service, ImmutableList.of("com.example.Processor"), UTF_8);
+    File withoutProcessor = tempDir.newFolder("without");
+
+    assertThat(ErrorProneShardedCompiler.runsProcessors(
+        ImmutableList.of("-processorpath", withProcessor.toString()))).isTrue();
+    assertThat(ErrorProneShardedCompiler.runsProcessors(
+        ImmutableList.of("-cp", withProcessor.toString()))).isTrue();
+    assertThat(ErrorProneShardedCompiler.runsProcessors(
+        ImmutableList.of("-processorpath", withoutProcessor.toString()))).isFalse();
+    assertThat(ErrorProneShardedCompiler.runsProcessors(ImmutableList.of(
+        "-processorpath", withProcessor.toString(), "-proc:none"))).isFalse();
+  }
+
+  @Test
+  public void namedProcessorsAreRun() {
+    assertThat(ErrorProneShardedCompiler.runsProcessors(ImmutableList.of(
+        "-processorpath", tempDir.getRoot().toString(), "-processor", "com.example.Processor")))
+        .isTrue();
+  }
+}
@@ -64,6 +64,11 @@ public class ErrorProneTestCompiler {
       wrappedCompilerBuilder.redirectOutputTo(printWriter);
       return this;
     }
+
+    public Builder listenDetached(DetachedDescriptionListener listener) {
+      wrappedCompilerBuilder.listenDetached(listener);
+      return this;
+    }
   }
 
   private final ErrorProneCompiler compiler;
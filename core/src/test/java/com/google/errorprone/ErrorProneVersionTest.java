@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link ErrorProneVersion}.
+ */
+@RunWith(JUnit4.class)
+public class ErrorProneVersionTest {
+
+  @Test
+  public void fingerprintIsStable() {
+    String fingerprint = ErrorProneVersion.fingerprint();
+    assertThat(fingerprint.isEmpty()).isFalse();
+    assertThat(ErrorProneVersion.fingerprint()).isEqualTo(fingerprint);
+  }
+
+  @Test
+  public void snapshotsAreFingerprintedByContent() {
+    // Tests run from the class directories, which have no Maven metadata.
+    assertThat(ErrorProneVersion.loadVersionFromPom().isPresent()).isFalse();
+    assertThat(ErrorProneVersion.fingerprint()).startsWith("unknown version ");
+  }
+}
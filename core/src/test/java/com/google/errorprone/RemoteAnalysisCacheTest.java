@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.errorprone.AnalysisCache.Finding;
+import com.google.errorprone.BugPattern.SeverityLevel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link RemoteAnalysisCache} and {@link RemoteCacheServer}.
+ */
+@RunWith(JUnit4.class)
+public class RemoteAnalysisCacheTest {
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private RemoteCacheServer server;
+  private String url;
+
+  @Before
+  public void startServer() throws Exception {
+    server = RemoteCacheServer.start(0, tempDir.getRoot().toPath());
+    url = "http://localhost:" + server.port() + "/cache/";
+  }
+
+  @After
+  public void stopServer() {
+    server.stop();
+  }
+
+  private static HashCode key(int i) {
+    return AnalysisCache.key(
+        "config", "class Test" + i + " {}", 0, ImmutableList.<HashCode>of());
+  }
+
+  @Test
+  public void sharesFindingsBetweenClients() throws Exception {
+    RemoteAnalysisCache writer = new RemoteAnalysisCache(url);
+    assertThat(writer.lookup(key(1), SECONDS.toNanos(10)).isPresent()).isFalse();
+    writer.store(key(1), ImmutableList.of(
+        new Finding(SeverityLevel.ERROR, 1, 2, 3, "error \u00e9")));
+    // Closing the client waits for its pending stores.
+    writer.close();
+
+    RemoteAnalysisCache reader = new RemoteAnalysisCache(url);
+    try {
+      ImmutableList<Finding> found = reader.lookup(key(1), SECONDS.toNanos(10)).get();
+      assertThat(found.size()).isEqualTo(1);
+      assertThat(found.get(0).severity).isEqualTo(SeverityLevel.ERROR);
+      assertThat(found.get(0).preferredPosition).isEqualTo(2);
+      assertThat(found.get(0).message).isEqualTo("error \u00e9");
+      assertThat(reader.lookup(key(2), SECONDS.toNanos(10)).isPresent()).isFalse();
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void storesContinueAfterLookupsAreDisabled() throws Exception {
+    RemoteAnalysisCache writer = new RemoteAnalysisCache(url);
+    // Lookups that are never given time to answer cost more than they save.
+    for (int i = 0; i < 16; i++) {
+      assertThat(writer.lookup(key(100 + i), 0).isPresent()).isFalse();
+    }
+    writer.store(key(1), ImmutableList.of(new Finding(SeverityLevel.WARNING, 1, 2, 3, "warning")));
+    writer.close();
+
+    RemoteAnalysisCache reader = new RemoteAnalysisCache(url);
+    try {
+      assertThat(reader.lookup(key(1), SECONDS.toNanos(10)).isPresent()).isTrue();
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void serverRejectsInvalidKeys() throws Exception {
+    HttpURLConnection connection =
+        (HttpURLConnection) new URL(url + "../../etc/passwd").openConnection();
+    assertThat(connection.getResponseCode()).isEqualTo(400);
+    connection.disconnect();
+  }
+
+  @Test
+  public void abandonedLookupsDoNotHoldUpLaterOnes() throws Exception {
+    // A server that never answers the first requests, and answers 404 to the rest.
+    final ServerSocket serverSocket = new ServerSocket(0);
+    final List<Socket> unanswered = new ArrayList<>();
+    Thread serverThread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            Socket socket = serverSocket.accept();
+            if (unanswered.size() < 8) {
+              unanswered.add(socket);
+              continue;
+            }
+            BufferedReader request =
+                new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+            for (String line = request.readLine(); line != null && !line.isEmpty();
+                line = request.readLine()) {}
+            socket.getOutputStream().write(("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n"
+                + "Connection: close\r\n\r\n").getBytes(US_ASCII));
+            socket.close();
+          }
+        } catch (IOException e) {
+          // The socket was closed at the end of the test.
+        }
+      }
+    };
+    serverThread.setDaemon(true);
+    serverThread.start();
+
+    RemoteAnalysisCache cache =
+        new RemoteAnalysisCache("http://localhost:" + serverSocket.getLocalPort() + "/");
+    try {
+      // More unanswered lookups than the client has threads.
+      for (int i = 0; i < 8; i++) {
+        assertThat(cache.lookup(key(i), MILLISECONDS.toNanos(20)).isPresent()).isFalse();
+      }
+      long start = System.nanoTime();
+      assertThat(cache.lookup(key(8), SECONDS.toNanos(10)).isPresent()).isFalse();
+      assertThat(NANOSECONDS.toSeconds(System.nanoTime() - start) < 5).isTrue();
+    } finally {
+      cache.close();
+      serverSocket.close();
+      serverThread.join();
+      for (Socket socket : unanswered) {
+        socket.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.jvm.ClassReader;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Names;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link VisitorState}.
+ */
+@RunWith(JUnit4.class)
+public class VisitorStateTest {
+
+  private Context context;
+
+  @Before
+  public void setUp() throws Exception {
+    ErrorProneInMemoryFileManager fileManager = new ErrorProneInMemoryFileManager();
+    JavacTaskImpl task = (JavacTaskImpl) JavacTool.create().getTask(null, fileManager, null,
+        null, null, Arrays.asList(fileManager.forSourceLines("Test.java", "class Test {}")));
+    task.analyze();
+    context = task.getContext();
+  }
+
+  /** Enters a class that can be completed without a class file, as if it had been compiled. */
+  private void enterClass(String name) {
+    ClassSymbol sym = ClassReader.instance(context).enterClass(Names.instance(context)
+        .fromString(name));
+    sym.completer = null;
+  }
+
+  @Test
+  public void cachesFoundTypes() {
+    VisitorState state = new VisitorState(context);
+    assertThat(state.getTypeFromString("java.lang.String"))
+        .isSameAs(new VisitorState(context).getTypeFromString("java.lang.String"));
+  }
+
+  @Test
+  public void cachesFailedTypeLookups() {
+    assertThat(new VisitorState(context).getTypeFromString("test.Later")).isNull();
+    enterClass("test.Later");
+    enterClass("test.Other");
+
+    // An uncached lookup would now find the class...
+    assertThat(new VisitorState(context).getTypeFromString("test.Other")).isNotNull();
+    // ...but the failed lookup is not retried for the rest of the compilation.
+    assertThat(new VisitorState(context).getTypeFromString("test.Later")).isNull();
+  }
+
+  @Test
+  public void cachesFailedSymbolCompletions() {
+    ClassSymbol sym = ClassReader.instance(context).enterClass(Names.instance(context)
+        .fromString("test.Missing"));
+    assertThat(new VisitorState(context).getSymbolFromString("test.Missing")).isNull();
+
+    // The symbol can be completed now, but the failure is remembered.
+    sym.completer = null;
+    assertThat(new VisitorState(context).getSymbolFromString("test.Missing")).isNull();
+  }
+}
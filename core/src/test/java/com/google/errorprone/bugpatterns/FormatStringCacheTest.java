@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.bugpatterns;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.sun.tools.javac.util.Context;
+
+import edu.umd.cs.findbugs.formatStringChecker.ExtraFormatArgumentsException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for {@link FormatStringCache}.
+ */
+@RunWith(JUnit4.class)
+public class FormatStringCacheTest {
+
+  private final FormatStringCache cache = FormatStringCache.instance(new Context());
+
+  @Test
+  public void regexSyntaxError() {
+    assertThat(cache.regexSyntaxError("a+b").isPresent()).isFalse();
+    assertThat(cache.regexSyntaxError("a(b").get()).contains("Unclosed group");
+  }
+
+  @Test
+  public void printfError() {
+    assertThat(cache.printfError("%d", Arrays.asList("Ljava/lang/Integer;")).isPresent())
+        .isFalse();
+    assertThat(cache.printfError("%d", Arrays.asList("Ljava/lang/Integer;", "Ljava/lang/Integer;"))
+        .get()).isInstanceOf(ExtraFormatArgumentsException.class);
+  }
+
+  @Test
+  public void messageFormatError() {
+    assertThat(cache.messageFormatError("{0} and {1}").isPresent()).isFalse();
+    assertThat(cache.messageFormatError("{0").isPresent()).isTrue();
+  }
+
+  @Test
+  public void repeatedLiteralsAreParsedOnce() {
+    Pattern placeholder = Pattern.compile("%s");
+    assertThat(cache.find(placeholder, "value: %s")).isTrue();
+    assertThat(cache.find(placeholder, "value: %s")).isTrue();
+    assertThat(cache.find(placeholder, "value")).isFalse();
+    assertThat(cache.stats().hitCount()).isEqualTo(1L);
+    assertThat(cache.stats().missCount()).isEqualTo(2L);
+  }
+
+  @Test
+  public void scopedToTheContext() {
+    Context context = new Context();
+    assertThat(FormatStringCache.instance(context)).isSameAs(FormatStringCache.instance(context));
+    assertThat(FormatStringCache.instance(context)).isNotSameAs(cache);
+  }
+
+  @Test
+  public void statisticsAreReportedOnlyOnceUsed() {
+    FormatStringCache cache = FormatStringCache.instance(new Context());
+    assertThat(cache.statistics().isPresent()).isFalse();
+    cache.regexSyntaxError("a+b");
+    assertThat(cache.statistics().get()).contains("requests=1");
+  }
+}
@@ -16,8 +16,15 @@
 
 package com.google.errorprone.bugpatterns;
 
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 import com.google.errorprone.CompilationTestHelper;
 
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.Tree.Kind;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -48,4 +55,12 @@ public class NumericEqualityTest {
         .sources(getClass(), "NumericEqualityNegativeCases.java"));
   }
 
+  @Test
+  public void nullLiteralIsRejectedBeforeTheSubtypeTest() {
+    LiteralTree nullLiteral = mock(LiteralTree.class);
+    when(nullLiteral.getKind()).thenReturn(Kind.NULL_LITERAL);
+    // Without a VisitorState the subtype test would throw, so it must not run.
+    assertThat(NumericEquality.SUBCLASS_OF_NUMBER.matches(nullLiteral, null)).isFalse();
+  }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link ClassDataSharing}.
+ */
+@RunWith(JUnit4.class)
+public class ClassDataSharingTest {
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private File jar;
+  private File archive;
+  private File javaHome;
+
+  @Before
+  public void setUp() throws IOException {
+    jar = tempDir.newFile("error_prone_core.jar");
+    archive = tempDir.newFile("error_prone_core.jsa");
+    javaHome = tempDir.newFolder("jre");
+  }
+
+  private void writeSettings(String... lines) throws IOException {
+    Files.write(new File(tempDir.getRoot(), "error_prone_core.appcds").toPath(),
+        Arrays.asList(lines), UTF_8);
+  }
+
+  @Test
+  public void usesArchiveDumpedByTheSameJvmWithTheJar() throws Exception {
+    writeSettings("java.home=" + javaHome, "class.path=" + jar);
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).get()).isEqualTo(archive);
+    assertThat(ClassDataSharing.jvmFlags(jar, javaHome.getPath())).containsExactly(
+        "-XX:+UnlockCommercialFeatures",
+        "-XX:+UseAppCDS",
+        "-Xshare:auto",
+        "-XX:SharedArchiveFile=" + archive.getAbsolutePath()).inOrder();
+    assertThat(ClassDataSharing.classPath(jar, javaHome.getPath(), "user.jar"))
+        .isEqualTo(jar.getAbsolutePath() + File.pathSeparator + "user.jar");
+  }
+
+  @Test
+  public void javaHomeIsCompared() throws Exception {
+    writeSettings("java.home=" + javaHome + "/../jre/.", "class.path=" + jar);
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).isPresent()).isTrue();
+
+    File otherJavaHome = tempDir.newFolder("other");
+    assertThat(ClassDataSharing.findArchive(jar, otherJavaHome.getPath()).isPresent())
+        .isFalse();
+    assertThat(ClassDataSharing.jvmFlags(jar, otherJavaHome.getPath())).isEmpty();
+    assertThat(ClassDataSharing.classPath(jar, otherJavaHome.getPath(), "user.jar"))
+        .isEqualTo("user.jar");
+  }
+
+  @Test
+  public void archiveDumpedWithAnotherClassPathIsNotUsed() throws Exception {
+    writeSettings("java.home=" + javaHome, "class.path=" + jar + File.pathSeparator + "javac.jar");
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).isPresent()).isFalse();
+  }
+
+  @Test
+  public void incompleteSettingsAreNotUsed() throws Exception {
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).isPresent()).isFalse();
+    writeSettings("java.home=" + javaHome);
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).isPresent()).isFalse();
+    writeSettings("class.path=" + jar);
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).isPresent()).isFalse();
+  }
+
+  @Test
+  public void missingArchiveIsNotUsed() throws Exception {
+    writeSettings("java.home=" + javaHome, "class.path=" + jar);
+    assertThat(archive.delete()).isTrue();
+    assertThat(ClassDataSharing.findArchive(jar, javaHome.getPath()).isPresent()).isFalse();
+  }
+
+  @Test
+  public void notRequestedByDefault() {
+    assertThat(ClassDataSharing.requested()).isFalse();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.matchers;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.ErrorProneInMemoryFileManager;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.SuggestedFix;
+import com.google.errorprone.matchers.DescriptionTest.MyChecker;
+
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCExpression;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link DetachedDescription}.
+ */
+@RunWith(JUnit4.class)
+public class DetachedDescriptionTest {
+
+  @Test
+  public void resolvesPositionsAndFixes() throws Exception {
+    ErrorProneInMemoryFileManager fileManager = new ErrorProneInMemoryFileManager();
+    JavacTaskImpl task = (JavacTaskImpl) JavacTool.create().getTask(null, fileManager, null,
+        null, null, Arrays.asList(
+            fileManager.forSourceLines("Test.java", "class Test {", "  int x = 1;", "}")));
+    JCCompilationUnit unit = (JCCompilationUnit) task.parse().iterator().next();
+    JCClassDecl classDecl = (JCClassDecl) unit.getTypeDecls().get(0);
+    JCExpression initializer = ((JCVariableDecl) classDecl.getMembers().get(0)).getInitializer();
+    Description description = Description.builder(initializer, new MyChecker())
+        .addFix(SuggestedFix.builder()
+            .replace(initializer, "2")
+            .addImport("java.util.List")
+            .build())
+        .build();
+
+    DetachedDescription detached = description.detach(unit);
+    assertThat(detached.checkName).isEqualTo("DeadException");
+    assertThat(detached.severity).isEqualTo(description.severity);
+    assertThat(detached.sourceFile).endsWith("Test.java");
+    // "1" is the 11th character of the second line.
+    assertThat(detached.startPosition).isEqualTo(23);
+    assertThat(detached.preferredPosition).isEqualTo(23);
+    assertThat(detached.endPosition).isEqualTo(24);
+    assertThat(detached.line).isEqualTo(2);
+    assertThat(detached.column).isEqualTo(11);
+    assertThat(detached.fixes.size()).isEqualTo(1);
+    assertThat(detached.fixes.get(0).replacements)
+        .isEqualTo(ImmutableList.of(Replacement.create(23, 24, "2")));
+    assertThat(detached.fixes.get(0).importsToAdd)
+        .isEqualTo(ImmutableList.of("import java.util.List"));
+    assertThat(detached.getMessage()).isEqualTo(description.getMessage());
+  }
+}
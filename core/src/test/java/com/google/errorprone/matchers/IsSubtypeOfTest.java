@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.matchers.Matchers.isSubtypeOf;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.scanner.Scanner;
+
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link IsSubtypeOf}, including results served from the {@link TypeRelationCache}.
+ */
+@RunWith(JUnit4.class)
+public class IsSubtypeOfTest extends CompilerBasedAbstractTest {
+
+  @Test
+  public void repeatedQueries() {
+    writeFile("A.java",
+        "import java.util.List;",
+        "import java.util.concurrent.atomic.AtomicInteger;",
+        "public class A {",
+        "  AtomicInteger first;",
+        "  AtomicInteger second;",
+        "  String string;",
+        "  List<String> list;",
+        "  List<String> otherList;",
+        "}");
+    final Matcher<Tree> isNumber = isSubtypeOf("java.lang.Number");
+    final Matcher<Tree> isCollection = isSubtypeOf("java.util.Collection");
+    final Map<String, String> results = new LinkedHashMap<>();
+    assertCompiles(new Scanner() {
+      @Override
+      public Void visitVariable(VariableTree node, VisitorState state) {
+        String result = "";
+        if (isNumber.matches(node.getType(), state)) {
+          result += "Number";
+        }
+        if (isCollection.matches(node.getType(), state)) {
+          result += "Collection";
+        }
+        results.put(node.getName().toString(), result);
+        return super.visitVariable(node, state);
+      }
+    });
+    assertThat(results).isEqualTo(ImmutableMap.of(
+        "first", "Number",
+        "second", "Number",
+        "string", "",
+        "list", "Collection",
+        "otherList", "Collection"));
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.matchers.Matchers.allOf;
+import static com.google.errorprone.matchers.Matchers.allOfReorderable;
+import static com.google.errorprone.matchers.Matchers.anyOf;
+import static com.google.errorprone.matchers.Matchers.anyOfReorderable;
+import static com.google.errorprone.matchers.Matchers.not;
+import static com.google.errorprone.matchers.Matchers.withCost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.errorprone.VisitorState;
+
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.Tree.Kind;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link MatcherCost}.
+ */
+@RunWith(JUnit4.class)
+public class MatcherCostTest {
+
+  private final List<String> evaluated = new ArrayList<>();
+
+  private Matcher<Tree> recording(final String name, final boolean result) {
+    return new Matcher<Tree>() {
+      @Override
+      public boolean matches(Tree tree, VisitorState state) {
+        evaluated.add(name);
+        return result;
+      }
+    };
+  }
+
+  private static LiteralTree literal() {
+    LiteralTree tree = mock(LiteralTree.class);
+    when(tree.getKind()).thenReturn(Kind.STRING_LITERAL);
+    return tree;
+  }
+
+  @Test
+  public void allOfReorderableEvaluatesCheapestFirst() {
+    Matcher<Tree> matcher = allOfReorderable(
+        withCost(MatcherCost.EXPENSIVE, recording("expensive", true)),
+        recording("moderate", true),
+        Matchers.<Tree>kindIs(Kind.INT_LITERAL));
+    assertThat(matcher.matches(literal(), null)).isFalse();
+    assertThat(evaluated).isEmpty();
+  }
+
+  @Test
+  public void anyOfReorderableEvaluatesCheapestFirst() {
+    Matcher<Tree> matcher = anyOfReorderable(
+        withCost(MatcherCost.EXPENSIVE, recording("expensive", true)),
+        recording("moderate", false),
+        withCost(MatcherCost.CHEAP, recording("cheap", false)));
+    assertThat(matcher.matches(literal(), null)).isTrue();
+    assertThat(evaluated).isEqualTo(Arrays.asList("cheap", "moderate", "expensive"));
+  }
+
+  @Test
+  public void sameCostKeepsDeclarationOrder() {
+    Matcher<Tree> matcher = allOfReorderable(recording("first", true), recording("second", true));
+    assertThat(matcher.matches(literal(), null)).isTrue();
+    assertThat(evaluated).isEqualTo(Arrays.asList("first", "second"));
+  }
+
+  @Test
+  public void allOfAndAnyOfKeepDeclarationOrder() {
+    // The moderate guard must run before, and short-circuit, the cheap matcher it protects.
+    Matcher<Tree> matcher = allOf(
+        recording("guard", false),
+        withCost(MatcherCost.CHEAP, recording("guarded", true)));
+    assertThat(matcher.matches(literal(), null)).isFalse();
+    assertThat(evaluated).isEqualTo(Arrays.asList("guard"));
+
+    evaluated.clear();
+    matcher = anyOf(
+        withCost(MatcherCost.EXPENSIVE, recording("expensive", false)),
+        withCost(MatcherCost.CHEAP, recording("cheap", true)));
+    assertThat(matcher.matches(literal(), null)).isTrue();
+    assertThat(evaluated).isEqualTo(Arrays.asList("expensive", "cheap"));
+  }
+
+  @Test
+  public void compositesCostAsMuchAsTheirMostExpensiveComponent() {
+    assertThat(MatcherCost.of(not(Matchers.<Tree>kindIs(Kind.INT_LITERAL))))
+        .isEqualTo(MatcherCost.CHEAP);
+    assertThat(MatcherCost.of(allOf(
+        Matchers.<Tree>kindIs(Kind.INT_LITERAL),
+        withCost(MatcherCost.EXPENSIVE, recording("expensive", true)))))
+        .isEqualTo(MatcherCost.EXPENSIVE);
+    assertThat(MatcherCost.of(recording("unknown", true))).isEqualTo(MatcherCost.MODERATE);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.matchers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.matchers.Matchers.memoized;
+import static org.mockito.Mockito.mock;
+
+import com.google.errorprone.VisitorState;
+
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.util.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link Matchers#memoized}.
+ */
+@RunWith(JUnit4.class)
+public class MemoizedMatcherTest {
+
+  private int evaluations;
+
+  private Matcher<Tree> counting(final boolean result) {
+    return new Matcher<Tree>() {
+      @Override
+      public boolean matches(Tree tree, VisitorState state) {
+        evaluations++;
+        return result;
+      }
+    };
+  }
+
+  @Test
+  public void equalQuestionsShareOneEvaluationPerNode() {
+    Matcher<Tree> first = memoized("question", counting(true));
+    Matcher<Tree> second = memoized(new String("question"), counting(false));
+    VisitorState state = new VisitorState(new Context());
+    Tree tree = mock(Tree.class);
+
+    assertThat(first.matches(tree, state)).isTrue();
+    assertThat(second.matches(tree, state)).isTrue();
+    assertThat(evaluations).isEqualTo(1);
+  }
+
+  @Test
+  public void differentQuestionsAndNodesAreEvaluatedSeparately() {
+    Matcher<Tree> first = memoized("first", counting(true));
+    Matcher<Tree> second = memoized("second", counting(false));
+    VisitorState state = new VisitorState(new Context());
+    Tree tree = mock(Tree.class);
+
+    assertThat(first.matches(tree, state)).isTrue();
+    assertThat(second.matches(tree, state)).isFalse();
+    assertThat(first.matches(mock(Tree.class), state)).isTrue();
+    assertThat(evaluations).isEqualTo(3);
+  }
+
+  @Test
+  public void memoIsNotSharedAcrossNodeStates() {
+    Matcher<Tree> matcher = memoized("question", counting(true));
+    VisitorState state = new VisitorState(new Context());
+    Tree tree = mock(Tree.class);
+
+    matcher.matches(tree, state.withPath(null));
+    matcher.matches(tree, state.withPath(null));
+    assertThat(evaluations).isEqualTo(2);
+  }
+}
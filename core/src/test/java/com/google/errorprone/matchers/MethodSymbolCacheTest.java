@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.matchers;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.errorprone.ErrorProneInMemoryFileManager;
+import com.google.errorprone.VisitorState;
+
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Names;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link MethodSymbolCache}.
+ */
+@RunWith(JUnit4.class)
+public class MethodSymbolCacheTest {
+
+  /** A matcher that counts how often it is evaluated, across all equal instances. */
+  private static class CountingMatcher implements MethodSymbolCache.SymbolMatcher {
+    static int evaluations;
+
+    private final String methodName;
+
+    CountingMatcher(String methodName) {
+      this.methodName = methodName;
+    }
+
+    @Override
+    public boolean matchesSymbol(MethodSymbol sym, VisitorState state) {
+      evaluations++;
+      return sym.getSimpleName().contentEquals(methodName);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof CountingMatcher
+          && methodName.equals(((CountingMatcher) obj).methodName);
+    }
+
+    @Override
+    public int hashCode() {
+      return methodName.hashCode();
+    }
+  }
+
+  private Context context;
+  private VisitorState state;
+  private MethodSymbol hashCode;
+
+  @Before
+  public void setUp() throws Exception {
+    ErrorProneInMemoryFileManager fileManager = new ErrorProneInMemoryFileManager();
+    JavacTaskImpl task = (JavacTaskImpl) JavacTool.create().getTask(null, fileManager, null,
+        null, null, Arrays.asList(fileManager.forSourceLines("Test.java", "class Test {}")));
+    task.analyze();
+    context = task.getContext();
+    state = new VisitorState(context);
+    hashCode = (MethodSymbol) Symtab.instance(context).objectType.tsym.members()
+        .lookup(Names.instance(context).hashCode).sym;
+    CountingMatcher.evaluations = 0;
+  }
+
+  @Test
+  public void equalMatchersShareResults() {
+    assertThat(MethodSymbolCache.matches(new CountingMatcher("hashCode"), hashCode, state))
+        .isTrue();
+    assertThat(MethodSymbolCache.matches(new CountingMatcher("hashCode"), hashCode, state))
+        .isTrue();
+    assertThat(CountingMatcher.evaluations).isEqualTo(1);
+
+    assertThat(MethodSymbolCache.matches(new CountingMatcher("toString"), hashCode, state))
+        .isFalse();
+    assertThat(CountingMatcher.evaluations).isEqualTo(2);
+  }
+
+  @Test
+  public void matchersBuiltPerCallDoNotGrowCache() {
+    for (int i = 0; i < 1000; i++) {
+      MethodSymbolCache.matches(new CountingMatcher("hashCode"), hashCode, state);
+    }
+    assertThat(MethodSymbolCache.size(context)).isEqualTo(1);
+    assertThat(CountingMatcher.evaluations).isEqualTo(1);
+  }
+
+  @Test
+  public void staticMethodMatchersAreEqualByValue() {
+    assertThat(new StaticMethod("java.util.Objects", "equals"))
+        .isEqualTo(new StaticMethod("java.util.Objects", "equals"));
+    assertThat(new DescendantOf("java.util.Iterator", "hasNext()"))
+        .isEqualTo(new DescendantOf("java.util.Iterator", "hasNext()"));
+  }
+}
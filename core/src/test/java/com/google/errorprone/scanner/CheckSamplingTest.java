@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.errorprone.scanner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link CheckSampling}.
+ */
+@RunWith(JUnit4.class)
+public class CheckSamplingTest {
+
+  @Test
+  public void runsOnTheSampledShareOfBuckets() {
+    CheckSampling sampling = new CheckSampling(ImmutableMap.of("Sampled", 5), 42);
+    int included = 0;
+    for (int bucket = 0; bucket < 100; bucket++) {
+      if (sampling.includes("Sampled", bucket)) {
+        included++;
+      }
+      assertThat(sampling.includes("NotSampled", bucket)).isTrue();
+    }
+    assertThat(included).isEqualTo(5);
+    assertThat(sampling.isSampled("Sampled")).isTrue();
+    assertThat(sampling.isSampled("NotSampled")).isFalse();
+  }
+
+  @Test
+  public void consecutiveSeedsCoverEveryBucket() {
+    for (int bucket = 0; bucket < 100; bucket++) {
+      boolean covered = false;
+      // ceil(100 / 30) seeds
+      for (int seed = 1000; seed < 1004; seed++) {
+        covered |= new CheckSampling(ImmutableMap.of("Sampled", 30), seed)
+            .includes("Sampled", bucket);
+      }
+      assertThat(covered).isTrue();
+    }
+  }
+
+  @Test
+  public void sameSeedIsDeterministic() {
+    CheckSampling first = new CheckSampling(ImmutableMap.of("Sampled", 10), 7);
+    CheckSampling second = new CheckSampling(ImmutableMap.of("Sampled", 10), 7);
+    for (int bucket = 0; bucket < 100; bucket++) {
+      assertThat(first.includes("Sampled", bucket))
+          .isEqualTo(second.includes("Sampled", bucket));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.InvalidCommandLineOptionException;
+import com.google.errorprone.bugpatterns.ArrayEquals;
+import com.google.errorprone.bugpatterns.StringEquality;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for {@link PathScanners}.
+ */
+@RunWith(JUnit4.class)
+public class PathScannersTest {
+
+  private static final ScannerSupplier SUPPLIER =
+      ScannerSupplier.fromBugCheckerClasses(ArrayEquals.class, StringEquality.class);
+
+  private static PathScanners create(String... args) throws Exception {
+    return PathScanners.create(SUPPLIER, ErrorProneOptions.processArgs(args));
+  }
+
+  @Test
+  public void globs() throws Exception {
+    Pattern pattern = Pattern.compile(PathScanners.toRegex("glob:**/gen/*.{java,jav}"));
+    assertThat(pattern.matcher("/src/gen/Foo.java").find()).isTrue();
+    assertThat(pattern.matcher("/src/gen/Foo.jav").find()).isTrue();
+    assertThat(pattern.matcher("/src/gen/a/Foo.java").find()).isFalse();
+    assertThat(pattern.matcher("/src/gen/Foo.javax").find()).isFalse();
+    assertThat(pattern.matcher("/src/gen/Foo+java").find()).isFalse();
+  }
+
+  @Test
+  public void excludesPaths() throws Exception {
+    PathScanners scanners = create(
+        "-XepExcludedPaths:/generated/", "-XepExcludedPaths:glob:**/*_pb.java");
+    assertThat(scanners.forPath("/src/generated/Foo.java").isPresent()).isFalse();
+    assertThat(scanners.forPath("/src/Foo_pb.java").isPresent()).isFalse();
+    assertThat(scanners.forPath("/src/Foo.java").get()).isSameAs(scanners.defaultScanner());
+  }
+
+  @Test
+  public void includesOnlyTheGivenPaths() throws Exception {
+    PathScanners scanners = create("-XepIncludedPath:/src/A.java",
+        "-XepIncludedPath:/src/B.java", "-XepExcludedPaths:/B");
+    assertThat(scanners.forPath("/src/A.java").get()).isSameAs(scanners.defaultScanner());
+    assertThat(scanners.forPath("/src/B.java").isPresent()).isFalse();
+    assertThat(scanners.forPath("/src/C.java").isPresent()).isFalse();
+    assertThat(scanners.forPath("/other/src/A.java").isPresent()).isFalse();
+  }
+
+  @Test
+  public void overridesSeveritiesByPath() throws Exception {
+    PathScanners scanners = create(
+        "-XepPathSeverity:ArrayEquals:WARN:/test/",
+        "-XepPathSeverity:ArrayEquals:OFF:glob:**/FooTest.java",
+        "-XepPathSeverity:StringEquality:ERROR:regex:/test/");
+    assertThat(scanners.forPath("/src/Foo.java").get()).isSameAs(scanners.defaultScanner());
+
+    Scanner test = scanners.forPath("/test/BarTest.java").get();
+    assertThat(test.severityMap()).isEqualTo(ImmutableMap.of(
+        "ArrayEquals", SeverityLevel.WARNING, "StringEquality", SeverityLevel.ERROR));
+    assertThat(scanners.forPath("/test/BazTest.java").get()).isSameAs(test);
+
+    // The later pattern wins.
+    assertThat(scanners.forPath("/test/FooTest.java").get().severityMap().get("ArrayEquals"))
+        .isEqualTo(SeverityLevel.NOT_A_PROBLEM);
+  }
+
+  @Test
+  public void rejectsInvalidPatternsAndChecks() throws Exception {
+    for (String arg : Arrays.asList(
+        "-XepExcludedPaths:(", "-XepExcludedPaths:glob:{a,b", "-XepPathSeverity:Bogus:OFF:x")) {
+      try {
+        create(arg);
+        fail(arg);
+      } catch (InvalidCommandLineOptionException expected) {
+      }
+    }
+  }
+}
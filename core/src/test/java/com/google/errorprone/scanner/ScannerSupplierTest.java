@@ -32,11 +32,13 @@ import com.google.errorprone.bugpatterns.ArrayEquals;
 import com.google.errorprone.bugpatterns.BadShiftAmount;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.ChainingConstructorIgnoresParameter;
+import com.google.errorprone.bugpatterns.ClassCanBeStatic;
 import com.google.errorprone.bugpatterns.DepAnn;
 import com.google.errorprone.bugpatterns.LongLiteralLowerCaseSuffix;
 import com.google.errorprone.bugpatterns.PreconditionsCheckNotNull;
 import com.google.errorprone.bugpatterns.StaticAccessedFromInstance;
 import com.google.errorprone.bugpatterns.StringEquality;
+import com.google.errorprone.util.CodeSources;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -243,4 +245,66 @@ public class ScannerSupplierTest {
 
     assertThat(overriddenScannerSupplier.severities()).isEqualTo(expected);
   }
+
+  @Test
+  public void applyOverridesDisablesChecksAboveMaxCost() throws Exception {
+    ScannerSupplier ss = ScannerSupplier.fromBugCheckers(
+        new LongLiteralLowerCaseSuffix(),
+        new ArrayEquals(),
+        new ClassCanBeStatic());
+
+    ErrorProneOptions epOptions = ErrorProneOptions.processArgs(
+        ImmutableList.of("-XepMaxCost:MODERATE"));
+    Set<BugChecker> expected = ImmutableSet.<BugChecker>of(
+        new LongLiteralLowerCaseSuffix(),
+        new ArrayEquals());
+    assertThat(ss.applyOverrides(epOptions).getEnabledChecks()).isEqualTo(expected);
+
+    epOptions = ErrorProneOptions.processArgs(ImmutableList.of("-XepMaxCost:CHEAP"));
+    expected = ImmutableSet.<BugChecker>of(new LongLiteralLowerCaseSuffix());
+    assertThat(ss.applyOverrides(epOptions).getEnabledChecks()).isEqualTo(expected);
+  }
+
+  @Test
+  public void applyOverridesEnablesChecksAboveMaxCostByName() throws Exception {
+    ScannerSupplier ss = ScannerSupplier.fromBugCheckers(
+        new LongLiteralLowerCaseSuffix(),
+        new ArrayEquals(),
+        new ClassCanBeStatic());
+    ErrorProneOptions epOptions = ErrorProneOptions.processArgs(
+        ImmutableList.of("-XepMaxCost:CHEAP", "-Xep:ClassCanBeStatic"));
+
+    Set<BugChecker> expected = ImmutableSet.<BugChecker>of(
+        new LongLiteralLowerCaseSuffix(),
+        new ClassCanBeStatic());
+
+    assertThat(ss.applyOverrides(epOptions).getEnabledChecks()).isEqualTo(expected);
+  }
+
+  @Test
+  public void plusAndFilterKeepSampling() throws Exception {
+    ScannerSupplier ss = ScannerSupplier.fromBugCheckers(new ArrayEquals())
+        .applyOverrides(ErrorProneOptions.processArgs(
+            ImmutableList.of("-XepSample:ArrayEquals:10%", "-XepSampleSeed:3")));
+    assertThat(ss.sampling().isSampled("ArrayEquals")).isTrue();
+
+    ScannerSupplier filtered = ss.filter(Predicates.<BugChecker>alwaysTrue());
+    assertThat(filtered.sampling().toString()).isEqualTo(ss.sampling().toString());
+
+    ScannerSupplier combined = ss.plus(ScannerSupplier.fromBugCheckers(new BadShiftAmount()));
+    assertThat(combined.sampling().toString()).isEqualTo(ss.sampling().toString());
+    combined = ScannerSupplier.fromBugCheckers(new BadShiftAmount()).plus(ss);
+    assertThat(combined.sampling().toString()).isEqualTo(ss.sampling().toString());
+  }
+
+  @Test
+  public void fingerprintCoversThePluginCode() {
+    // The test classes stand in for a plugin jar.
+    String pluginCode = CodeSources.hash(ErrorProneJavaCompilerTest.class);
+    assertThat(ScannerSupplier.fromBugCheckers(
+        new ErrorProneJavaCompilerTest.UnsuppressibleArrayEquals()).get().fingerprint())
+        .contains(pluginCode);
+    assertThat(ScannerSupplier.fromBugCheckers(new ArrayEquals()).get().fingerprint()
+        .contains(pluginCode)).isFalse();
+  }
 }
@@ -17,7 +17,9 @@
 package com.google.errorprone.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.google.errorprone.VisitorState;
@@ -31,8 +33,11 @@ import com.sun.source.tree.ExpressionStatementTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.tree.JCTree.JCLiteral;
 
 import org.junit.After;
@@ -42,6 +47,7 @@ import org.junit.runners.JUnit4;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @RunWith(JUnit4.class)
 public class ASTHelpersTest extends CompilerBasedAbstractTest {
@@ -187,6 +193,55 @@ public class ASTHelpersTest extends CompilerBasedAbstractTest {
     assertCompiles(scanner);
   }
 
+  @Test
+  public void testMemoizedSymbolQueries() {
+    writeFile("com/google/errorprone/util/InheritedAnnotation.java",
+        "package com.google.errorprone.util;",
+        "import java.lang.annotation.Inherited;",
+        "@Inherited",
+        "public @interface InheritedAnnotation {}");
+    writeFile("B.java",
+        "import com.google.errorprone.util.InheritedAnnotation;",
+        "@InheritedAnnotation",
+        "public class B {",
+        "  public void foo() {}",
+        "}");
+    writeFile("C.java",
+        "public class C extends B {",
+        "  @Override public void foo() {}",
+        "}");
+
+    TestScanner scanner = new TestScanner() {
+      @Override
+      public Void visitClass(ClassTree tree, VisitorState state) {
+        if (tree.getSimpleName().toString().equals("C")) {
+          ClassSymbol sym = ASTHelpers.getSymbol(tree);
+          assertTrue(ASTHelpers.hasAnnotation(
+              sym, "com.google.errorprone.util.InheritedAnnotation", state));
+          assertTrue(ASTHelpers.hasAnnotation(
+              sym, "com.google.errorprone.util.InheritedAnnotation", state));
+          assertFalse(ASTHelpers.hasAnnotation(sym, "java.lang.Deprecated", state));
+        }
+        return super.visitClass(tree, state);
+      }
+
+      @Override
+      public Void visitMethod(MethodTree tree, VisitorState state) {
+        MethodSymbol sym = ASTHelpers.getSymbol(tree);
+        if (sym.owner.getSimpleName().toString().equals("C")
+            && sym.getSimpleName().toString().equals("foo")) {
+          Set<MethodSymbol> superMethods = ASTHelpers.findSuperMethods(sym, state);
+          assertEquals(ASTHelpers.findSuperMethods(sym, state.getTypes()), superMethods);
+          assertSame(superMethods, ASTHelpers.findSuperMethods(sym, state));
+          setAssertionsComplete();
+        }
+        return super.visitMethod(tree, state);
+      }
+    };
+    tests.add(scanner);
+    assertCompiles(scanner);
+  }
+
   @Test
   public void testGetTypeOnNestedAnnotationType() {
     writeFile("A.java",
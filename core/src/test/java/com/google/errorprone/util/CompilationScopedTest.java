@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.sun.tools.javac.util.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link CompilationScoped}.
+ */
+@RunWith(JUnit4.class)
+public class CompilationScopedTest {
+
+  private static final CompilationScoped<List<String>> LIST =
+      new CompilationScoped<List<String>>() {
+        @Override
+        protected List<String> create(Context context) {
+          return new ArrayList<>();
+        }
+      };
+
+  @Test
+  public void createsOneValuePerContext() {
+    Context context = new Context();
+    List<String> value = LIST.get(context);
+    assertThat(LIST.get(context)).isSameAs(value);
+    // E.g. the next annotation processing round.
+    assertThat(LIST.get(new Context())).isNotSameAs(value);
+  }
+}
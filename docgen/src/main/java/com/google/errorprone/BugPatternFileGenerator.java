@@ -24,6 +24,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.io.Files;
 import com.google.common.io.LineProcessor;
+import com.google.errorprone.BugPattern.Cost;
 import com.google.errorprone.BugPattern.Instance;
 import com.google.errorprone.BugPattern.MaturityLevel;
 import com.google.errorprone.BugPattern.SeverityLevel;
@@ -76,16 +77,17 @@ class BugPatternFileGenerator implements LineProcessor<List<Instance>> {
         "category: {3}\n" +
         "severity: {4}\n" +
         "maturity: {5}\n" +
+        "cost: {6}\n" +
         "---\n" +
         "\n" +
         "# Bug pattern: {1}\n" +
-        "__{8}__\n");
+        "__{9}__\n");
     if (pattern.altNames.length() > 0) {
       result.append("\n_Alternate names: {2}_\n");
     }
     result.append("\n" +
         "## The problem\n" +
-        "{9}\n" +
+        "{10}\n" +
         "\n" +
         "## Suppression\n");
 
@@ -96,7 +98,7 @@ class BugPatternFileGenerator implements LineProcessor<List<Instance>> {
         break;
       case CUSTOM_ANNOTATION:
         result.append("Suppress false positives by adding the custom suppression annotation " +
-            "`@{7}` to the enclosing element.\n");
+            "`@{8}` to the enclosing element.\n");
         break;
       case UNSUPPRESSIBLE:
         result.append("This check may not be suppressed.\n");
@@ -112,17 +114,18 @@ class BugPatternFileGenerator implements LineProcessor<List<Instance>> {
     pattern.name = parts[1];
     pattern.altNames = parts[2];
     pattern.maturity = MaturityLevel.valueOf(parts[5]);
-    pattern.summary = parts[8];
+    pattern.cost = Cost.valueOf(parts[6]);
+    pattern.summary = parts[9];
     pattern.severity = SeverityLevel.valueOf(parts[4]);
-    pattern.suppressibility = Suppressibility.valueOf(parts[6]);
-    pattern.customSuppressionAnnotation = parts[7];
+    pattern.suppressibility = Suppressibility.valueOf(parts[7]);
+    pattern.customSuppressionAnnotation = parts[8];
     result.add(pattern);
 
     // replace spaces in filename with underscores
     Writer writer = new FileWriter(
         new File(outputDir, pattern.name.replace(' ', '_') + ".md"));
     // replace "\n" with a carriage return for explanation
-    parts[9] = parts[9].replace("\\n", "\n");
+    parts[10] = parts[10].replace("\\n", "\n");
 
     MessageFormat wikiPageTemplate = constructPageTemplate(pattern);
     writer.write(wikiPageTemplate.format(parts));
@@ -81,17 +81,18 @@ public class DocGen extends AbstractProcessor {
       pw.print(annotation.category() + "\t"); //3
       pw.print(annotation.severity() + "\t"); //4
       pw.print(annotation.maturity() + "\t"); //5
-      pw.print(annotation.suppressibility() + "\t"); //6
+      pw.print(annotation.cost() + "\t"); //6
+      pw.print(annotation.suppressibility() + "\t"); //7
       // This is ugly, but you always get a MirroredTypeException when you try to access this
       // element. See https://community.oracle.com/thread/1184190.
       try {
         annotation.customSuppressionAnnotation();
         throw new IllegalStateException("Expected a MirroredTypeException");
       } catch (MirroredTypeException e) {
-        pw.print(e.getTypeMirror().toString() + "\t"); //7
+        pw.print(e.getTypeMirror().toString() + "\t"); //8
       }
-      pw.print(annotation.summary() + "\t");  //8
-      pw.println(annotation.explanation().replace("\n", "\\n")); //9
+      pw.print(annotation.summary() + "\t");  //9
+      pw.println(annotation.explanation().replace("\n", "\\n")); //10
     }
 
     if (roundEnv.processingOver()) {
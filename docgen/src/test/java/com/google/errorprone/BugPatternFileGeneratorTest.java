@@ -63,7 +63,7 @@ public class BugPatternFileGeneratorTest {
         new File(exampleDir, "DeadExceptionPositiveCase.java"), UTF_8);
     generator.processLine(
         "com.google.errorprone.bugpatterns.DeadException\t" +
-            "DeadException\tThrowableInstanceNeverThrown\tJDK\tERROR\tMATURE\tSUPPRESS_WARNINGS\t" +
+            "DeadException\tThrowableInstanceNeverThrown\tJDK\tERROR\tMATURE\tMODERATE\tSUPPRESS_WARNINGS\t" +
             "com.google.errorprone.BugPattern.NoCustomSuppression\t" +
             "Exception created but not thrown\t" +
             "The exception is created with new, but is not thrown, and the reference is lost.\n");